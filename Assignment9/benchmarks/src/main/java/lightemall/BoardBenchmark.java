@@ -0,0 +1,105 @@
+package lightemall;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// benchmarks of walking a board: linking the tiles, finding the radius, lighting the
+// tiles from the power station and checking for a win. the board is solved, so that
+// the walks go over every tile, as they do at the end of a game
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+  // the number of columns and of rows of the board
+  @Param({ "8", "32", "128", "512", "1000" })
+  public int size;
+  // the bias of the wires, which changes the shape of the tree
+  @Param({ "-3", "0", "3" })
+  public int bias;
+
+  // the game being walked, and the index of its power station
+  PuzzleEngine engine;
+  int station;
+  // the next tile to turn, and how many times it has been turned. every tile is turned
+  // four times in a row, back to how it started, so the board is never more than one
+  // tile from solved, however many times it is turned
+  int next;
+  int turns;
+
+  // makes the game of the size and turns every tile back into the tree
+  @Setup
+  public void setup() {
+    this.engine = new PuzzleEngine(this.size, this.size, this.bias, new Random(1),
+        new KruskalGenerator());
+    Board board = this.engine.board;
+    int[] wires = board.treeWires(this.engine.mst);
+    for (int i = 0; i < board.size(); i++) {
+      while (board.wires(i) != wires[i]) {
+        board.rotate(i);
+      }
+    }
+    this.engine.addNeighbors();
+    this.engine.turnGamePieceOff();
+    this.engine.lightCells();
+    this.station = board.index(this.engine.powerCol, this.engine.powerRow);
+  }
+
+  // links every tile to the neighbors it is connected to
+  @Benchmark
+  public Board addNeighbors() {
+    this.engine.addNeighbors();
+    return this.engine.board;
+  }
+
+  // finds the longest path through the tiles linked to the station, with two walks
+  @Benchmark
+  public int getRadius() {
+    return this.engine.getRadius();
+  }
+
+  // walks every tile linked to the station once
+  @Benchmark
+  public int bfs() {
+    return this.engine.board.bfs(this.station);
+  }
+
+  // turns the board off and lights it again from the station
+  @Benchmark
+  public int lightCells() {
+    this.engine.turnGamePieceOff();
+    this.engine.lightCells();
+    return this.engine.board.lit;
+  }
+
+  // checks whether every tile is lit
+  @Benchmark
+  public boolean isWinner() {
+    return this.engine.isWinner();
+  }
+
+  // turns one tile and relights the part of the board it changes, as a click does
+  @Benchmark
+  public int turn() {
+    this.engine.turn(this.next, 1);
+    this.turns = (this.turns + 1) % 4;
+    if (this.turns == 0) {
+      this.next = (this.next + 7919) % this.engine.board.size();
+    }
+    return this.engine.board.lit;
+  }
+}
@@ -0,0 +1,75 @@
+package lightemall;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// benchmarks of making a puzzle: the empty board, the weighted edges between its
+// tiles, the tree kruskal's algorithm picks from them, and the whole game.
+// the time of kruskal's algorithm alone is kruskal less generateEdges
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+  // the number of columns and of rows of the board
+  @Param({ "8", "32", "128", "512", "1000" })
+  public int size;
+  // the bias of the wires, as given to the game
+  @Param({ "-3", "0", "3" })
+  public int bias;
+
+  // a game of the size, whose board the edges are made over
+  PuzzleEngine engine;
+  // the generator being measured
+  KruskalGenerator kruskal;
+  // the random the weights are drawn from
+  Random random;
+
+  // makes the game of the size
+  @Setup
+  public void setup() {
+    this.engine = new PuzzleEngine(this.size, this.size, this.bias, new Random(1),
+        new KruskalGenerator());
+    this.kruskal = new KruskalGenerator();
+    this.random = new Random(2);
+  }
+
+  // makes the empty board with the power station
+  @Benchmark
+  public Board createBoard() {
+    return this.engine.createBoard();
+  }
+
+  // makes the edges between every pair of neighbors, with their random weights
+  @Benchmark
+  public EdgeList generateEdges() {
+    return this.kruskal.generateEdges(this.engine.board, this.bias, this.random);
+  }
+
+  // makes the edges, sorts them and picks the tree with union find
+  @Benchmark
+  public EdgeList kruskal() {
+    return this.kruskal.generate(this.engine.board, this.bias, this.random);
+  }
+
+  // makes a whole new game: the board, the tree, the radius, the scrambling and its par
+  @Benchmark
+  public PuzzleEngine makeGame() {
+    this.engine.makeGame();
+    return this.engine;
+  }
+}
@@ -0,0 +1,93 @@
+package lightemall;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javalib.impworld.WorldScene;
+import javalib.worldimages.Posn;
+import javalib.worldimages.WorldImage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// benchmarks of what the world does for the player: drawing the board after one
+// tile turned and after all of them changed, and a whole click, from onMouseClicked
+// to the scene drawn after it
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+  // the number of columns and of rows of the board
+  @Param({ "8", "32", "128", "512", "1000" })
+  public int size;
+  // the bias of the wires, as given to the game
+  @Param({ "-3", "0", "3" })
+  public int bias;
+
+  // the game being drawn
+  LightEmAll game;
+  // the next tile to change or click on, and how many times it has been turned. every
+  // tile is turned four times in a row, back to how it started, so the board stays as it
+  // was made but for one tile, however many times it is turned
+  int next;
+  int turns;
+
+  // makes the game of the size in a window big enough for tiles of at least 2 pixels
+  @Setup
+  public void setup() {
+    int pixels = Math.max(600, 3 * this.size);
+    this.game = new LightEmAll(pixels, pixels, this.size, this.size, this.bias,
+        new Random(1));
+    this.game.drawTiles();
+  }
+
+  // draws the board after one tile turned
+  @Benchmark
+  public WorldImage drawTiles() {
+    this.game.engine.board.rotate(this.next);
+    this.advance();
+    return this.game.drawTiles();
+  }
+
+  // draws every tile of the board again
+  @Benchmark
+  public WorldImage drawAllTiles() {
+    this.game.raster.changes.all = true;
+    return this.game.drawTiles();
+  }
+
+  // clicks on a tile and draws the scene, keeping the game from being lost
+  @Benchmark
+  public WorldScene onMouseClicked() {
+    int col = this.next / this.size;
+    int row = this.next % this.size;
+    this.advance();
+    int left = this.game.width / 2 - this.game.tileSize * this.size / 2;
+    int top = this.game.height / 2 - this.game.tileSize * this.size / 2;
+    this.game.engine.moves = 0;
+    this.game.engine.history.clear();
+    this.game.onMouseClicked(new Posn(left + col * this.game.tileSize + this.game.tileSize / 2,
+        top + row * this.game.tileSize + this.game.tileSize / 2), "LeftButton");
+    return this.game.makeScene();
+  }
+
+  // counts a turn of the next tile, moving on to another tile after its fourth
+  void advance() {
+    this.turns = (this.turns + 1) % 4;
+    if (this.turns == 0) {
+      this.next = (this.next + 7919) % this.game.engine.board.size();
+    }
+  }
+}
@@ -0,0 +1,36 @@
+import java.util.Random;
+
+// abstract class that holds the bias helpers shared by the tree generators
+abstract class ATreeGenerator implements TreeGenerator {
+
+  // returns how many times more a horizontal wire costs than a vertical one
+  int horizontalCost(int bias) {
+    return bias > 0 ? bias : 1;
+  }
+
+  // returns how many times more a vertical wire costs than a horizontal one
+  int verticalCost(int bias) {
+    return bias < 0 ? -bias : 1;
+  }
+
+  // returns one of the given directions at random. a horizontal direction is picked
+  // with the given horizontal weight and a vertical direction with the vertical weight
+  int pickDirection(int dirs, int horizontalWeight, int verticalWeight, Random random) {
+    int horizontal = Integer.bitCount(dirs & (Board.LEFT | Board.RIGHT));
+    int vertical = Integer.bitCount(dirs & (Board.TOP | Board.BOTTOM));
+    int pick = random.nextInt(horizontal * horizontalWeight + vertical * verticalWeight);
+    for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+      if ((dirs & dir) != 0) {
+        if (dir == Board.LEFT || dir == Board.RIGHT) {
+          pick = pick - horizontalWeight;
+        } else {
+          pick = pick - verticalWeight;
+        }
+        if (pick < 0) {
+          return dir;
+        }
+      }
+    }
+    throw new IllegalArgumentException("No direction to pick from");
+  }
+}
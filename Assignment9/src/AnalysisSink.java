@@ -0,0 +1,16 @@
+// class that keeps the analysis of every puzzle instead of writing the puzzles,
+// see PuzzleAnalysis
+class AnalysisSink implements PuzzleSink {
+  // the analysis of every puzzle, by number
+  PuzzleAnalysis[] analyses;
+
+  // constructor for a sink with room for the given number of puzzles
+  AnalysisSink(int count) {
+    this.analyses = new PuzzleAnalysis[count];
+  }
+
+  // analyzes the given puzzle
+  public void accept(int number, long seed, PuzzleEngine engine) {
+    this.analyses[number] = new PuzzleAnalysis(engine);
+  }
+}
@@ -0,0 +1,135 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+// class that makes a set of puzzles on every core and gives them to a PuzzleSink as
+// they are made. from the command line they are written to a file: a file whose name
+// ends in .puz is written as a puzzle library, see PuzzleLibrary, and any other file
+// gets one line per puzzle, see TextPuzzleSink:
+//   number cols rows bias seed radius movesNeeded stationCol stationRow tiles
+// where the tiles are written as in Board.tilesText, and the same puzzle is made
+// again by new PuzzleEngine(cols, rows, bias, new Random(seed), new KruskalGenerator()).
+// the same arguments always give the same puzzles, however many threads make them,
+// though the lines may come out in a different order.
+// run with: java BatchGenerator count cols rows bias seed file [threads]
+class BatchGenerator {
+  // the most puzzles a task makes itself instead of splitting its work in two
+  static final int LEAF_SIZE = 16;
+
+  // the size and bias of every puzzle
+  int cols;
+  int rows;
+  int bias;
+  // where the puzzles go
+  PuzzleSink sink;
+  // the number of puzzles written so far
+  AtomicLong written;
+
+  // constructor for a generator of puzzles of the given size and bias,
+  // that gives them to the given sink
+  BatchGenerator(int cols, int rows, int bias, PuzzleSink sink) {
+    this.cols = cols;
+    this.rows = rows;
+    this.bias = bias;
+    this.sink = sink;
+    this.written = new AtomicLong();
+  }
+
+  // makes the puzzles given on the command line and prints how fast they were made
+  public static void main(String[] args) throws IOException {
+    if (args.length < 6) {
+      System.out.println("usage: java BatchGenerator count cols rows bias seed file [threads]");
+      return;
+    }
+    int count = Integer.parseInt(args[0]);
+    int cols = Integer.parseInt(args[1]);
+    int rows = Integer.parseInt(args[2]);
+    int bias = Integer.parseInt(args[3]);
+    long seed = Long.parseLong(args[4]);
+    int threads = args.length > 6 ? Integer.parseInt(args[6])
+        : Runtime.getRuntime().availableProcessors();
+    long start = System.nanoTime();
+    if (args[5].endsWith(".puz")) {
+      try (PuzzleLibraryWriter library = new PuzzleLibraryWriter(Paths.get(args[5]), count)) {
+        new BatchGenerator(cols, rows, bias, library).generate(count, seed, threads);
+      }
+    } else {
+      try (Writer out = new BufferedWriter(new FileWriter(args[5]), 1 << 16)) {
+        new BatchGenerator(cols, rows, bias, new TextPuzzleSink(out))
+            .generate(count, seed, threads);
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d puzzles of %dx%d in %.2fs, %.1f puzzles/s on %d threads",
+        count, cols, rows, seconds, count / seconds, threads));
+  }
+
+  // makes the given number of puzzles from the given seed on the given number of threads
+  void generate(int count, long seed, int threads) throws IOException {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      pool.invoke(new BatchTask(this, 0, count, new SplittableRandom(seed)));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  // makes the puzzle with the given number from the given seed, and gives it to the sink
+  void make(int number, long seed) {
+    PuzzleEngine engine = new PuzzleEngine(this.cols, this.rows, this.bias, new Random(seed),
+        new KruskalGenerator());
+    try {
+      this.sink.accept(number, seed, engine);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.written.incrementAndGet();
+  }
+}
+
+// class that represents making a range of the puzzles of a batch. it splits the range,
+// and its random stream, in two until the range is small enough to make directly,
+// so every puzzle gets the same seed whichever thread makes it
+class BatchTask extends RecursiveAction {
+  // tasks are never serialized, but RecursiveAction is Serializable
+  private static final long serialVersionUID = 1L;
+  // the batch the puzzles belong to
+  BatchGenerator batch;
+  // the numbers of the first puzzle and of the puzzle after the last one
+  int from;
+  int to;
+  // the random stream the seeds of the puzzles in the range come from
+  SplittableRandom random;
+
+  // constructor for BatchTask
+  BatchTask(BatchGenerator batch, int from, int to, SplittableRandom random) {
+    this.batch = batch;
+    this.from = from;
+    this.to = to;
+    this.random = random;
+  }
+
+  // makes the puzzles in the range, splitting it first if it is too big
+  protected void compute() {
+    if (this.to - this.from <= BatchGenerator.LEAF_SIZE) {
+      for (int i = this.from; i < this.to; i++) {
+        this.batch.make(i, this.random.nextLong());
+      }
+    } else {
+      int middle = (this.from + this.to) >>> 1;
+      SplittableRandom second = this.random.split();
+      BatchTask.invokeAll(new BatchTask(this.batch, this.from, middle, this.random),
+          new BatchTask(this.batch, middle, this.to, second));
+    }
+  }
+}
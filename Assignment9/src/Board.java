@@ -0,0 +1,551 @@
+import java.util.Arrays;
+
+// class that represents the board as flat primitive arrays.
+// tiles are stored in column-major order, i.e., the tile at (col, row)
+// lives at index col * rows + row
+class Board {
+  // the connection bits of a tile. rotating a tile clockwise moves every
+  // bit one place up (left -> top -> right -> bottom -> left)
+  static final int LEFT = 1;
+  static final int TOP = 2;
+  static final int RIGHT = 4;
+  static final int BOTTOM = 8;
+  // all four connection bits
+  static final int WIRES = 15;
+  // whether the power station is on the tile
+  static final int STATION = 16;
+
+  // the number of columns and rows of tiles
+  int cols;
+  int rows;
+  // the connection bits and the station bit of every tile
+  byte[] tiles;
+  // the directions in which every tile is connected to a neighbor
+  // that is also connected back to it
+  byte[] links;
+  // how much power every tile had when it was last lit, 0 means it is not lit.
+  // only the power given since the board was last turned off counts, see power
+  int[] powered;
+  // the number of the last time the board was turned off before every tile was lit,
+  // and the latest such number, so that turning the board off does not touch the tiles
+  int[] litEpoch;
+  int epoch;
+  // the number of tiles that are lit
+  int lit;
+  // scratch space for the walks over the links, so that they do not allocate
+  int[] queue;
+  // the number of the last walk that reached every tile, and of the latest walk
+  int[] mark;
+  int walk;
+  // the distance of every tile from where the last breadth first search started,
+  // only made once a search is needed
+  int[] distance;
+  // the tiles whose wires, station or power changed since the board was last drawn,
+  // null unless a BoardRaster is drawing the board
+  ChangedTiles changes;
+
+  // constructor for an empty board with no wires and no power station
+  Board(int cols, int rows) {
+    this.cols = cols;
+    this.rows = rows;
+    this.tiles = new byte[cols * rows];
+    this.links = new byte[cols * rows];
+    this.powered = new int[cols * rows];
+    this.litEpoch = new int[cols * rows];
+    this.epoch = 0;
+    this.lit = 0;
+    this.queue = new int[cols * rows];
+    this.mark = new int[cols * rows];
+    this.walk = 0;
+    this.changes = null;
+  }
+
+  // returns the number of tiles on the board
+  int size() {
+    return this.tiles.length;
+  }
+
+  // returns the index of the tile at the given column and row
+  int index(int col, int row) {
+    return col * this.rows + row;
+  }
+
+  // returns the column of the tile at the given index
+  int col(int index) {
+    return index / this.rows;
+  }
+
+  // returns the row of the tile at the given index
+  int row(int index) {
+    return index % this.rows;
+  }
+
+  // returns the connection bits of the tile at the given index
+  int wires(int index) {
+    return this.tiles[index] & WIRES;
+  }
+
+  // determines if the tile at the given index has a wire in the given direction
+  boolean hasWire(int index, int dir) {
+    return (this.tiles[index] & dir) != 0;
+  }
+
+  // determines if the power station is on the tile at the given index
+  boolean hasStation(int index) {
+    return (this.tiles[index] & STATION) != 0;
+  }
+
+  // puts the power station on, or takes it off, the tile at the given index
+  void setStation(int index, boolean station) {
+    if (station) {
+      this.tiles[index] |= STATION;
+    } else {
+      this.tiles[index] &= ~STATION;
+    }
+    this.touch(index);
+  }
+
+  // returns the index of the tile that has the power station, or -1 if there is none
+  int findStation() {
+    return Board.findStation(this.tiles);
+  }
+
+  // returns the index of the given tile that has the power station, or -1 if none has
+  static int findStation(byte[] tiles) {
+    for (int i = 0; i < tiles.length; i++) {
+      if ((tiles[i] & STATION) != 0) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // rotates the wires of the tile at the given index clockwise
+  void rotate(int index) {
+    this.tiles[index] = (byte) ((this.tiles[index] & STATION) | rotateMask(this.wires(index)));
+    this.touch(index);
+  }
+
+  // returns the given connection bits rotated clockwise once
+  static int rotateMask(int mask) {
+    return ((mask << 1) | (mask >> 3)) & WIRES;
+  }
+
+  // returns the direction opposite to the given direction
+  static int opposite(int dir) {
+    return ((dir << 2) | (dir >> 2)) & WIRES;
+  }
+
+  // returns the index of the tile next to the given tile in the given direction,
+  // or -1 if that would be off the board
+  int neighbor(int index, int dir) {
+    if (dir == LEFT) {
+      return index >= this.rows ? index - this.rows : -1;
+    } else if (dir == RIGHT) {
+      return index < this.tiles.length - this.rows ? index + this.rows : -1;
+    } else if (dir == TOP) {
+      return index % this.rows > 0 ? index - 1 : -1;
+    } else {
+      return index % this.rows < this.rows - 1 ? index + 1 : -1;
+    }
+  }
+
+  // determines if the tile at the given index is connected to its neighbor
+  // in the given direction
+  boolean isConnected(int index, int dir) {
+    int other = this.neighbor(index, dir);
+    return other >= 0 && this.hasWire(index, dir) && this.hasWire(other, opposite(dir));
+  }
+
+  // determines if the tile at the given index is connected to the left
+  boolean isConnectedLeft(int index) {
+    return this.isConnected(index, LEFT);
+  }
+
+  // determines if the tile at the given index is connected to the right
+  boolean isConnectedRight(int index) {
+    return this.isConnected(index, RIGHT);
+  }
+
+  // determines if the tile at the given index is connected to the top
+  boolean isConnectedTop(int index) {
+    return this.isConnected(index, TOP);
+  }
+
+  // determines if the tile at the given index is connected to the bottom
+  boolean isConnectedBottom(int index) {
+    return this.isConnected(index, BOTTOM);
+  }
+
+  // returns the direction from the first given tile to the second, which is next to it
+  int direction(int from, int to) {
+    if (to == from - this.rows) {
+      return LEFT;
+    } else if (to == from + this.rows) {
+      return RIGHT;
+    } else if (to == from - 1) {
+      return TOP;
+    } else {
+      return BOTTOM;
+    }
+  }
+
+  // adds the wires that join the two given adjacent tiles
+  void connect(int from, int to) {
+    int dir = this.direction(from, to);
+    this.tiles[from] |= dir;
+    this.tiles[to] |= opposite(dir);
+    this.touch(from);
+    this.touch(to);
+  }
+
+  // returns the wires every tile would have if the tiles were joined by the given
+  // edges alone, without changing the board
+  int[] treeWires(EdgeList edges) {
+    int[] wires = new int[this.tiles.length];
+    for (int i = 0; i < edges.size(); i++) {
+      int dir = this.direction(edges.from[i], edges.to[i]);
+      wires[edges.from[i]] |= dir;
+      wires[edges.to[i]] |= opposite(dir);
+    }
+    return wires;
+  }
+
+  // recomputes the links of every tile from its connection bits
+  void addNeighbors() {
+    for (int i = 0; i < this.tiles.length; i++) {
+      int linked = 0;
+      for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+        if (this.isConnected(i, dir)) {
+          linked |= dir;
+        }
+      }
+      this.links[i] = (byte) linked;
+    }
+  }
+
+  // recomputes the links between the tile at the given index and its four neighbors
+  void relink(int index) {
+    for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+      int other = this.neighbor(index, dir);
+      if (other >= 0) {
+        if (this.isConnected(index, dir)) {
+          this.links[index] |= dir;
+          this.links[other] |= opposite(dir);
+        } else {
+          this.links[index] &= ~dir;
+          this.links[other] &= ~opposite(dir);
+        }
+      }
+    }
+  }
+
+  // removes the links of every tile
+  void removeNeighbors() {
+    Arrays.fill(this.links, (byte) 0);
+  }
+
+  // returns how much power the tile at the given index has, 0 means it is not lit
+  int power(int index) {
+    return this.litEpoch[index] == this.epoch ? this.powered[index] : 0;
+  }
+
+  // gives the tile at the given index the given power, keeping count of the lit tiles
+  void setPower(int index, int power) {
+    if (this.power(index) != power) {
+      this.touch(index);
+    }
+    if (this.power(index) > 0) {
+      this.lit--;
+    }
+    if (power > 0) {
+      this.lit++;
+    }
+    this.powered[index] = power;
+    this.litEpoch[index] = this.epoch;
+  }
+
+  // returns the power of every tile, in board order
+  int[] powers() {
+    int[] result = new int[this.powered.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = this.power(i);
+    }
+    return result;
+  }
+
+  // determines if every tile is lit
+  boolean allLit() {
+    return this.lit == this.powered.length;
+  }
+
+  // turns every tile to be powered off, by starting a new epoch
+  // so that the power given before it no longer counts
+  void turnOff() {
+    this.epoch++;
+    if (this.epoch == Integer.MAX_VALUE) {
+      Arrays.fill(this.powered, 0);
+      Arrays.fill(this.litEpoch, 0);
+      this.epoch = 0;
+    }
+    this.lit = 0;
+    if (this.changes != null) {
+      this.changes.all = true;
+    }
+  }
+
+  // notes that the tile at the given index has to be drawn again, if the board is drawn
+  void touch(int index) {
+    if (this.changes != null) {
+      this.changes.add(index);
+    }
+  }
+
+  // starts a new walk over the links, so tiles marked by earlier walks count as unmarked
+  int nextWalk() {
+    this.walk++;
+    if (this.walk == Integer.MAX_VALUE) {
+      Arrays.fill(this.mark, 0);
+      this.walk = 1;
+    }
+    return this.walk;
+  }
+
+  // lights the tiles within the given radius of the tile at the given index,
+  // giving every tile the radius minus its distance from the given tile
+  // NOTE: as with GamePiece, the radius includes the given tile.
+  void lightCells(int index, int radius) {
+    if (radius < 0) {
+      return;
+    }
+    int stamp = this.nextWalk();
+    int head = 0;
+    int tail = 0;
+    this.mark[index] = stamp;
+    this.setPower(index, radius);
+    this.queue[tail++] = index;
+    while (head < tail) {
+      int curr = this.queue[head++];
+      if (this.power(curr) > 0) {
+        for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+          if ((this.links[curr] & dir) != 0) {
+            int next = this.neighbor(curr, dir);
+            if (this.mark[next] != stamp) {
+              this.mark[next] = stamp;
+              this.setPower(next, this.power(curr) - 1);
+              this.queue[tail++] = next;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  // walks the links out from the tile at the given index in breadth first order,
+  // writing the distance of every tile it reaches into distance, and returns the
+  // last tile reached, which is as far from the given tile as any tile is
+  int bfs(int start) {
+    if (this.distance == null) {
+      this.distance = new int[this.tiles.length];
+    }
+    int stamp = this.nextWalk();
+    int head = 0;
+    int tail = 0;
+    this.mark[start] = stamp;
+    this.distance[start] = 0;
+    this.queue[tail++] = start;
+    int removed = start;
+    while (head < tail) {
+      removed = this.queue[head++];
+      for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+        if ((this.links[removed] & dir) != 0) {
+          int next = this.neighbor(removed, dir);
+          if (this.mark[next] != stamp) {
+            this.mark[next] = stamp;
+            this.distance[next] = this.distance[removed] + 1;
+            this.queue[tail++] = next;
+          }
+        }
+      }
+    }
+    return removed;
+  }
+
+  // returns the longest path between two tiles linked to the tile at the given index,
+  // found with two breadth first searches, along with the tile in its middle
+  TreeDiameter diameter(int start) {
+    int from = this.bfs(start);
+    int to = this.bfs(from);
+    int length = this.distance[to];
+    // walks back from the far end towards the start of the path, halfway
+    int center = to;
+    for (int step = 0; step < length / 2; step++) {
+      int next = -1;
+      for (int dir = LEFT; dir <= BOTTOM && next < 0; dir <<= 1) {
+        int other = this.neighbor(center, dir);
+        if ((this.links[center] & dir) != 0 && this.distance[other] == this.distance[center] - 1
+            && this.mark[other] == this.walk) {
+          next = other;
+        }
+      }
+      center = next;
+    }
+    return new TreeDiameter(from, to, length, center);
+  }
+
+  // returns the tile nearest the tile at the given index, along the links, from which a
+  // station with the given radius lights every tile linked to it, or -1 if there is none,
+  // and leaves the distance of every linked tile from the given one in distance.
+  // in a tree those are the tiles no further than the radius from both ends of the
+  // longest path
+  int nearestCenter(int start, int radius) {
+    TreeDiameter path = this.diameter(start);
+    // the last walk of diameter started from one end of the path
+    int[] fromOneEnd = this.distance.clone();
+    this.bfs(path.to);
+    int[] fromOtherEnd = this.distance.clone();
+    this.bfs(start);
+    int nearest = -1;
+    for (int i = 0; i < this.tiles.length; i++) {
+      if (this.mark[i] == this.walk && fromOneEnd[i] <= radius && fromOtherEnd[i] <= radius
+          && (nearest < 0 || this.distance[i] < this.distance[nearest])) {
+        nearest = i;
+      }
+    }
+    return nearest;
+  }
+
+  // rotates the tile at the given index and brings its links, and the lighting from
+  // the station at the given index with the given radius, up to date. only the tiles
+  // that got their power through the rotated tile, and the tiles that can now get more
+  // power through it, are visited
+  void rotateAndRelight(int index, int station, int radius) {
+    this.rotateAndRelight(index, station, radius, 1);
+  }
+
+  // rotates the tile at the given index clockwise the given number of times, and relights
+  // it the same way as a single rotation
+  void rotateAndRelight(int index, int station, int radius, int turns) {
+    // the tiles downhill from the rotated tile, using the links before the rotation.
+    // every other lit tile has a shortest path to the station that does not go
+    // through the rotated tile, so its power stays right
+    int stamp = this.nextWalk();
+    int count = 0;
+    this.mark[index] = stamp;
+    this.queue[count++] = index;
+    for (int i = 0; i < count; i++) {
+      int curr = this.queue[i];
+      for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+        if ((this.links[curr] & dir) != 0) {
+          int next = this.neighbor(curr, dir);
+          if (this.mark[next] != stamp && this.power(next) > 0
+              && this.power(next) < this.power(curr)) {
+            this.mark[next] = stamp;
+            this.queue[count++] = next;
+          }
+        }
+      }
+    }
+
+    for (int turn = 0; turn < turns; turn++) {
+      this.rotate(index);
+    }
+    this.relink(index);
+
+    // turns the downhill tiles off, then relights them from the lit tiles around them
+    for (int i = 0; i < count; i++) {
+      this.setPower(this.queue[i], 0);
+    }
+    // every seed is stored as its power in the high half and its index in the low half
+    long[] seeds = new long[4 * count + 1];
+    int seedCount = 0;
+    if (this.mark[station] == stamp && radius >= 0) {
+      this.setPower(station, radius);
+      seeds[seedCount++] = ((long) radius << 32) | station;
+    }
+    for (int i = 0; i < count; i++) {
+      int curr = this.queue[i];
+      for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+        if ((this.links[curr] & dir) != 0) {
+          int next = this.neighbor(curr, dir);
+          if (this.mark[next] != stamp && this.power(next) > 1) {
+            seeds[seedCount++] = ((long) this.power(next) << 32) | next;
+          }
+        }
+      }
+    }
+    Arrays.sort(seeds, 0, seedCount);
+    this.spread(seeds, seedCount);
+  }
+
+  // spreads power out of the given seed tiles, sorted from least to most power,
+  // giving every tile reached the most power it can get, one less per step.
+  // tiles are taken most power first, so no tile is queued more than once
+  void spread(long[] seeds, int seedCount) {
+    int next = seedCount - 1;
+    int head = 0;
+    int tail = 0;
+    while (head < tail || next >= 0) {
+      int curr;
+      if (head < tail
+          && (next < 0 || this.power(this.queue[head]) >= (int) (seeds[next] >>> 32))) {
+        curr = this.queue[head++];
+      } else {
+        curr = (int) seeds[next--];
+      }
+      int power = this.power(curr) - 1;
+      if (power > 0) {
+        for (int dir = LEFT; dir <= BOTTOM; dir <<= 1) {
+          if ((this.links[curr] & dir) != 0) {
+            int other = this.neighbor(curr, dir);
+            if (this.power(other) < power) {
+              this.setPower(other, power);
+              this.queue[tail++] = other;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  // returns the wires and station bits of every tile in board order,
+  // one character each, written in base 32
+  String tilesText() {
+    return Board.tilesText(this.tiles);
+  }
+
+  // returns the wires and station bits of the given tiles, the way tilesText does
+  static String tilesText(byte[] tiles) {
+    char[] text = new char[tiles.length];
+    for (int i = 0; i < text.length; i++) {
+      text[i] = Character.forDigit(tiles[i] & (WIRES | STATION), 32);
+    }
+    return new String(text);
+  }
+
+  // returns a copy of this board
+  Board copy() {
+    Board other = new Board(this.cols, this.rows);
+    System.arraycopy(this.tiles, 0, other.tiles, 0, this.tiles.length);
+    System.arraycopy(this.links, 0, other.links, 0, this.links.length);
+    for (int i = 0; i < this.powered.length; i++) {
+      other.powered[i] = this.power(i);
+    }
+    other.lit = this.lit;
+    return other;
+  }
+
+  // returns a copy of the wires and station bits of every tile, which is all that
+  // restore needs to put the board back the way it is now
+  byte[] saveTiles() {
+    return this.tiles.clone();
+  }
+
+  // puts the given tiles, saved from a board of the same size, back into this board
+  // without making anything new, links them again and turns every tile off
+  void restore(byte[] saved) {
+    System.arraycopy(saved, 0, this.tiles, 0, this.tiles.length);
+    this.addNeighbors();
+    this.turnOff();
+  }
+}
@@ -0,0 +1,135 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+import javalib.worldimages.*;
+
+// class that keeps a picture of the whole board as pixels, and draws again only
+// the tiles that the board says have changed since it was last drawn. the board
+// notes its changes in the ChangedTiles of the raster that last drew it
+class BoardRaster {
+  // the number of columns and rows of tiles in the picture
+  int cols;
+  int rows;
+  // the size of every tile, and the length of the wires drawn on it
+  int tileSize;
+  int wireSize;
+  // the picture of the board
+  ComputedPixelImage image;
+  // the board that was drawn last, and how every tile of it looked, as its
+  // wires and the color level of its power. -1 means the tile was never drawn
+  Board board;
+  int[] drawn;
+  // the tiles of the board that changed since it was last drawn
+  ChangedTiles changes;
+  // the color of the wires at every color level, see TileSprites.level
+  Color[] colors;
+
+  // constructor for the picture of a board with the given number of columns and rows
+  BoardRaster(int cols, int rows, int tileSize, int wireSize) {
+    this.cols = cols;
+    this.rows = rows;
+    this.tileSize = tileSize;
+    this.wireSize = wireSize;
+    // a picture cannot be empty, even when the tiles are too small to see
+    this.image = new ComputedPixelImage(Math.max(cols * tileSize, 1),
+        Math.max(rows * tileSize, 1));
+    this.board = null;
+    this.drawn = new int[cols * rows];
+    this.changes = new ChangedTiles(cols * rows);
+    this.colors = new Color[TileSprites.LEVELS];
+    this.colors[0] = Color.LIGHT_GRAY;
+    for (int level = 1; level < TileSprites.LEVELS; level++) {
+      int shade = 255 - (level - 1);
+      this.colors[level] = new Color(shade, shade, 0);
+    }
+  }
+
+  // determines if this picture fits a board with the given number of columns and rows
+  boolean fits(int cols, int rows) {
+    return this.cols == cols && this.rows == rows;
+  }
+
+  // brings the picture up to date with the given board. only the tiles the board
+  // listed as changed are looked at, unless it is a different board or every tile
+  // may have changed, and only the tiles that look different are drawn again
+  void update(Board board) {
+    if (board != this.board) {
+      // the board drawn before no longer has to note its changes
+      if (this.board != null && this.board.changes == this.changes) {
+        this.board.changes = null;
+      }
+      this.board = board;
+      Arrays.fill(this.drawn, -1);
+    }
+    // a board that did not note its changes here may have changed anywhere
+    if (board.changes != this.changes) {
+      board.changes = this.changes;
+      this.changes.all = true;
+    }
+    if (this.changes.all) {
+      for (int i = 0; i < board.size(); i++) {
+        this.redraw(i);
+      }
+    } else {
+      for (int i = 0; i < this.changes.count; i++) {
+        this.redraw(this.changes.tiles[i]);
+      }
+    }
+    this.changes.clear();
+  }
+
+  // draws the tile at the given index again if it looks different than it did
+  void redraw(int index) {
+    int look = this.board.wires(index) * TileSprites.LEVELS
+        + TileSprites.level(this.board.power(index));
+    if (this.drawn[index] != look) {
+      this.drawn[index] = look;
+      this.paint(this.board.col(index) * this.tileSize, this.board.row(index) * this.tileSize,
+          this.board.wires(index), this.colors[TileSprites.level(this.board.power(index))]);
+    }
+  }
+
+  // paints a tile with the given wires and wire color, with its top left corner
+  // at the given pixel, the same way GamePiece draws one
+  void paint(int x, int y, int wires, Color color) {
+    int size = this.tileSize;
+    if (size <= 0) {
+      return;
+    }
+    this.image.setPixels(x, y, size, size, Color.DARK_GRAY);
+    this.image.setPixels(x, y, size, 1, Color.BLACK);
+    this.image.setPixels(x, y + size - 1, size, 1, Color.BLACK);
+    this.image.setPixels(x, y, 1, size, Color.BLACK);
+    this.image.setPixels(x + size - 1, y, 1, size, Color.BLACK);
+    int centerX = x + size / 2;
+    int centerY = y + size / 2;
+    if ((wires & Board.RIGHT) != 0) {
+      this.fill(x, y, centerX + size / 4 - this.wireSize / 2, centerY - 2, this.wireSize, 5,
+          color);
+    }
+    if ((wires & Board.LEFT) != 0) {
+      this.fill(x, y, centerX - size / 4 - this.wireSize / 2, centerY - 2, this.wireSize, 5,
+          color);
+    }
+    if ((wires & Board.TOP) != 0) {
+      this.fill(x, y, centerX - 2, centerY - size / 4 - this.wireSize / 2, 5, this.wireSize,
+          color);
+    }
+    if ((wires & Board.BOTTOM) != 0) {
+      this.fill(x, y, centerX - 2, centerY + size / 4 - this.wireSize / 2, 5, this.wireSize,
+          color);
+    }
+  }
+
+  // fills the given rectangle of pixels with the given color,
+  // cut to the tile with its top left corner at (tileX, tileY)
+  void fill(int tileX, int tileY, int x, int y, int width, int height, Color color) {
+    int left = Math.max(x, tileX);
+    int top = Math.max(y, tileY);
+    int right = Math.min(x + width, tileX + this.tileSize);
+    int bottom = Math.min(y + height, tileY + this.tileSize);
+    if (left < right && top < bottom) {
+      this.image.setPixels(left, top, right - left, bottom - top, color);
+    }
+  }
+}
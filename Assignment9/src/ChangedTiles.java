@@ -0,0 +1,39 @@
+// class that keeps the tiles of a board that changed since it was last drawn, each
+// listed once, and whether every tile may have changed. it belongs to a BoardRaster,
+// and a board only keeps it while the raster draws it, so that boards that are never
+// drawn do none of this bookkeeping
+class ChangedTiles {
+  // the tiles that changed, in the order they first changed, and how many there are
+  int[] tiles;
+  int count;
+  // whether every tile is listed
+  boolean[] listed;
+  // whether every tile may have changed, when the list does not matter
+  boolean all;
+
+  // constructor for the changes of a board with the given number of tiles, which
+  // may all have changed since nothing has been drawn yet
+  ChangedTiles(int size) {
+    this.tiles = new int[size];
+    this.count = 0;
+    this.listed = new boolean[size];
+    this.all = true;
+  }
+
+  // notes that the tile at the given index has to be drawn again
+  void add(int index) {
+    if (!this.all && !this.listed[index]) {
+      this.listed[index] = true;
+      this.tiles[this.count++] = index;
+    }
+  }
+
+  // forgets which tiles changed, once they have all been drawn
+  void clear() {
+    for (int i = 0; i < this.count; i++) {
+      this.listed[this.tiles[i]] = false;
+    }
+    this.count = 0;
+    this.all = false;
+  }
+}
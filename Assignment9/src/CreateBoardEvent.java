@@ -0,0 +1,22 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents making the empty board of a puzzle, the first of the Flight
+// Recorder events of the game. there is one for every phase of making a puzzle and for
+// lighting and drawing it, so that slow frames in a recording can be matched with the
+// shape of the board. an event is begun before its phase and its fields are only filled
+// in if it will be committed, so they cost next to nothing when not recorded
+@Name("lightemall.CreateBoard")
+@Label("Create Board")
+@Category("Light Em All")
+@Description("Making the empty board of a puzzle")
+class CreateBoardEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+}
@@ -0,0 +1,45 @@
+import java.util.Random;
+
+// class that builds the tree with a randomized depth first search, which makes
+// long winding wires with few branches
+class DfsGenerator extends ATreeGenerator {
+
+  // walks from a random tile to a random unvisited neighbor, backing up along
+  // an explicit stack whenever a tile has no unvisited neighbors left
+  public EdgeList generate(Board board, int bias, Random random) {
+    int size = board.size();
+    EdgeList edgesInTree = new EdgeList(Math.max(size - 1, 0));
+    if (size == 0) {
+      return edgesInTree;
+    }
+    // a cheap direction is picked as many times more often as the other one costs
+    int horizontalWeight = this.verticalCost(bias);
+    int verticalWeight = this.horizontalCost(bias);
+    boolean[] visited = new boolean[size];
+    int[] stack = new int[size];
+    int top = 0;
+    int start = random.nextInt(size);
+    visited[start] = true;
+    stack[top++] = start;
+    while (top > 0) {
+      int curr = stack[top - 1];
+      int dirs = 0;
+      for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+        int next = board.neighbor(curr, dir);
+        if (next >= 0 && !visited[next]) {
+          dirs |= dir;
+        }
+      }
+      if (dirs == 0) {
+        top--;
+      } else {
+        int next = board.neighbor(curr,
+            this.pickDirection(dirs, horizontalWeight, verticalWeight, random));
+        visited[next] = true;
+        edgesInTree.add(curr, next, 0);
+        stack[top++] = next;
+      }
+    }
+    return edgesInTree;
+  }
+}
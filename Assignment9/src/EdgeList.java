@@ -0,0 +1,80 @@
+import java.util.Arrays;
+
+// class that represents a list of weighted edges between tiles,
+// stored as parallel arrays of board indices and weights
+class EdgeList {
+  // the tiles at the two ends of every edge
+  int[] from;
+  int[] to;
+  // the weight of every edge
+  int[] weight;
+  // the number of edges in the list
+  int count;
+
+  // constructor for an empty list that can hold the given number of edges
+  EdgeList(int capacity) {
+    this.from = new int[capacity];
+    this.to = new int[capacity];
+    this.weight = new int[capacity];
+    this.count = 0;
+  }
+
+  // returns the number of edges in the list
+  int size() {
+    return this.count;
+  }
+
+  // adds an edge to the end of the list
+  void add(int from, int to, int weight) {
+    this.from[this.count] = from;
+    this.to[this.count] = to;
+    this.weight[this.count] = weight;
+    this.count++;
+  }
+
+  // sorts the edges by weight, keeping edges of equal weight in the order they were
+  // added. weights are non-negative and bounded by the board size, so this is a
+  // radix sort with as few counting passes as the largest weight needs
+  void sortByWeight() {
+    int max = 0;
+    for (int i = 0; i < this.count; i++) {
+      max = Math.max(max, this.weight[i]);
+    }
+    int bits = 32 - Integer.numberOfLeadingZeros(max);
+    if (bits == 0) {
+      return;
+    }
+    int passes = (bits + 15) / 16;
+    int digitBits = (bits + passes - 1) / passes;
+    int mask = (1 << digitBits) - 1;
+    int[] buckets = new int[mask + 2];
+    int[] otherFrom = new int[this.from.length];
+    int[] otherTo = new int[this.to.length];
+    int[] otherWeight = new int[this.weight.length];
+
+    for (int shift = 0; shift < bits; shift += digitBits) {
+      Arrays.fill(buckets, 0);
+      for (int i = 0; i < this.count; i++) {
+        buckets[((this.weight[i] >>> shift) & mask) + 1]++;
+      }
+      for (int d = 1; d < buckets.length; d++) {
+        buckets[d] += buckets[d - 1];
+      }
+      for (int i = 0; i < this.count; i++) {
+        int at = buckets[(this.weight[i] >>> shift) & mask]++;
+        otherFrom[at] = this.from[i];
+        otherTo[at] = this.to[i];
+        otherWeight[at] = this.weight[i];
+      }
+      int[] temp = this.from;
+      this.from = otherFrom;
+      otherFrom = temp;
+      temp = this.to;
+      this.to = otherTo;
+      otherTo = temp;
+      temp = this.weight;
+      this.weight = otherWeight;
+      otherWeight = temp;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+import java.awt.Color;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import javalib.worldimages.*;
+
+// class that represents a game piece
+class GamePiece {
+  // in logical coordinates, with the origin
+  // at the top-left corner of the screen
+  // rows and cols start at 0
+  int row;
+  int col;
+  // whether this GamePiece is connected to the
+  // adjacent left, right, top, or bottom pieces
+  boolean left;
+  boolean right;
+  boolean top;
+  boolean bottom;
+  // whether the power station is on this piece
+  boolean powerStation;
+  int wireSize;
+  int powered;
+  ArrayList<GamePiece> neighbors;
+
+  // constructor for GamePiece
+  GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
+      boolean powerStation, int wireSize) {
+    this.row = row;
+    this.col = col;
+    this.left = left;
+    this.right = right;
+    this.top = top;
+    this.bottom = bottom;
+    this.powerStation = powerStation;
+    this.wireSize = wireSize;
+    this.powered = 0;
+    this.neighbors = new ArrayList<GamePiece>();
+  }
+
+  // returns a GamePiece that shows the tile of the given board at the given index,
+  // changes to the GamePiece are not written back to the board
+  static GamePiece view(Board board, int index, int wireSize) {
+    int mask = board.tiles[index];
+    GamePiece gp = new GamePiece(board.col(index), board.row(index),
+        (mask & Board.LEFT) != 0, (mask & Board.RIGHT) != 0, (mask & Board.TOP) != 0,
+        (mask & Board.BOTTOM) != 0, (mask & Board.STATION) != 0, wireSize);
+    gp.powered = board.power(index);
+    return gp;
+  }
+
+  // adds the given gamepiece to this gamepiece's neighbors.
+  void addNeighbor(GamePiece gp) {
+    this.neighbors.add(gp);
+  }
+
+  // removes the given gamepiece from this gamepiece's neighbors.
+  void removeNeighbor(GamePiece gp) {
+    this.neighbors.remove(gp);
+  }
+
+  // lights the cells within the radius of the power station
+  // NOTE: by design, we have decided to have the radius include this gamepiece.
+  // walks the neighbors breadth first with an explicit queue, so every gamepiece
+  // gets the radius minus its distance from this one, however long the wires are
+  void lightCells(int radius) {
+    if (radius < 0) {
+      return;
+    }
+    HashSet<GamePiece> sofar = new HashSet<GamePiece>();
+    ArrayDeque<GamePiece> worklist = new ArrayDeque<GamePiece>();
+    this.powered = radius;
+    sofar.add(this);
+    worklist.add(this);
+    while (!worklist.isEmpty()) {
+      GamePiece curr = worklist.remove();
+      if (curr.powered > 0) {
+        for (int i = 0; i < curr.neighbors.size(); i++) {
+          GamePiece next = curr.neighbors.get(i);
+          if (sofar.add(next)) {
+            next.powered = curr.powered - 1;
+            worklist.add(next);
+          }
+        }
+      }
+    }
+  }
+
+  // renders a game piece depending on its top, left, right, and bottom
+  WorldImage draw(int size) {
+    Color color = Color.LIGHT_GRAY;
+    if (this.powered != 0) {
+      color = new Color(255 - 80 / this.powered, 255 - 80 / this.powered, 0);
+    }
+
+    WorldImage tempImg = new OverlayImage(
+        new RectangleImage(size, size, OutlineMode.OUTLINE, Color.BLACK),
+        new RectangleImage(size, size, OutlineMode.SOLID, Color.DARK_GRAY));
+
+    if (this.right) {
+      WorldImage wire = new RectangleImage(this.wireSize, 5, OutlineMode.SOLID, color);
+      tempImg = new OverlayOffsetImage(wire, -size / 4, 0, tempImg);
+    }
+    if (this.left) {
+      WorldImage wire = new RectangleImage(this.wireSize, 5, OutlineMode.SOLID, color);
+      tempImg = new OverlayOffsetImage(wire, size / 4, 0, tempImg);
+    }
+    if (this.top) {
+      WorldImage wire = new RectangleImage(5, this.wireSize, OutlineMode.SOLID, color);
+      tempImg = new OverlayOffsetImage(wire, 0, size / 4, tempImg);
+    }
+    if (this.bottom) {
+      WorldImage wire = new RectangleImage(5, this.wireSize, OutlineMode.SOLID, color);
+      tempImg = new OverlayOffsetImage(wire, 0, -size / 4, tempImg);
+    }
+    if (this.powerStation) {
+      StarImage starImg = new StarImage(20, OutlineMode.SOLID, Color.YELLOW);
+      tempImg = new OverlayImage(starImg, tempImg);
+    }
+    return tempImg;
+  }
+
+  // rotates a game piece
+  void rotate() {
+    boolean temp1 = this.top;
+    boolean temp2 = this.right;
+    boolean temp3 = this.bottom;
+    this.top = this.left;
+    this.right = temp1;
+    this.bottom = temp2;
+    this.left = temp3;
+  }
+
+  // determines if a game piece is connected to the left
+  boolean isConnectedLeft(GamePiece gp) {
+    return this.left && gp.right;
+  }
+
+  // determines if a game piece is connected to the right
+  boolean isConnectedRight(GamePiece gp) {
+    return this.right && gp.left;
+  }
+
+  // determines if a game piece is connected to the top
+  boolean isConnectedTop(GamePiece gp) {
+    return this.top && gp.bottom;
+  }
+
+  // determines if a game piece is connected to the bottom
+  boolean isConnectedBottom(GamePiece gp) {
+    return this.bottom && gp.top;
+  }
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents making the weighted edges between the tiles of a board
+@Name("lightemall.GenerateEdges")
+@Label("Generate Edges")
+@Category("Light Em All")
+@Description("Making an edge with a random weight between every pair of neighbors")
+class GenerateEdgesEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+  // the bias of the wires
+  @Label("Bias")
+  int bias;
+  // the number of edges made
+  @Label("Edges")
+  int edges;
+}
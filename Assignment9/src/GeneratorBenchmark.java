@@ -0,0 +1,82 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+// class that compares how fast, and with how much memory, every tree generator
+// builds puzzles of different sizes.
+// run with: java GeneratorBenchmark [bias] [size ...]
+class GeneratorBenchmark {
+  // how long every generator is run at every size, in nanoseconds
+  static final long RUN_TIME = 1000000000L;
+  // how long every generator is warmed up before it is measured, in nanoseconds
+  static final long WARMUP_TIME = 300000000L;
+
+  // runs the benchmark and prints a table with one line per generator and size
+  public static void main(String[] args) {
+    int bias = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+    int[] sizes = new int[] { 10, 50, 100, 250, 500, 1000 };
+    if (args.length > 1) {
+      sizes = new int[args.length - 1];
+      for (int i = 1; i < args.length; i++) {
+        sizes[i - 1] = Integer.parseInt(args[i]);
+      }
+    }
+    TreeGenerator[] generators = new TreeGenerator[] { new KruskalGenerator(),
+        new PrimGenerator(), new DfsGenerator(), new WilsonGenerator() };
+
+    System.out.println(String.format("%-10s %9s %12s %12s %14s", "generator", "size",
+        "boards/s", "ns/tile", "bytes/board"));
+    for (int size : sizes) {
+      for (TreeGenerator generator : generators) {
+        GeneratorBenchmark.measure(generator, size, size, bias, WARMUP_TIME);
+        long[] result = GeneratorBenchmark.measure(generator, size, size, bias, RUN_TIME);
+        long boards = result[0];
+        long nanos = result[1];
+        long bytes = result[2];
+        System.out.println(String.format("%-10s %9s %12.1f %12.1f %14s",
+            generator.getClass().getSimpleName().replace("Generator", ""), size + "x" + size,
+            boards * 1e9 / nanos, (double) nanos / boards / (size * size),
+            bytes < 0 ? "n/a" : Long.toString(bytes / boards)));
+      }
+    }
+  }
+
+  // builds boards of the given size with the given generator until the given time is
+  // up, and at least once. returns the number of boards built, the nanoseconds taken,
+  // and the bytes allocated, which is -1 if the JVM cannot count them
+  static long[] measure(TreeGenerator generator, int cols, int rows, int bias, long time) {
+    Random random = new Random(cols * 31 + rows);
+    long bytesBefore = GeneratorBenchmark.allocatedBytes();
+    long start = System.nanoTime();
+    long boards = 0;
+    long elapsed = 0;
+    // keeps the result alive so the work cannot be thrown away
+    long checksum = 0;
+    while (boards == 0 || elapsed < time) {
+      Board board = new Board(cols, rows);
+      EdgeList tree = generator.generate(board, bias, random);
+      for (int i = 0; i < tree.size(); i++) {
+        board.connect(tree.from[i], tree.to[i]);
+      }
+      checksum = checksum + board.tiles[board.size() / 2];
+      boards++;
+      elapsed = System.nanoTime() - start;
+    }
+    long bytesAfter = GeneratorBenchmark.allocatedBytes();
+    if (checksum == Long.MIN_VALUE) {
+      System.out.println(checksum);
+    }
+    long bytes = bytesBefore < 0 || bytesAfter < 0 ? -1 : bytesAfter - bytesBefore;
+    return new long[] { boards, elapsed, bytes };
+  }
+
+  // returns the number of bytes the current thread has allocated so far,
+  // or -1 if the JVM does not keep count
+  static long allocatedBytes() {
+    java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads)
+          .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,258 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+// class that represents a recorded game: the seed and size it was started with, and
+// every tick, click and key it was given, with the time since the recording started.
+// the puzzles come from the seeded random alone, so replaying the input on the
+// PuzzleControls of a game made the same way plays the same game, see InputReplay.
+// the log ends with the state the game was left in, to tell whether a replay went
+// the same way.
+// the file is a header, then one byte for the kind of every event, the microseconds
+// since the event before it as a varint, the place of a click as two varints and the
+// name of a key as a short utf string, then the state.
+// run with: java InputLog file cols rows bias [seed]
+// to play a game that is recorded to the file when the program exits
+class InputLog {
+  // the first four bytes of a log, "LEI1"
+  static final int MAGIC = 0x4C454931;
+  // the kinds of event
+  static final byte TICK = 0;
+  static final byte LEFT_CLICK = 1;
+  static final byte OTHER_CLICK = 2;
+  static final byte KEY = 3;
+
+  // the size of the window and the board, the bias and the seed of the game
+  int width;
+  int height;
+  int cols;
+  int rows;
+  int bias;
+  long seed;
+  // the number of events, and the kind, time in nanoseconds since the recording
+  // started, and details of every one: the place of a click, or the name of a key
+  int count;
+  byte[] kinds;
+  long[] times;
+  int[] xs;
+  int[] ys;
+  String[] keys;
+  // when the recording started
+  long start;
+  // the state of the game when the recording ended, see state
+  String state;
+
+  // constructor for an empty log of a game made with the given size, bias and seed
+  InputLog(int width, int height, int cols, int rows, int bias, long seed) {
+    this.width = width;
+    this.height = height;
+    this.cols = cols;
+    this.rows = rows;
+    this.bias = bias;
+    this.seed = seed;
+    this.count = 0;
+    this.kinds = new byte[64];
+    this.times = new long[64];
+    this.xs = new int[64];
+    this.ys = new int[64];
+    this.keys = new String[64];
+    this.start = System.nanoTime();
+    this.state = "";
+  }
+
+  // plays a game that is recorded to the file given on the command line
+  public static void main(String[] args) {
+    if (args.length < 4) {
+      System.out.println("usage: java InputLog file cols rows bias [seed]");
+      return;
+    }
+    Path path = Paths.get(args[0]);
+    int cols = Integer.parseInt(args[1]);
+    int rows = Integer.parseInt(args[2]);
+    int bias = Integer.parseInt(args[3]);
+    long seed = args.length > 4 ? Long.parseLong(args[4]) : new Random().nextLong();
+    InputLog log = new InputLog(600, 600, cols, rows, bias, seed);
+    PuzzleControls controls = log.controls();
+    controls.leaderboard = LeaderboardWriter.shared();
+    controls.recording = log;
+    LightEmAll game = new LightEmAll(controls);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      try {
+        log.finish(controls);
+        log.write(path);
+        System.out.println(log.count + " events recorded to " + path);
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }, "input-log-save"));
+    game.bigBang(log.width, log.height, 1);
+  }
+
+  // returns the controls of a new game made the way the recorded one was, which write
+  // nothing to the leaderboard. the solution is looked for within a number of tries
+  // rather than a time, so it is found the same way every time
+  PuzzleControls controls() {
+    PuzzleEngine engine = new PuzzleEngine(this.cols, this.rows, this.bias,
+        new Random(this.seed), new KruskalGenerator());
+    engine.solveTries = PuzzleEngine.SOLVE_TRIES;
+    return new PuzzleControls(engine, this.width, this.height, null);
+  }
+
+  // returns the state of the given game that a replay has to end in:
+  // the tiles, the station, the moves, the time and the name being entered
+  static String state(PuzzleControls game) {
+    PuzzleEngine engine = game.engine;
+    return "tiles=" + Integer.toHexString(Arrays.hashCode(engine.board.tiles))
+        + " station=" + engine.powerCol + "," + engine.powerRow + " lit=" + engine.board.lit
+        + " moves=" + engine.moves + " needed=" + engine.numMovesNeeded + " looked="
+        + engine.lookedAtSolution + " timer=" + game.timer + " name=" + game.name
+        + " over=" + game.gameOver;
+  }
+
+  // records a tick
+  synchronized void tick() {
+    this.add(TICK, 0, 0, null);
+  }
+
+  // records a click with the given button at the given place
+  synchronized void click(int x, int y, String buttonName) {
+    this.add(buttonName.equals("LeftButton") ? LEFT_CLICK : OTHER_CLICK, x, y, null);
+  }
+
+  // records the given key
+  synchronized void key(String key) {
+    this.add(KEY, 0, 0, key);
+  }
+
+  // records the end of the game, in the given state
+  synchronized void finish(PuzzleControls game) {
+    this.state = InputLog.state(game);
+  }
+
+  // adds an event of the given kind and details, at the time now
+  void add(byte kind, int x, int y, String key) {
+    this.addAt(kind, System.nanoTime() - this.start, x, y, key);
+  }
+
+  // adds an event of the given kind and details, at the given time
+  void addAt(byte kind, long time, int x, int y, String key) {
+    if (this.count == this.kinds.length) {
+      int length = this.count * 2;
+      this.kinds = Arrays.copyOf(this.kinds, length);
+      this.times = Arrays.copyOf(this.times, length);
+      this.xs = Arrays.copyOf(this.xs, length);
+      this.ys = Arrays.copyOf(this.ys, length);
+      this.keys = Arrays.copyOf(this.keys, length);
+    }
+    this.kinds[this.count] = kind;
+    this.times[this.count] = time;
+    this.xs[this.count] = x;
+    this.ys[this.count] = y;
+    this.keys[this.count] = key;
+    this.count++;
+  }
+
+  // gives the event at the given position to the given game, as the world would
+  void apply(int event, PuzzleControls game) {
+    byte kind = this.kinds[event];
+    if (kind == TICK) {
+      game.tick();
+    } else if (kind == LEFT_CLICK) {
+      game.click(this.xs[event], this.ys[event], "LeftButton");
+    } else if (kind == OTHER_CLICK) {
+      game.click(this.xs[event], this.ys[event], "RightButton");
+    } else {
+      game.key(this.keys[event]);
+    }
+  }
+
+  // writes the log to the file at the given path
+  synchronized void write(Path path) throws IOException {
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(this.width);
+      out.writeInt(this.height);
+      out.writeInt(this.cols);
+      out.writeInt(this.rows);
+      out.writeInt(this.bias);
+      out.writeLong(this.seed);
+      out.writeInt(this.count);
+      long before = 0;
+      for (int i = 0; i < this.count; i++) {
+        byte kind = this.kinds[i];
+        out.writeByte(kind);
+        long micros = this.times[i] / 1000;
+        InputLog.writeVarint(out, micros - before);
+        before = micros;
+        if (kind == LEFT_CLICK || kind == OTHER_CLICK) {
+          InputLog.writeVarint(out, this.xs[i]);
+          InputLog.writeVarint(out, this.ys[i]);
+        } else if (kind == KEY) {
+          out.writeUTF(this.keys[i]);
+        }
+      }
+      out.writeUTF(this.state);
+    }
+  }
+
+  // returns the log in the file at the given path
+  static InputLog read(Path path) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not an input log: " + path);
+      }
+      InputLog log = new InputLog(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+          in.readInt(), in.readLong());
+      int count = in.readInt();
+      long micros = 0;
+      for (int i = 0; i < count; i++) {
+        byte kind = in.readByte();
+        micros = micros + InputLog.readVarint(in);
+        if (kind == LEFT_CLICK || kind == OTHER_CLICK) {
+          int x = (int) InputLog.readVarint(in);
+          int y = (int) InputLog.readVarint(in);
+          log.addAt(kind, micros * 1000, x, y, null);
+        } else if (kind == KEY) {
+          log.addAt(kind, micros * 1000, 0, 0, in.readUTF());
+        } else if (kind == TICK) {
+          log.addAt(kind, micros * 1000, 0, 0, null);
+        } else {
+          throw new IOException("Unknown event " + kind + " at " + i + " in " + path);
+        }
+      }
+      log.state = in.readUTF();
+      return log;
+    }
+  }
+
+  // writes the given number, which must not be negative, seven bits to a byte
+  static void writeVarint(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) (value & 0x7F) | 0x80);
+      value = value >>> 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  // reads a number written by writeVarint
+  static long readVarint(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value = value | (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Varint too long");
+  }
+}
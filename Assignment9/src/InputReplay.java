@@ -0,0 +1,86 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// class that replays a recorded game without a window, as fast as it can: every event
+// is given to the PuzzleControls of a game made the way the recorded one was, followed
+// by the scene the world would draw after it, and the state the game ends in is
+// compared with the one recorded. nothing is written to the leaderboard.
+// run with: java InputReplay file [times] [noscene]
+// to replay the file that many times and print how fast it went and whether the
+// game went the way it was recorded
+class InputReplay {
+  // the game being played
+  InputLog log;
+  // whether the scene is drawn after every event
+  boolean scenes;
+  // the number of events given and the nanoseconds it took, over every replay
+  long events;
+  long nanos;
+  // the state the last replay ended in
+  String state;
+
+  // constructor for replays of the given log
+  InputReplay(InputLog log, boolean scenes) {
+    this.log = log;
+    this.scenes = scenes;
+    this.events = 0;
+    this.nanos = 0;
+    this.state = "";
+  }
+
+  // replays the file given on the command line
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("usage: java InputReplay file [times] [noscene]");
+      return;
+    }
+    Path path = Paths.get(args[0]);
+    int times = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+    boolean scenes = !(args.length > 2 && args[2].equals("noscene"));
+    InputLog log = InputLog.read(path);
+    InputReplay replay = new InputReplay(log, scenes);
+    int diverged = 0;
+    for (int i = 0; i < times; i++) {
+      replay.replay();
+      if (replay.diverged()) {
+        diverged++;
+      }
+    }
+    double seconds = replay.nanos / 1e9;
+    double recorded = log.count == 0 ? 0 : log.times[log.count - 1] / 1e9;
+    System.out.println(String.format(
+        "%d events of a %dx%d game, %d times in %.3fs: %.0f events/s, %.1fx the %.1fs recorded",
+        log.count, log.cols, log.rows, times, seconds, replay.events / seconds,
+        recorded * times / seconds, recorded));
+    if (diverged == 0) {
+      System.out.println("every replay ended as recorded: " + log.state);
+    } else {
+      System.out.println(diverged + " of " + times + " replays diverged");
+      System.out.println("recorded: " + log.state);
+      System.out.println("replayed: " + replay.state);
+    }
+  }
+
+  // plays every event of the log on a new game and returns its controls
+  PuzzleControls replay() {
+    PuzzleControls game = this.log.controls();
+    LightEmAll world = this.scenes ? new LightEmAll(game) : null;
+    long start = System.nanoTime();
+    for (int i = 0; i < this.log.count; i++) {
+      this.log.apply(i, game);
+      if (world != null) {
+        world.makeScene();
+      }
+    }
+    this.nanos = this.nanos + System.nanoTime() - start;
+    this.events = this.events + this.log.count;
+    this.state = InputLog.state(game);
+    return game;
+  }
+
+  // returns whether the last replay ended in a different state than the recording
+  boolean diverged() {
+    return !this.state.equals(this.log.state);
+  }
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents picking the spanning tree of a board with kruskal's algorithm
+@Name("lightemall.Kruskal")
+@Label("Kruskal")
+@Category("Light Em All")
+@Description("Making, sorting and joining the edges into a spanning tree")
+class KruskalEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+  // the bias of the wires
+  @Label("Bias")
+  int bias;
+  // the number of edges there were to pick from, and the number in the tree
+  @Label("Edges")
+  int edges;
+  @Label("Tree Edges")
+  int treeEdges;
+}
@@ -0,0 +1,68 @@
+import java.util.Random;
+
+// class that builds the tree with kruskal's algorithm over randomly weighted edges
+class KruskalGenerator extends ATreeGenerator {
+
+  // implements union find that efficiently connects components. takes the edges
+  // cheapest first and stops once the tree spans the board. returns the edges in the tree.
+  public EdgeList generate(Board board, int bias, Random random) {
+    KruskalEvent event = new KruskalEvent();
+    event.begin();
+    UnionFind representatives = new UnionFind(board.size());
+    EdgeList worklist = this.generateEdges(board, bias, random);
+    worklist.sortByWeight();
+
+    int treeSize = Math.max(board.size() - 1, 0);
+    EdgeList edgesInTree = new EdgeList(treeSize);
+    int cursor = 0;
+    while (cursor < worklist.size() && edgesInTree.size() < treeSize) {
+      if (representatives.union(worklist.from[cursor], worklist.to[cursor])) {
+        edgesInTree.add(worklist.from[cursor], worklist.to[cursor], worklist.weight[cursor]);
+      }
+      cursor++;
+    }
+    if (event.shouldCommit()) {
+      event.cols = board.cols;
+      event.rows = board.rows;
+      event.bias = bias;
+      event.edges = worklist.size();
+      event.treeEdges = edgesInTree.size();
+      event.commit();
+    }
+    return edgesInTree;
+  }
+
+  // returns a list of edges, one between every pair of adjacent tiles,
+  // each with a random weight scaled by the bias
+  EdgeList generateEdges(Board board, int bias, Random random) {
+    GenerateEdgesEvent event = new GenerateEdgesEvent();
+    event.begin();
+    int cols = board.cols;
+    int rows = board.rows;
+    EdgeList listOfEdges = new EdgeList((cols - 1) * rows + cols * (rows - 1));
+    int totalNumWeights = rows * cols - 1;
+    int biasVert = this.horizontalCost(bias);
+    int biasHor = this.verticalCost(bias);
+    for (int i = 0; i < cols; i++) {
+      for (int j = 0; j < rows; j++) {
+        int curr = board.index(i, j);
+        if (i > 0) {
+          listOfEdges.add(curr, board.index(i - 1, j),
+              random.nextInt(totalNumWeights) * biasVert);
+        }
+        if (j > 0) {
+          listOfEdges.add(curr, board.index(i, j - 1),
+              random.nextInt(totalNumWeights) * biasHor);
+        }
+      }
+    }
+    if (event.shouldCommit()) {
+      event.cols = cols;
+      event.rows = rows;
+      event.bias = bias;
+      event.edges = listOfEdges.size();
+      event.commit();
+    }
+    return listOfEdges;
+  }
+}
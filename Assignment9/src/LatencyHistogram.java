@@ -0,0 +1,145 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// class that counts how long something took, in nanoseconds, in buckets that are
+// each at most an eighth wider than the time they start at. recording is a couple of
+// atomic adds, so many threads can record into the same histogram at once
+class LatencyHistogram {
+  // every power of two is split into this many buckets
+  static final int SUB_BUCKETS = 8;
+  static final int SUB_BITS = 3;
+  // enough buckets for every positive long
+  static final int BUCKETS = 64 * SUB_BUCKETS;
+
+  // how many times fell in every bucket
+  AtomicLongArray counts;
+  // the number of times recorded, their total and the longest one
+  AtomicLong count;
+  AtomicLong total;
+  AtomicLong max;
+
+  // constructor for an empty histogram
+  LatencyHistogram() {
+    this.counts = new AtomicLongArray(BUCKETS);
+    this.count = new AtomicLong();
+    this.total = new AtomicLong();
+    this.max = new AtomicLong();
+  }
+
+  // returns the bucket the given time falls in
+  static int bucket(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) Math.max(nanos, 0);
+    }
+    int high = 63 - Long.numberOfLeadingZeros(nanos);
+    int sub = (int) (nanos >>> (high - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (high - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  // returns the longest time that falls in the given bucket
+  static long bucketTop(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int high = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    long bottom = (SUB_BUCKETS + sub) << (high - SUB_BITS);
+    return bottom + (1L << (high - SUB_BITS)) - 1;
+  }
+
+  // counts one more time of the given number of nanoseconds
+  void record(long nanos) {
+    this.counts.incrementAndGet(LatencyHistogram.bucket(nanos));
+    this.count.incrementAndGet();
+    this.total.addAndGet(nanos);
+    long seen = this.max.get();
+    while (nanos > seen && !this.max.compareAndSet(seen, nanos)) {
+      seen = this.max.get();
+    }
+  }
+
+  // returns the number of times recorded
+  long count() {
+    return this.count.get();
+  }
+
+  // returns the longest time recorded
+  long max() {
+    return this.max.get();
+  }
+
+  // returns the average time recorded, or 0 if there is none
+  double mean() {
+    long count = this.count.get();
+    return count == 0 ? 0 : (double) this.total.get() / count;
+  }
+
+  // returns a time that the given fraction of the times recorded are at most,
+  // rounded up to the top of its bucket but never above the longest time
+  long percentile(double fraction) {
+    long count = this.count.get();
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen = seen + this.counts.get(i);
+      if (seen >= rank) {
+        return Math.min(LatencyHistogram.bucketTop(i), this.max.get());
+      }
+    }
+    return this.max.get();
+  }
+
+  // returns a copy of this histogram, so the counts can be read while more come in
+  LatencyHistogram snapshot() {
+    LatencyHistogram copy = new LatencyHistogram();
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      long inBucket = this.counts.get(i);
+      copy.counts.set(i, inBucket);
+      count = count + inBucket;
+    }
+    copy.count.set(count);
+    copy.total.set(this.total.get());
+    copy.max.set(this.max.get());
+    return copy;
+  }
+
+  // returns a copy of this histogram and forgets every time in it, as one step: every
+  // counter is swapped for zero, so a time recorded meanwhile is in either the copy or
+  // this histogram, never both or neither. takes the lock so that two of these, or
+  // one and a clear, do not split the times between them
+  synchronized LatencyHistogram snapshotAndReset() {
+    LatencyHistogram copy = new LatencyHistogram();
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      long inBucket = this.counts.getAndSet(i, 0);
+      copy.counts.set(i, inBucket);
+      count = count + inBucket;
+    }
+    this.count.addAndGet(-count);
+    copy.count.set(count);
+    copy.total.set(this.total.getAndSet(0));
+    copy.max.set(this.max.getAndSet(0));
+    return copy;
+  }
+
+  // forgets every time recorded
+  synchronized void clear() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.counts.set(i, 0);
+    }
+    this.count.set(0);
+    this.total.set(0);
+    this.max.set(0);
+  }
+
+  // returns the count, the median, the 99th percentile and the longest time in
+  // microseconds, as one line
+  String summary() {
+    return String.format("n=%d p50=%.1fus p99=%.1fus max=%.1fus", this.count(),
+        this.percentile(0.5) / 1e3, this.percentile(0.99) / 1e3, this.max() / 1e3);
+  }
+}
@@ -0,0 +1,120 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// class that keeps the leaderboard in memory, ranked separately for every board size,
+// so that the best players of a size and the rank of a player can be looked up while
+// many sessions add scores at once. it starts from the leaderboard csv file, read one
+// line at a time, and new scores are appended to the file by a LeaderboardWriter
+class Leaderboard {
+  // the most moves a score can have, more than any board that fits a screen needs
+  static final int MAX_MOVES = 100000000;
+
+  // the rankings of every board size that has a score
+  ConcurrentHashMap<String, LeaderboardRanking> rankings;
+  // where new scores are written, null to keep them in memory only
+  LeaderboardWriter writer;
+  // the number given to the next score, so that earlier scores win ties
+  AtomicLong sequence;
+  // the number of lines of the file that were not scores, such as repeated headers
+  long skipped;
+
+  // constructor for an empty leaderboard whose new scores go to the given writer
+  Leaderboard(LeaderboardWriter writer) {
+    this.rankings = new ConcurrentHashMap<String, LeaderboardRanking>();
+    this.writer = writer;
+    this.sequence = new AtomicLong();
+    this.skipped = 0;
+  }
+
+  // returns a leaderboard with the scores in the csv file at the given path, if there
+  // is one, whose new scores go to the given writer
+  static Leaderboard load(Path path, LeaderboardWriter writer) throws IOException {
+    Leaderboard board = new Leaderboard(writer);
+    if (Files.exists(path)) {
+      try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+        String line = reader.readLine();
+        while (line != null) {
+          LeaderboardEntry entry = Leaderboard.parse(line, board.sequence.getAndIncrement());
+          if (entry == null) {
+            board.skipped++;
+          } else {
+            board.ranking(entry.cols, entry.rows).submit(entry);
+          }
+          line = reader.readLine();
+        }
+      }
+    }
+    return board;
+  }
+
+  // returns the score on the given line of the csv file, or null if it is not one
+  static LeaderboardEntry parse(String line, long sequence) {
+    String[] fields = line.split(",", -1);
+    if (fields.length != 5 || fields[0].isEmpty()) {
+      return null;
+    }
+    try {
+      int cols = Integer.parseInt(fields[1].trim());
+      int rows = Integer.parseInt(fields[2].trim());
+      int moves = Integer.parseInt(fields[3].trim());
+      String looked = fields[4].trim();
+      if (cols < 1 || rows < 1 || moves < 0 || moves > MAX_MOVES
+          || !(looked.equals("true") || looked.equals("false"))) {
+        return null;
+      }
+      return new LeaderboardEntry(fields[0], cols, rows, moves, looked.equals("true"),
+          sequence);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  // returns the ranking of the given board size, making it the first time
+  LeaderboardRanking ranking(int cols, int rows) {
+    return this.rankings.computeIfAbsent(cols + "x" + rows, k -> new LeaderboardRanking());
+  }
+
+  // adds the given score, writes it to the file, and returns the player's rank,
+  // or 0 if the moves are out of range and the score is not added
+  int submit(String name, int cols, int rows, int moves, boolean lookedAtSolution) {
+    if (moves < 0 || moves > MAX_MOVES) {
+      return 0;
+    }
+    LeaderboardEntry entry = new LeaderboardEntry(name, cols, rows, moves, lookedAtSolution,
+        this.sequence.getAndIncrement());
+    LeaderboardRanking ranking = this.ranking(cols, rows);
+    ranking.submit(entry);
+    if (this.writer != null) {
+      this.writer.add(LeaderboardWriter.entry(name, cols, rows, moves, lookedAtSolution));
+    }
+    return ranking.rank(name);
+  }
+
+  // returns the best scores of the given board size, best first, one for each of
+  // at most the given number of players
+  ArrayList<LeaderboardEntry> top(int cols, int rows, int count) {
+    return this.ranking(cols, rows).top(count);
+  }
+
+  // returns the rank of the given player on boards of the given size,
+  // or 0 if they have no score there
+  int rank(int cols, int rows, String name) {
+    return this.ranking(cols, rows).rank(name);
+  }
+
+  // returns the best score of the given player on boards of the given size, or null
+  LeaderboardEntry best(int cols, int rows, String name) {
+    return this.ranking(cols, rows).best.get(name);
+  }
+
+  // returns the number of players with a score on boards of the given size
+  int players(int cols, int rows) {
+    return this.ranking(cols, rows).best.size();
+  }
+}
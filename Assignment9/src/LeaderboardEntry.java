@@ -0,0 +1,29 @@
+// class that represents one score on the leaderboard
+class LeaderboardEntry {
+  // who got the score, on which size of board
+  String name;
+  int cols;
+  int rows;
+  // how many moves it took, and whether the solution was looked at
+  int moves;
+  boolean lookedAtSolution;
+  // when the score was added, earlier scores are ranked first
+  long sequence;
+
+  // constructor for LeaderboardEntry
+  LeaderboardEntry(String name, int cols, int rows, int moves, boolean lookedAtSolution,
+      long sequence) {
+    this.name = name;
+    this.cols = cols;
+    this.rows = rows;
+    this.moves = moves;
+    this.lookedAtSolution = lookedAtSolution;
+    this.sequence = sequence;
+  }
+
+  // returns the score as one number, smaller is better: fewer moves first,
+  // and of the same moves, the ones who did not look at the solution
+  long score() {
+    return 2L * this.moves + (this.lookedAtSolution ? 1 : 0);
+  }
+}
@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// class that represents the ranking of one board size. it keeps every player's best
+// score in a skip list in rank order, for the best players, and the number of players
+// with every score in a Fenwick tree, for the rank of a player, which is one more
+// than the number of players with a better score. the tree has a place for every
+// different score seen, in order, so it is no bigger than the number of scores
+class LeaderboardRanking {
+  // orders the scores best first, then by when they were added
+  static final Comparator<LeaderboardEntry> ORDER = Comparator
+      .comparingLong((LeaderboardEntry entry) -> entry.score())
+      .thenComparingLong(entry -> entry.sequence)
+      .thenComparing(entry -> entry.name);
+
+  // the best score of every player
+  ConcurrentHashMap<String, LeaderboardEntry> best;
+  // the best scores, in rank order
+  ConcurrentSkipListSet<LeaderboardEntry> order;
+  // the different scores that have a place in the tree, smallest first
+  volatile long[] scores;
+  // the Fenwick tree of the number of players with every score, where the players
+  // with the score at position p of scores are counted at position p + 1
+  AtomicLongArray tree;
+  // taken to read and change the tree, and alone to give it a new score
+  ReentrantReadWriteLock lock;
+
+  // constructor for an empty ranking
+  LeaderboardRanking() {
+    this.best = new ConcurrentHashMap<String, LeaderboardEntry>();
+    this.order = new ConcurrentSkipListSet<LeaderboardEntry>(ORDER);
+    this.scores = new long[0];
+    this.tree = new AtomicLongArray(1);
+    this.lock = new ReentrantReadWriteLock();
+  }
+
+  // adds the given score, if it is the player's best, and returns the player's best
+  LeaderboardEntry submit(LeaderboardEntry entry) {
+    this.ensure(entry.score());
+    return this.best.compute(entry.name, (name, old) -> {
+      if (old != null && ORDER.compare(old, entry) <= 0) {
+        return old;
+      }
+      this.lock.readLock().lock();
+      try {
+        if (old != null) {
+          this.order.remove(old);
+          this.add(old.score(), -1);
+        }
+        this.order.add(entry);
+        this.add(entry.score(), 1);
+      } finally {
+        this.lock.readLock().unlock();
+      }
+      return entry;
+    });
+  }
+
+  // returns the best scores, one for each of at most the given number of players
+  ArrayList<LeaderboardEntry> top(int count) {
+    ArrayList<LeaderboardEntry> top = new ArrayList<LeaderboardEntry>();
+    Iterator<LeaderboardEntry> it = this.order.iterator();
+    while (top.size() < count && it.hasNext()) {
+      top.add(it.next());
+    }
+    return top;
+  }
+
+  // returns the rank of the given player, or 0 if they have no score.
+  // players with the same score have the same rank
+  int rank(String name) {
+    LeaderboardEntry entry = this.best.get(name);
+    if (entry == null) {
+      return 0;
+    }
+    this.lock.readLock().lock();
+    try {
+      return (int) this.countBelow(entry.score()) + 1;
+    } finally {
+      this.lock.readLock().unlock();
+    }
+  }
+
+  // counts the given number more players with the given score, which has a place in
+  // the tree, holding the read lock
+  void add(long score, int delta) {
+    AtomicLongArray tree = this.tree;
+    for (int i = Arrays.binarySearch(this.scores, score) + 1; i < tree.length();
+        i += i & -i) {
+      tree.addAndGet(i, delta);
+    }
+  }
+
+  // returns the number of players with a score below the given one, holding the read lock
+  long countBelow(long score) {
+    AtomicLongArray tree = this.tree;
+    int place = Arrays.binarySearch(this.scores, score);
+    long count = 0;
+    for (int i = place >= 0 ? place : -place - 1; i > 0; i -= i & -i) {
+      count += tree.get(i);
+    }
+    return count;
+  }
+
+  // gives the given score a place in the tree, rebuilding it if it has none
+  void ensure(long score) {
+    if (Arrays.binarySearch(this.scores, score) >= 0) {
+      return;
+    }
+    this.lock.writeLock().lock();
+    try {
+      long[] oldScores = this.scores;
+      int at = Arrays.binarySearch(oldScores, score);
+      if (at >= 0) {
+        return;
+      }
+      at = -at - 1;
+      long[] scores = new long[oldScores.length + 1];
+      System.arraycopy(oldScores, 0, scores, 0, at);
+      scores[at] = score;
+      System.arraycopy(oldScores, at, scores, at + 1, oldScores.length - at);
+      // the number of players at every old position, from the differences of the
+      // old sums, moved past the new score
+      AtomicLongArray old = this.tree;
+      long[] counts = new long[scores.length + 1];
+      long before = 0;
+      for (int p = 1; p < old.length(); p++) {
+        long sum = 0;
+        for (int i = p; i > 0; i -= i & -i) {
+          sum += old.get(i);
+        }
+        counts[p <= at ? p : p + 1] = sum - before;
+        before = sum;
+      }
+      // every position adds its sum to the next position that covers it
+      for (int i = 1; i < counts.length; i++) {
+        int next = i + (i & -i);
+        if (next < counts.length) {
+          counts[next] += counts[i];
+        }
+      }
+      this.tree = new AtomicLongArray(counts);
+      this.scores = scores;
+    } finally {
+      this.lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,184 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// class that appends the entries of the leaderboard to its csv file on a thread of its
+// own, so that adding an entry never waits for the disk. the entries waiting when the
+// thread wakes up are written together, and the file is forced to the disk after a
+// batch as often as asked. the header is only written when the file is created, and
+// the entries still waiting when the program exits are written before it does
+class LeaderboardWriter {
+  // the first line of the file
+  static final String HEADER = "Name,Columns,Rows,Number Of Moves,Looked at Solution\n";
+  // the writer of leaderboard.csv shared by the games
+  static LeaderboardWriter shared;
+
+  // the file the entries are appended to
+  Path path;
+  // the most entries written at once
+  int batchSize;
+  // how often the file is forced to the disk: after every batch if 0, at most once
+  // every that many milliseconds if more, and only when closed if less
+  long syncMillis;
+  // the entries waiting to be written, and the thread writing them
+  LinkedBlockingQueue<String> queue;
+  Thread thread;
+  // the thread that closes the writer when the program exits
+  Thread hook;
+  // whether no more entries are taken
+  volatile boolean closed;
+  // the number of entries taken and written so far, and of batches that could not be
+  // written. the writer waits on this object for them to change
+  long added;
+  long written;
+  long failed;
+  // the file, opened when the first batch is written, and when it was last forced
+  FileChannel channel;
+  long lastSync;
+
+  // constructor for a writer appending to the file at the given path
+  LeaderboardWriter(Path path, int batchSize, long syncMillis) {
+    this.path = path;
+    this.batchSize = batchSize;
+    this.syncMillis = syncMillis;
+    this.queue = new LinkedBlockingQueue<String>();
+    this.closed = false;
+    this.thread = new Thread(this::run, "leaderboard-writer");
+    this.thread.setDaemon(true);
+    this.thread.start();
+    this.hook = new Thread(this::close, "leaderboard-close");
+    Runtime.getRuntime().addShutdownHook(this.hook);
+  }
+
+  // returns the writer of leaderboard.csv shared by the games, making it the first time
+  static synchronized LeaderboardWriter shared() {
+    if (shared == null) {
+      shared = new LeaderboardWriter(Paths.get("leaderboard.csv"), 64, 1000);
+    }
+    return shared;
+  }
+
+  // returns the line of the leaderboard for the given game
+  static String entry(String name, int cols, int rows, int moves, boolean lookedAtSolution) {
+    return name + ',' + cols + ',' + rows + ',' + moves + ',' + lookedAtSolution + '\n';
+  }
+
+  // adds the given line to the end of the file soon, without waiting for the disk.
+  // returns false if the writer has been closed
+  boolean add(String line) {
+    synchronized (this) {
+      if (this.closed) {
+        return false;
+      }
+      this.added++;
+      this.queue.add(line);
+    }
+    return true;
+  }
+
+  // writes the entries that are waiting until the writer is closed, then the rest
+  void run() {
+    ArrayList<String> batch = new ArrayList<String>();
+    while (true) {
+      try {
+        String first = this.queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          this.queue.drainTo(batch, this.batchSize - 1);
+          this.write(batch, false);
+          batch.clear();
+        } else if (this.closed && this.queue.isEmpty()) {
+          break;
+        }
+      } catch (InterruptedException e) {
+        break;
+      }
+    }
+    this.queue.drainTo(batch);
+    this.write(batch, true);
+    try {
+      if (this.channel != null) {
+        this.channel.close();
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  // appends the given entries to the file in one write, creating it with its header
+  // if it does not exist yet, and forces it to the disk if it is time to
+  void write(ArrayList<String> batch, boolean last) {
+    try {
+      StringBuilder sb = new StringBuilder();
+      if (this.channel == null && !batch.isEmpty()) {
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (this.channel.size() == 0) {
+          sb.append(HEADER);
+        }
+      }
+      for (String line : batch) {
+        sb.append(line);
+      }
+      ByteBuffer bytes = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+      while (bytes.hasRemaining()) {
+        this.channel.write(bytes);
+      }
+      long now = System.currentTimeMillis();
+      boolean due = last || this.syncMillis == 0
+          || (this.syncMillis > 0 && now - this.lastSync >= this.syncMillis);
+      if (this.channel != null && due) {
+        this.channel.force(false);
+        this.lastSync = now;
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      synchronized (this) {
+        this.failed++;
+      }
+    }
+    synchronized (this) {
+      this.written += batch.size();
+      this.notifyAll();
+    }
+  }
+
+  // waits until every entry added before now has been written, or could not be
+  void flush() {
+    synchronized (this) {
+      long target = this.added;
+      while (this.written < target && this.thread.isAlive()) {
+        try {
+          this.wait(100);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  // takes no more entries, and waits for the ones already taken to be written
+  void close() {
+    synchronized (this) {
+      this.closed = true;
+    }
+    try {
+      this.thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      Runtime.getRuntime().removeShutdownHook(this.hook);
+    } catch (IllegalStateException e) {
+      // the program is already exiting, and this is the hook
+    }
+  }
+}
@@ -0,0 +1,299 @@
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Random;
+
+import javalib.impworld.*;
+import javalib.worldimages.*;
+
+// class that represents the Game
+class LightEmAll extends World {
+
+  // the puzzle being played, which holds the board and the rules of the game
+  PuzzleEngine engine;
+  // the width and height of the board
+  int width;
+  int height;
+  // represents the tile size
+  int tileSize;
+  // the images of the kinds of tile drawn so far, at the tile size
+  TileSprites sprites;
+  // the picture of the board as pixels, kept between frames
+  BoardRaster raster;
+  // what the clicks and keys do to the puzzle, the time and the name being entered
+  PuzzleControls controls;
+  // where the time taken by every callback of this game, and by every phase of making
+  // its puzzles, is recorded, and whether it is shown. every game has its own
+  PerfMonitor perf;
+  boolean showPerf;
+
+  // constructor for the game. puzzles do not have to be repeated, so every game, the
+  // first one too, is taken ready-made from the shared pool when it can be
+  LightEmAll(int width, int height, int numTilesWidth, int numTilesHeight, int bias) {
+    this(new PuzzleControls(new PuzzleEngine(numTilesWidth, numTilesHeight, bias,
+        new Random(), new KruskalGenerator(), PuzzlePool.shared()), width, height,
+        LeaderboardWriter.shared()));
+  }
+
+  // constructor for the game with a given random, so that the puzzle can be repeated
+  LightEmAll(int width, int height, int numTilesWidth, int numTilesHeight, int bias,
+      Random random) {
+    this(width, height, numTilesWidth, numTilesHeight, bias, random, new KruskalGenerator());
+  }
+
+  // constructor for the game with a given random and a given way of building the tree.
+  // makes the puzzle, with the power station in the upper middle of the board.
+  // winning entries go to the leaderboard csv
+  // file, which gets its header("name", "columns", "rows,", "number of moves",
+  // "looked at solution") when it is created
+  LightEmAll(int width, int height, int numTilesWidth, int numTilesHeight, int bias,
+      Random random, TreeGenerator generator) {
+    this(new PuzzleControls(new PuzzleEngine(numTilesWidth, numTilesHeight, bias, random,
+        generator), width, height, LeaderboardWriter.shared()));
+  }
+
+  // constructor for the game that draws the given controls and their puzzle, whose next
+  // puzzles are timed by the monitor of the game
+  LightEmAll(PuzzleControls controls) {
+    this.controls = controls;
+    this.engine = controls.engine;
+    // initializes the fields to the given parameters
+    this.width = controls.width;
+    this.height = controls.height;
+    this.tileSize = controls.tileSize;
+    this.perf = new PerfMonitor();
+    this.engine.perf = this.perf;
+    this.showPerf = false;
+  }
+
+  // draws the gamepieces of the board.
+  WorldImage drawTiles() {
+    Board board = this.engine.board;
+    if (this.raster == null || this.raster.tileSize != this.tileSize
+        || !this.raster.fits(board.cols, board.rows)) {
+      this.raster = new BoardRaster(board.cols, board.rows, this.tileSize, this.tileSize / 2);
+    }
+    this.raster.update(board);
+    // the star of the power station is drawn over the picture of the board
+    int station = board.index(this.engine.powerCol, this.engine.powerRow);
+    WorldImage stationTile = this.tileSprites().sprite(board.tiles[station],
+        board.power(station));
+    return new OverlayOffsetImage(stationTile,
+        (board.cols - 1 - 2 * this.engine.powerCol) * this.tileSize / 2.0,
+        (board.rows - 1 - 2 * this.engine.powerRow) * this.tileSize / 2.0, this.raster.image);
+  }
+
+  // returns the images of the tiles at the tile size, starting over if it has changed
+  TileSprites tileSprites() {
+    if (this.sprites == null || this.sprites.tileSize != this.tileSize) {
+      this.sprites = new TileSprites(this.tileSize, this.tileSize / 2);
+    }
+    return this.sprites;
+  }
+
+  // returns the time text based on the time elapsed
+  String getTimeText() {
+    String timeText = "";
+    int timer = this.controls.timer;
+    // checks to see if minutes are needed.
+    if (timer < 60) {
+      if (timer % 60 != 1) {
+        timeText = "Time: " + timer + " seconds";
+      } else {
+        timeText = "Time: " + timer + " second";
+      }
+
+    } else {
+      if (timer % 60 != 1) {
+        if ((int) (timer / 60) == 1) {
+          timeText = "Time: " + (int) (timer / 60) + " minute " + timer % 60 + " seconds";
+        } else {
+          timeText = "Time: " + (int) (timer / 60) + " minutes " + timer % 60
+              + " seconds";
+        }
+      } else {
+        if ((int) (timer / 60) == 1) {
+          timeText = "Time: " + (int) (timer / 60) + " minute " + timer % 60 + " second";
+        } else {
+          timeText = "Time: " + (int) (timer / 60) + " minutes " + timer % 60 + " second";
+        }
+      }
+
+    }
+    return timeText;
+  }
+
+  // renders the World Scene, timing it and recording it for the Flight Recorder
+  public WorldScene makeScene() {
+    long start = this.perf.start();
+    SceneEvent event = new SceneEvent();
+    event.begin();
+    WorldScene scene = this.drawScene();
+    if (event.shouldCommit()) {
+      event.cols = this.engine.board.cols;
+      event.rows = this.engine.board.rows;
+      event.tileSize = this.tileSize;
+      event.tilesLit = this.engine.board.lit;
+      event.won = this.isWinner();
+      event.commit();
+    }
+    this.perf.lap(PerfMonitor.SCENE, start);
+    return scene;
+  }
+
+  // renders the World Scene
+  WorldScene drawScene() {
+    WorldScene scene = new WorldScene(width, height);
+
+    scene.placeImageXY(drawTiles(), width / 2, height / 2);
+    TextImage timeCount = new TextImage(getTimeText(), Color.BLACK);
+    TextImage movesCount = new TextImage("Number of Moves: " + this.engine.moves, Color.BLACK);
+    TextImage movesNeeded = new TextImage(
+        "Number of Moves Needed: " + this.engine.numMovesNeeded, Color.BLACK);
+    TextImage resetText = new TextImage("Press shift to Reset", Color.BLACK);
+    WorldImage resetButton = new RectangleImage(this.width / 4, this.height / 20,
+        OutlineMode.OUTLINE, Color.BLUE);
+    int userMovesRemaining = this.engine.movesLeft();
+    TextImage userMovesNeeded = new TextImage("Number of Moves Left: " + userMovesRemaining,
+        Color.BLACK);
+    TextImage showSolution = new TextImage("Show Solution", Color.BLACK);
+    WorldImage solutionButton = new RectangleImage(this.width / 4, this.height / 20,
+        OutlineMode.OUTLINE, Color.RED);
+    scene.placeImageXY(resetText, (int) (this.width / 2), (int) (.025 * this.height));
+    scene.placeImageXY(resetButton, (int) (this.width / 2), (int) (.025 * this.height));
+    scene.placeImageXY(timeCount, (int) (this.width / 7), (int) (.98 * this.height));
+    scene.placeImageXY(movesCount, (int) (this.width / 2), (int) (.98 * this.height));
+    scene.placeImageXY(movesNeeded, (int) (5 * this.width / 6), (int) (.98 * this.height));
+    scene.placeImageXY(userMovesNeeded, this.width / 6, (int) (.025 * this.height));
+    scene.placeImageXY(showSolution, (int) (4 * this.width / 5), (int) (.025 * this.height));
+    scene.placeImageXY(solutionButton, (int) (4 * this.width / 5), (int) (.025 * this.height));
+    if (this.showPerf) {
+      this.drawPerf(scene);
+    }
+    if (this.engine.movesLeft() < 0) {
+      return loser();
+    }
+    if (this.isWinner()) {
+      return winner();
+    }
+    return scene;
+  }
+
+  // draws how long every callback and phase has taken so far, one line each,
+  // under the moves left
+  void drawPerf(WorldScene scene) {
+    ArrayList<String> lines = this.perf.report();
+    for (int i = 0; i < lines.size(); i++) {
+      scene.placeImageXY(new TextImage(lines.get(i), 11, Color.DARK_GRAY), this.width / 4,
+          (int) (.06 * this.height) + 13 * i);
+    }
+  }
+
+  // returns the worldscene if the game has been won.
+  WorldScene winner() {
+    WorldScene scene = new WorldScene(this.width, this.height);
+    TextImage winnerText = new TextImage("You Won!", Color.GREEN);
+    TextImage newGameText = new TextImage("Press space to Play Again", Color.BLACK);
+    TextImage endGame = new TextImage("Press escape to exit", Color.BLACK);
+    TextImage name = new TextImage("Enter Your Name: " + this.controls.name, Color.BLACK);
+    WorldImage newGameButton = new RectangleImage(3 * this.width / 10, this.height / 20,
+        OutlineMode.SOLID, Color.GREEN);
+    scene.placeImageXY(endGame, this.width / 2, 11 * this.height / 20);
+    scene.placeImageXY(winnerText, this.width / 2, 2 * this.height / 5);
+    scene.placeImageXY(name, this.width / 2, this.width / 2);
+    scene.placeImageXY(newGameButton, this.width / 2, 3 * this.height / 5);
+    scene.placeImageXY(newGameText, this.width / 2, 3 * this.height / 5);
+    return scene;
+  }
+
+  // returns the worldscene if the game has been lost
+  WorldScene loser() {
+    WorldScene scene = new WorldScene(this.width, this.height);
+    TextImage loserText = new TextImage("You Lost!", Color.RED);
+    TextImage newGameText = new TextImage("Press shift to play again", Color.BLACK);
+    WorldImage newGameButton = new RectangleImage(3 * this.width / 10, this.height / 20,
+        OutlineMode.SOLID, Color.RED);
+    TextImage endGame = new TextImage("Press escape to exit", Color.BLACK);
+    scene.placeImageXY(loserText, this.width / 2, 2 * this.height / 5);
+    scene.placeImageXY(endGame, this.width / 2, 9 * this.height / 20);
+
+    scene.placeImageXY(newGameButton, this.width / 2, 3 * this.height / 5);
+    scene.placeImageXY(newGameText, this.width / 2, 3 * this.height / 5);
+    return scene;
+
+  }
+
+  // onTick method that increments the time every second
+  public void onTick() {
+    long start = this.perf.start();
+    this.controls.tick();
+    this.perf.lap(PerfMonitor.TICK, start);
+  }
+
+  // Rotates a game piece if it is left clicked on, otherwise does nothing
+  public void onMouseClicked(Posn pos, String buttonName) {
+    long start = this.perf.start();
+    this.controls.click(pos.x, pos.y, buttonName);
+    this.perf.lap(PerfMonitor.MOUSE, start);
+  }
+
+  // shows the solution for the puzzle
+  void showSolution() {
+    this.controls.showSolution();
+  }
+
+  // resets the board to the original state
+  void reset() {
+    this.controls.reset();
+  }
+
+  // creates a new puzzle board.
+  void newGame() {
+    this.controls.newGame();
+  }
+
+  // checks to see if every gamepiece is lit up
+  boolean isWinner() {
+    return this.controls.isWinner();
+  }
+
+  // sets the name to the string given by the onKeyEvent method
+  void writeName(String key) {
+    this.controls.writeName(key);
+  }
+
+  // ends the world
+  public WorldEnd worldEnds() {
+    if (this.controls.gameOver) {
+      return new WorldEnd(true, this.makeAFinalScene());
+    } else {
+      return new WorldEnd(false, this.makeScene());
+    }
+  }
+
+  // makes the final end world scene
+  WorldScene makeAFinalScene() {
+    WorldScene scene = new WorldScene(this.width, this.height);
+    TextImage finalText = new TextImage("Game Over", Color.BLACK);
+    scene.placeImageXY(finalText, this.width / 2, this.height / 2);
+    return scene;
+
+  }
+
+  // onkey event, timing it
+  public void onKeyEvent(String key) {
+    long start = this.perf.start();
+    this.keyEvent(key);
+    this.perf.lap(PerfMonitor.KEY, start);
+  }
+
+  // handles the given key
+  void keyEvent(String key) {
+    // shows or hides how long the callbacks of this game take, timing them only while
+    // shown
+    if (!isWinner() && key.equals("p")) {
+      this.showPerf = !this.showPerf;
+      this.perf.enabled = this.showPerf;
+    }
+    this.controls.key(key);
+  }
+}
@@ -0,0 +1,23 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents lighting a board from its power station
+@Name("lightemall.Lighting")
+@Label("Lighting")
+@Category("Light Em All")
+@Description("Lighting the tiles near the power station, or relighting after a turn")
+class LightingEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+  // how far the power reaches, and the number of tiles lit
+  @Label("Radius")
+  int radius;
+  @Label("Tiles Lit")
+  int tilesLit;
+}
@@ -0,0 +1,76 @@
+import java.util.Arrays;
+
+// class that represents the moves made in a puzzle, for undoing and redoing them.
+// every move is one int: a rotated tile is its board index times two, and a step of
+// the power station is its direction times two plus one, with direction 0 if the
+// station could not move that way. the moves after the current one are the ones
+// that can be redone, until a new move is made
+class MoveHistory {
+  // the moves, oldest first
+  int[] moves;
+  // the number of moves that can be undone, and the number that have been recorded
+  int current;
+  int count;
+
+  // constructor for an empty history
+  MoveHistory() {
+    this.moves = new int[16];
+    this.current = 0;
+    this.count = 0;
+  }
+
+  // returns the move of rotating the tile at the given index
+  static int rotation(int index) {
+    return index << 1;
+  }
+
+  // returns the move of stepping the station in the given direction, 0 if it did not move
+  static int step(int dir) {
+    return dir << 1 | 1;
+  }
+
+  // returns whether the given move steps the station
+  static boolean isStep(int move) {
+    return (move & 1) != 0;
+  }
+
+  // returns the board index of the tile, or the direction of the station, of the given move
+  static int target(int move) {
+    return move >>> 1;
+  }
+
+  // records the given move, after which the undone moves can no longer be redone
+  void add(int move) {
+    if (this.current == this.moves.length) {
+      this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+    }
+    this.moves[this.current++] = move;
+    this.count = this.current;
+  }
+
+  // returns whether there is a move to undo
+  boolean canUndo() {
+    return this.current > 0;
+  }
+
+  // returns whether there is a move to redo
+  boolean canRedo() {
+    return this.current < this.count;
+  }
+
+  // returns the move to undo, and steps back past it
+  int undo() {
+    return this.moves[--this.current];
+  }
+
+  // returns the move to redo, and steps forward past it
+  int redo() {
+    return this.moves[this.current++];
+  }
+
+  // forgets every move
+  void clear() {
+    this.current = 0;
+    this.count = 0;
+  }
+}
@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// class that solves a board with the threads of a ForkJoinPool. the first few times the
+// search has to try the rotations of a tile, every rotation that does not fail straight
+// away goes to a task of its own with a copy of the solver, and idle threads steal the
+// tasks. deeper down, each task searches on its own like a PuzzleSolver. the first task
+// to solve the board stops all the others.
+// tiles are not split up by region, since the wires of one region can close a loop or
+// cut off a group through another, so the regions of a board are never independent.
+// run with: java ParallelSolver cols rows count seed [threads...]
+class ParallelSolver {
+  // the board being solved
+  Board board;
+  // the threads that solve it
+  ForkJoinPool pool;
+  // how many tiles deep the rotations tried go to tasks of their own
+  int splitDepth;
+  // set once the board is solved or the time runs out, to stop every task
+  AtomicBoolean done;
+  // the solution, once there is one
+  volatile int[] turns;
+  // the tries made by every task
+  AtomicLong tries;
+
+  // constructor for a solver of the given board using the threads of the given pool
+  ParallelSolver(Board board, ForkJoinPool pool) {
+    this.board = board;
+    this.pool = pool;
+    // a few tasks for every thread, so that the threads with easy branches can
+    // steal work from the others, and none for a single thread
+    int threads = pool.getParallelism();
+    this.splitDepth = threads == 1 ? 0 : 34 - Integer.numberOfLeadingZeros(threads - 1);
+    this.done = new AtomicBoolean();
+    this.tries = new AtomicLong();
+  }
+
+  // solves the puzzles given on the command line with every given number of threads,
+  // and prints how long they took and how much faster than one thread
+  public static void main(String[] args) {
+    if (args.length < 4) {
+      System.out.println("usage: java ParallelSolver cols rows count seed [threads...]");
+      return;
+    }
+    int cols = Integer.parseInt(args[0]);
+    int rows = Integer.parseInt(args[1]);
+    int count = Integer.parseInt(args[2]);
+    long seed = Long.parseLong(args[3]);
+    ArrayList<Integer> threads = new ArrayList<Integer>();
+    for (int i = 4; i < args.length; i++) {
+      threads.add(Integer.parseInt(args[i]));
+    }
+    if (threads.isEmpty()) {
+      for (int n = 1; n <= Runtime.getRuntime().availableProcessors(); n *= 2) {
+        threads.add(n);
+      }
+    }
+    ArrayList<Board> boards = new ArrayList<Board>();
+    Random random = new Random(seed);
+    for (int k = 0; k < count; k++) {
+      boards.add(new PuzzleEngine(cols, rows, 0, new Random(random.nextLong()),
+          new KruskalGenerator()).board);
+    }
+    System.out.println(String.format("%d boards of %dx%d on %d cores", count, cols, rows,
+        Runtime.getRuntime().availableProcessors()));
+    // an untimed pass, so that compiling the solver is not put down to the first
+    // thread count, and a real run on one thread for the speedups to compare with
+    ParallelSolver.time(boards, threads.get(threads.size() - 1));
+    threads.remove(Integer.valueOf(1));
+    threads.add(0, 1);
+    double single = 0;
+    for (int n : threads) {
+      long[] result = ParallelSolver.time(boards, n);
+      double seconds = result[2] / 1e9;
+      if (n == 1) {
+        single = seconds;
+      }
+      System.out.println(String.format(
+          "threads %d: %d solved in %.3fs, %.1f ms each, %d tries, speedup %.2f", n,
+          result[0], seconds, 1000 * seconds / count, result[1], single / seconds));
+    }
+  }
+
+  // solves every given board with the given number of threads, and returns the number
+  // solved, the tries made and the nanoseconds taken
+  static long[] time(ArrayList<Board> boards, int threads) {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    long solved = 0;
+    long triesMade = 0;
+    long start = System.nanoTime();
+    for (Board board : boards) {
+      ParallelSolver solver = new ParallelSolver(board, pool);
+      if (solver.solve(60000000000L)) {
+        solved++;
+      }
+      triesMade = triesMade + solver.tries.get();
+    }
+    long nanos = System.nanoTime() - start;
+    pool.shutdown();
+    return new long[] { solved, triesMade, nanos };
+  }
+
+  // solves the board within the given number of nanoseconds.
+  // returns whether it was solved, see turns for the solution
+  boolean solve(long budgetNanos) {
+    PuzzleSolver solver = new PuzzleSolver(this.board);
+    solver.stop = this.done;
+    if (!solver.start(budgetNanos)) {
+      return false;
+    }
+    this.pool.invoke(new SolveTask(this, solver, 0));
+    this.done.set(true);
+    return this.turns != null;
+  }
+
+  // keeps the solution of the given solver, if it is the first, and stops the others
+  void finish(PuzzleSolver solver) {
+    synchronized (this) {
+      if (this.turns == null) {
+        this.turns = solver.turns();
+      }
+    }
+    this.done.set(true);
+  }
+}
+
+// class that represents searching one branch of the rotations of a board, from the
+// place the given solver is at
+class SolveTask extends RecursiveAction {
+  // the version of the serialized form, which is never used
+  private static final long serialVersionUID = 1L;
+  // the solve this branch is part of
+  ParallelSolver parallel;
+  // the solver at the start of this branch, which belongs to this task alone
+  PuzzleSolver solver;
+  // the number of tiles tried above this branch
+  int depth;
+
+  // constructor for SolveTask
+  SolveTask(ParallelSolver parallel, PuzzleSolver solver, int depth) {
+    this.parallel = parallel;
+    this.solver = solver;
+    this.depth = depth;
+  }
+
+  // searches the branch, splitting it up if it is near the top
+  protected void compute() {
+    if (this.parallel.done.get()) {
+      return;
+    }
+    try {
+      int next = this.solver.settle();
+      if (next == PuzzleSolver.SOLVED) {
+        this.parallel.finish(this.solver);
+      } else if (next >= 0 && this.depth < this.parallel.splitDepth) {
+        ArrayList<SolveTask> branches = new ArrayList<SolveTask>();
+        for (int r = 0; r < 4; r++) {
+          int choice = 1 << r;
+          if ((this.solver.domain[next] & choice) != 0) {
+            PuzzleSolver branch = new PuzzleSolver(this.solver);
+            if (branch.assume(next, choice)) {
+              branches.add(new SolveTask(this.parallel, branch, this.depth + 1));
+            }
+          }
+        }
+        SolveTask.invokeAll(branches);
+      } else if (next >= 0) {
+        this.solver.push(next);
+        if (this.solver.search()) {
+          this.parallel.finish(this.solver);
+        }
+      }
+    } finally {
+      this.parallel.tries.addAndGet(this.solver.tries);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+
+// class that keeps a LatencyHistogram of how long every callback of the world and
+// every phase of making a puzzle takes, so a stutter can be put down to one of them.
+// it only reads the clock while it is enabled; while it is not, timing an event costs
+// one check of a flag, and recording it one check of the time the event started.
+// only the games on screen are timed, each by its own monitor so that showing the times
+// of one game does not time the others: puzzles made in the background, by a pool or
+// a batch, use OFF, so that their time is not put down to the game
+class PerfMonitor {
+  // the callbacks of the world
+  static final int TICK = 0;
+  static final int MOUSE = 1;
+  static final int KEY = 2;
+  static final int SCENE = 3;
+  // the phases of making a puzzle, and the whole of starting a new one
+  static final int NEW_GAME = 4;
+  static final int CREATE_BOARD = 5;
+  static final int GENERATE_TREE = 6;
+  static final int WIRE = 7;
+  static final int MEASURE = 8;
+  static final int LIGHT = 9;
+  static final int SCRAMBLE = 10;
+  static final int SAVE = 11;
+  // the name of every event, by number
+  static final String[] NAMES = new String[] { "onTick", "onMouseClicked", "onKeyEvent",
+      "makeScene", "newGame", "createBoard", "generateTree", "wireBoard", "measureTree",
+      "lightCells", "rotations", "saveCurrState" };
+  // the monitor of the engines that are not timed, such as the ones making puzzles
+  // in the background, which is never enabled
+  static final PerfMonitor OFF = new PerfMonitor();
+
+  // whether events are being timed
+  volatile boolean enabled;
+  // the times of every event, by number
+  LatencyHistogram[] histograms;
+
+  // constructor for a monitor that is not timing anything yet
+  PerfMonitor() {
+    this.enabled = false;
+    this.histograms = new LatencyHistogram[NAMES.length];
+    for (int i = 0; i < NAMES.length; i++) {
+      this.histograms[i] = new LatencyHistogram();
+    }
+  }
+
+  // returns the time an event starts at, or 0 if events are not being timed
+  long start() {
+    return this.enabled ? System.nanoTime() : 0;
+  }
+
+  // records that the given event took from the given start until now, unless it was
+  // not timed, and returns now, for the start of the next event, or 0
+  long lap(int event, long since) {
+    if (since == 0) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    this.histograms[event].record(now - since);
+    return now;
+  }
+
+  // returns a copy of the times of every event, by name, in the order of their numbers
+  LinkedHashMap<String, LatencyHistogram> snapshot() {
+    LinkedHashMap<String, LatencyHistogram> copy = new LinkedHashMap<String, LatencyHistogram>();
+    for (int i = 0; i < NAMES.length; i++) {
+      copy.put(NAMES[i], this.histograms[i].snapshot());
+    }
+    return copy;
+  }
+
+  // returns one line for every event that has been timed, with its percentiles
+  ArrayList<String> report() {
+    ArrayList<String> lines = new ArrayList<String>();
+    for (int i = 0; i < NAMES.length; i++) {
+      if (this.histograms[i].count() > 0) {
+        lines.add(NAMES[i] + " " + this.histograms[i].summary());
+      }
+    }
+    return lines;
+  }
+
+  // forgets the times of every event
+  void clear() {
+    for (LatencyHistogram histogram : this.histograms) {
+      histogram.clear();
+    }
+  }
+}
@@ -55,8 +55,9 @@ Other Features Implemented:
            If the game is quit and then restarted, 
            additional entries will still be appended to the already created file. 
            
-           Note: The user will have to actually end the game(press escape) 
-           to write their entry in the file.
+           Entries are written in the background soon after enter is pressed,
+           and any still waiting are written when the program exits.
+           The header is only written when the file is first created.
            
            To see the leaderboard, you will need to download this file 
            and ideally place it in the desktop. 
@@ -65,1027 +66,31 @@ Other Features Implemented:
            Note: Writing tests using checkExpects for leaderboard is virtually impossible 
            However, it can easily be seen that the leaderboard file works 
            simply by opening the file upon the completion of the game. 
+7. Undo and redo:
+           Pressing z takes back the last rotation or station move, and pressing y
+           makes it again, until a new move is made. Moves taken back no longer count.
+8. Performance overlay:
+           Pressing p shows how long every callback of the game and every phase of
+           making a puzzle takes (the median, 99th percentile and longest), and p
+           hides it again. Times are only taken while it is shown.
+9. Recording and replaying games:
+           java InputLog file cols rows bias [seed] plays a game whose seed and input
+           are written to the file on exit. java InputReplay file [times] replays it
+           without a window as fast as it can, and says whether it ended the same way.
 */
 
 import java.awt.Color;
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.LinkedHashMap;
 import java.util.Random;
 
 import javalib.impworld.*;
 import javalib.worldimages.*;
 import tester.*;
 
-// class that represents the Game
-class LightEmAll extends World {
-
-  // a list of columns of GamePieces,
-  // i.e., represents the board in column-major order
-  ArrayList<ArrayList<GamePiece>> board;
-  // a list of edges of the minimum spanning tree
-  ArrayList<Edge> mst;
-  // the width and height of the board
-  int width;
-  int height;
-  // represents the number of tiles in on the board
-  int numTilesWidth;
-  int numTilesHeight;
-  // the current location of the power station,
-  // as well as its effective radius
-  int powerRow;
-  int powerCol;
-  // the radius of the board
-  int radius;
-  // represents the tile size
-  int tileSize;
-  // represents the time taken
-  int timer;
-  // represents the number of moves the user has made so far
-  int moves;
-  // represents the minimum number of moves needed to solve the game.
-  int numMovesNeeded;
-  // represents the initial board that is created.
-  ArrayList<ArrayList<GamePiece>> currState = new ArrayList<ArrayList<GamePiece>>();
-  // represents the name of the user plaing the game
-  String name;
-  // represents whether or not the game is over
-  boolean gameOver;
-  // the output that will be written to the file
-  BufferedWriter output = null;
-  // represents whether the user has looked at the solution
-  boolean lookedAtSolution;
-  // represents the bias, should be given as an int between -3 and 3
-  int bias;
-  // field for testing randoms
-  Random random;
-
-  // constructor for the game
-  LightEmAll(int width, int height, int numTilesWidth, int numTilesHeight, int bias) {
-    this.random = new Random();
-    // initializes the fields to the given parameters
-    this.numTilesWidth = numTilesWidth;
-    this.numTilesHeight = numTilesHeight;
-    this.width = width;
-    this.height = height;
-    this.bias = bias;
-    // sets the power row and power col to be in the upper middle of the board.
-    this.powerCol = this.numTilesWidth / 2;
-    this.powerRow = 0;
-    // initailizes the board to an empty arraylist of arraylist of gamepiece
-    this.board = new ArrayList<ArrayList<GamePiece>>();
-    // sets the tile size
-    this.tileSize = Math.min((int) (.9 * width / numTilesWidth),
-        (int) (.9 * height / numTilesHeight));
-    // sets the board using kruskals algorithm
-    this.board = createBoard();
-    this.mst = kruskalAlgos();
-    this.createBoardWithMst();
-    // removes and then adds all the neighbors for each gamepiece
-    this.removeNeighbors();
-    this.addNeighbors();
-    // turns every gamepiece off
-    this.turnGamePieceOff();
-    // sets the radius
-    this.radius = getRadius();
-    this.name = "";
-    this.timer = 0;
-    this.moves = 0;
-    // lights the cells based on the radius
-    this.board.get(this.powerCol).get(this.powerRow).lightCells(this.radius + 1);
-    this.gameOver = false;
-    // gets the minimum number of moves needed to win the game and rotates the
-    // gamepieces
-    this.numMovesNeeded = rotations();
-    // saves the current state to allow for resets
-    saveCurrState();
-    this.lookedAtSolution = false;
-
-    // writes the header("name", "columns", "rows,", "number of moves", "looked at
-    // solution") to a csv file called leaderboard
-    try {
-      this.output = new BufferedWriter(new FileWriter("leaderboard.csv", true));
-      StringBuilder sb = new StringBuilder();
-      sb.append("Name");
-      sb.append(',');
-      sb.append("Columns");
-      sb.append(',');
-      sb.append("Rows");
-      sb.append(',');
-      sb.append("Number Of Moves");
-      sb.append(',');
-      sb.append("Looked at Solution");
-      sb.append('\n');
-      this.output.write(sb.toString());
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-
-  }
-
-  LightEmAll(int width, int height, int numTilesWidth, int numTilesHeight, int bias,
-      Random random) {
-    this.random = random;
-    // initializes the fields to the given parameters
-    this.numTilesWidth = numTilesWidth;
-    this.numTilesHeight = numTilesHeight;
-    this.width = width;
-    this.height = height;
-    this.bias = bias;
-    // sets the power row and power col to be in the upper middle of the board.
-    this.powerCol = this.numTilesWidth / 2;
-    this.powerRow = 0;
-    // initailizes the board to an empty arraylist of arraylist of gamepiece
-    this.board = new ArrayList<ArrayList<GamePiece>>();
-    // sets the tile size
-    this.tileSize = Math.min((int) (.9 * width / numTilesWidth),
-        (int) (.9 * height / numTilesHeight));
-    // sets the board using kruskals algorithm
-    this.board = createBoard();
-    this.mst = kruskalAlgos();
-    this.createBoardWithMst();
-    // removes and then adds all the neighbors for each gamepiece
-    this.removeNeighbors();
-    this.addNeighbors();
-    // turns every gamepiece off
-    this.turnGamePieceOff();
-    // sets the radius
-    this.radius = getRadius();
-    this.name = "";
-    this.timer = 0;
-    this.moves = 0;
-    // lights the cells based on the radius
-    this.board.get(this.powerCol).get(this.powerRow).lightCells(this.radius + 1);
-    this.gameOver = false;
-    // gets the minimum number of moves needed to win the game and rotates the
-    // gamepieces
-    this.numMovesNeeded = rotations();
-    // saves the current state to allow for resets
-    saveCurrState();
-    this.lookedAtSolution = false;
-
-    // writes the header("name", "columns", "rows,", "number of moves", "looked at
-    // solution") to a csv file called leaderboard
-    try {
-      this.output = new BufferedWriter(new FileWriter("leaderboard.csv", true));
-      StringBuilder sb = new StringBuilder();
-      sb.append("Name");
-      sb.append(',');
-      sb.append("Columns");
-      sb.append(',');
-      sb.append("Rows");
-      sb.append(',');
-      sb.append("Number Of Moves");
-      sb.append(',');
-      sb.append("Looked at Solution");
-      sb.append('\n');
-      this.output.write(sb.toString());
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-
-  }
-
-  // saves the current state of the board to a duplicate
-  void saveCurrState() {
-    for (int i = 0; i < this.board.size(); i++) {
-      ArrayList<GamePiece> temp = new ArrayList<GamePiece>();
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        int currRow = curr.row;
-        int currCol = curr.col;
-        boolean left = curr.left;
-        boolean right = curr.right;
-        boolean bottom = curr.bottom;
-        boolean top = curr.top;
-        boolean powerStation = curr.powerStation;
-        int wireSize = curr.wireSize;
-        GamePiece current = new GamePiece(currRow, currCol, left, right, top, bottom, powerStation,
-            wireSize);
-        temp.add(current);
-      }
-      this.currState.add(temp);
-    }
-  }
-
-  // creates the grid
-  ArrayList<ArrayList<GamePiece>> createBoard() {
-    ArrayList<ArrayList<GamePiece>> temp = new ArrayList<ArrayList<GamePiece>>();
-    for (int i = 0; i < numTilesWidth; i++) {
-      ArrayList<GamePiece> mt = new ArrayList<GamePiece>();
-      for (int j = 0; j < numTilesHeight; j++) {
-        if (i == powerCol && j == powerRow) {
-
-          GamePiece riggedGP = new GamePiece(i, j, false, false, false, false, true, tileSize / 2);
-          mt.add(riggedGP);
-        } else {
-          GamePiece newGP = new GamePiece(i, j, false, false, false, false, false, tileSize / 2);
-          mt.add(newGP);
-        }
-      }
-      temp.add(mt);
-    }
-    return temp;
-  }
-
-  // rotates the gamepiece edges and returns the number of rotations that occur
-  int rotations() {
-    int moves = 0;
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        int rotations = this.random.nextInt(4);
-        moves = moves + 4 - rotations;
-        while (rotations > 0) {
-          this.board.get(i).get(j).rotate();
-          rotations--;
-        }
-
-      }
-
-    }
-    this.removeNeighbors();
-    this.addNeighbors();
-    this.turnGamePieceOff();
-    this.board.get(this.powerCol).get(this.powerRow).lightCells(this.radius + 1);
-    return moves + this.radius;
-  }
-
-  // draws the gamepieces of the board.
-  WorldImage drawTiles() {
-    WorldImage temp = new EmptyImage();
-    for (int i = 0; i < this.board.size(); i++) {
-      WorldImage innerTemp = new EmptyImage();
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        innerTemp = new AboveImage(innerTemp, this.board.get(i).get(j).draw(this.tileSize));
-      }
-      temp = new BesideImage(temp, innerTemp);
-    }
-    return temp;
-  }
-
-  // returns the time text based on the time elapsed
-  String getTimeText() {
-    String timeText = "";
-    // checks to see if minutes are needed.
-    if (this.timer < 60) {
-      if (this.timer % 60 != 1) {
-        timeText = "Time: " + this.timer + " seconds";
-      } else {
-        timeText = "Time: " + this.timer + " second";
-      }
-
-    } else {
-      if (this.timer % 60 != 1) {
-        if ((int) (this.timer / 60) == 1) {
-          timeText = "Time: " + (int) (this.timer / 60) + " minute " + this.timer % 60 + " seconds";
-        } else {
-          timeText = "Time: " + (int) (this.timer / 60) + " minutes " + this.timer % 60
-              + " seconds";
-        }
-      } else {
-        if ((int) (this.timer / 60) == 1) {
-          timeText = "Time: " + (int) (this.timer / 60) + " minute " + this.timer % 60 + " second";
-        } else {
-          timeText = "Time: " + (int) (this.timer / 60) + " minutes " + this.timer % 60 + " second";
-        }
-      }
-
-    }
-    return timeText;
-  }
-
-  // renders the World Scene
-  public WorldScene makeScene() {
-    WorldScene scene = new WorldScene(width, height);
-
-    scene.placeImageXY(drawTiles(), width / 2, height / 2);
-    TextImage timeCount = new TextImage(getTimeText(), Color.BLACK);
-    TextImage movesCount = new TextImage("Number of Moves: " + this.moves, Color.BLACK);
-    TextImage movesNeeded = new TextImage("Number of Moves Needed: " + this.numMovesNeeded,
-        Color.BLACK);
-    TextImage resetText = new TextImage("Press shift to Reset", Color.BLACK);
-    WorldImage resetButton = new RectangleImage(this.width / 4, this.height / 20,
-        OutlineMode.OUTLINE, Color.BLUE);
-    int userMovesRemaining = 3 * this.numMovesNeeded / 2 + this.radius - this.moves;
-    TextImage userMovesNeeded = new TextImage("Number of Moves Left: " + userMovesRemaining,
-        Color.BLACK);
-    TextImage showSolution = new TextImage("Show Solution", Color.BLACK);
-    WorldImage solutionButton = new RectangleImage(this.width / 4, this.height / 20,
-        OutlineMode.OUTLINE, Color.RED);
-    scene.placeImageXY(resetText, (int) (this.width / 2), (int) (.025 * this.height));
-    scene.placeImageXY(resetButton, (int) (this.width / 2), (int) (.025 * this.height));
-    scene.placeImageXY(timeCount, (int) (this.width / 7), (int) (.98 * this.height));
-    scene.placeImageXY(movesCount, (int) (this.width / 2), (int) (.98 * this.height));
-    scene.placeImageXY(movesNeeded, (int) (5 * this.width / 6), (int) (.98 * this.height));
-    scene.placeImageXY(userMovesNeeded, this.width / 6, (int) (.025 * this.height));
-    scene.placeImageXY(showSolution, (int) (4 * this.width / 5), (int) (.025 * this.height));
-    scene.placeImageXY(solutionButton, (int) (4 * this.width / 5), (int) (.025 * this.height));
-    if (3 * this.numMovesNeeded / 2 + this.radius - this.moves < 0) {
-      return loser();
-    }
-    if (this.isWinner()) {
-      return winner();
-    }
-    return scene;
-  }
-
-  // returns the worldscene if the game has been won.
-  WorldScene winner() {
-    WorldScene scene = new WorldScene(this.width, this.height);
-    TextImage winnerText = new TextImage("You Won!", Color.GREEN);
-    TextImage newGameText = new TextImage("Press space to Play Again", Color.BLACK);
-    TextImage endGame = new TextImage("Press escape to exit", Color.BLACK);
-    TextImage name = new TextImage("Enter Your Name: " + this.name, Color.BLACK);
-    WorldImage newGameButton = new RectangleImage(3 * this.width / 10, this.height / 20,
-        OutlineMode.SOLID, Color.GREEN);
-    scene.placeImageXY(endGame, this.width / 2, 11 * this.height / 20);
-    scene.placeImageXY(winnerText, this.width / 2, 2 * this.height / 5);
-    scene.placeImageXY(name, this.width / 2, this.width / 2);
-    scene.placeImageXY(newGameButton, this.width / 2, 3 * this.height / 5);
-    scene.placeImageXY(newGameText, this.width / 2, 3 * this.height / 5);
-    return scene;
-  }
-
-  // returns the worldscene if the game has been lost
-  WorldScene loser() {
-    WorldScene scene = new WorldScene(this.width, this.height);
-    TextImage loserText = new TextImage("You Lost!", Color.RED);
-    TextImage newGameText = new TextImage("Press shift to play again", Color.BLACK);
-    WorldImage newGameButton = new RectangleImage(3 * this.width / 10, this.height / 20,
-        OutlineMode.SOLID, Color.RED);
-    TextImage endGame = new TextImage("Press escape to exit", Color.BLACK);
-    scene.placeImageXY(loserText, this.width / 2, 2 * this.height / 5);
-    scene.placeImageXY(endGame, this.width / 2, 9 * this.height / 20);
-
-    scene.placeImageXY(newGameButton, this.width / 2, 3 * this.height / 5);
-    scene.placeImageXY(newGameText, this.width / 2, 3 * this.height / 5);
-    return scene;
-
-  }
-
-  // onTick method that increments the time every second
-  public void onTick() {
-    this.timer++;
-  }
-
-  // Rotates a game piece if it is left clicked on, otherwise does nothing
-  public void onMouseClicked(Posn pos, String buttonName) {
-    if (pos.x >= this.width / 2 - this.tileSize * this.numTilesWidth / 2
-        && pos.x <= this.width / 2 + this.tileSize * this.numTilesWidth / 2
-        && pos.y >= this.height / 2 - this.tileSize * this.numTilesHeight / 2
-        && pos.y <= this.height / 2 + this.tileSize * this.numTilesHeight / 2 && !isWinner()) {
-
-      int w = (pos.x - (this.width / 2 - this.tileSize * this.numTilesWidth / 2)) / this.tileSize;
-      int h = (pos.y - (this.width / 2 - this.tileSize * this.numTilesHeight / 2)) / this.tileSize;
-      if (buttonName.equals("LeftButton")) {
-        GamePiece clicked = this.board.get(w).get(h);
-        clicked.rotate();
-      }
-      this.moves++;
-    }
-
-    // wipe the cells
-    turnGamePieceOff();
-    this.removeNeighbors();
-    this.addNeighbors();
-
-    // if the show solution button is clicked
-    this.board.get(powerCol).get(powerRow).lightCells(this.radius + 1);
-    if (pos.x < (int) (.925 * this.width) && pos.x > (int) (.675 * this.width)
-        && pos.y < (int) (.05 * this.height)) {
-      showSolution();
-
-    }
-
-  }
-
-  // shows the solution for the puzzle
-  void showSolution() {
-    this.board = this.createBoard();
-    this.kruskalAlgos();
-    this.createBoardWithMst();
-    // this.createFractals(this.board);
-    this.removeNeighbors();
-    this.addNeighbors();
-    this.board.get(this.powerCol).get(this.powerRow).powerStation = false;
-    this.powerCol = this.numTilesWidth / 2;
-    this.powerRow = 0;
-    this.board.get(this.powerCol).get(this.powerRow).powerStation = true;
-    turnGamePieceOff();
-    this.board.get(this.powerCol).get(this.powerRow).lightCells(this.radius + 1);
-    this.timer = 0;
-    this.moves = 0;
-    this.lookedAtSolution = true;
-  }
-
-  // resets the board to the original state
-  void reset() {
-    for (int i = 0; i < this.currState.size(); i++) {
-      ArrayList<GamePiece> temp = new ArrayList<GamePiece>();
-      for (int j = 0; j < this.currState.get(i).size(); j++) {
-        GamePiece curr = this.currState.get(i).get(j);
-        if (curr.powerStation) {
-          this.powerCol = curr.row;
-          this.powerRow = curr.col;
-        }
-        int currRow = curr.row;
-        int currCol = curr.col;
-        boolean left = curr.left;
-        boolean right = curr.right;
-        boolean bottom = curr.bottom;
-        boolean top = curr.top;
-        boolean powerStation = curr.powerStation;
-        int wireSize = curr.wireSize;
-        GamePiece current = new GamePiece(currRow, currCol, left, right, top, bottom, powerStation,
-            wireSize);
-        temp.add(current);
-      }
-      this.board.set(i, temp);
-    }
-
-    this.removeNeighbors();
-    this.addNeighbors();
-    this.turnGamePieceOff();
-    this.timer = 0;
-    this.moves = 0;
-    this.board.get(this.powerCol).get(this.powerRow).lightCells(this.radius + 1);
-    this.lookedAtSolution = false;
-
-  }
-
-  // creates a new puzzle board.
-  void newGame() {
-    this.powerCol = this.numTilesWidth / 2;
-    this.powerRow = 0;
-    this.board = createBoard();
-    this.mst = kruskalAlgos();
-    this.createBoardWithMst();
-    this.removeNeighbors();
-    this.addNeighbors();
-    this.turnGamePieceOff();
-    this.radius = getRadius();
-    this.name = "";
-    this.timer = 0;
-    this.moves = 0;
-
-    this.board.get(this.powerCol).get(this.powerRow).lightCells(this.radius + 1);
-
-    this.numMovesNeeded = rotations();
-    for (int i = 0; i < this.board.size(); i++) {
-      ArrayList<GamePiece> temp = new ArrayList<GamePiece>();
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        int currRow = curr.row;
-        int currCol = curr.col;
-        boolean left = curr.left;
-        boolean right = curr.right;
-        boolean bottom = curr.bottom;
-        boolean top = curr.top;
-        boolean powerStation = curr.powerStation;
-        int wireSize = curr.wireSize;
-        GamePiece current = new GamePiece(currRow, currCol, left, right, top, bottom, powerStation,
-            wireSize);
-        temp.add(current);
-      }
-      this.currState.set(i, temp);
-    }
-    // sets looked at solution to false because the user no longer has the solution
-    this.lookedAtSolution = false;
-  }
-
-  // sets the board using the minimum spanning tree that was generated
-  void createBoardWithMst() {
-
-    for (int i = 0; i < this.mst.size(); i++) {
-      GamePiece curr1 = this.mst.get(i).fromNode;
-      GamePiece curr2 = this.mst.get(i).toNode;
-
-      if (curr1.row == curr2.row) {
-        if (curr1.col == curr2.col + 1) {
-          this.board.get(curr1.row).get(curr1.col).top = true;
-          this.board.get(curr2.row).get(curr2.col).bottom = true;
-        } else {
-          this.board.get(curr1.row).get(curr1.col).bottom = true;
-          this.board.get(curr2.row).get(curr2.col).top = true;
-        }
-      }
-      if (curr1.col == curr2.col) {
-        if (curr1.row == curr2.row + 1) {
-          this.board.get(curr1.row).get(curr1.col).left = true;
-          this.board.get(curr2.row).get(curr2.col).right = true;
-        } else {
-          this.board.get(curr1.row).get(curr1.col).right = true;
-          this.board.get(curr1.row).get(curr2.col).left = true;
-        }
-      }
-    }
-
-  }
-
-  // turns every game piece to be powered off
-  void turnGamePieceOff() {
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        this.board.get(i).get(j).powered = 0;
-      }
-    }
-  }
-
-  // checks to see if every gamepiece is lit up
-  boolean isWinner() {
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        if (this.board.get(i).get(j).powered == 0) {
-          return false;
-        }
-      }
-    }
-
-    return true;
-  }
-
-  // sets the name to the string given by the onKeyEvent method
-  void writeName(String key) {
-    // creates an arraylist of "good keys" that can be used to enter in your name.
-    ArrayList<String> goodKeys = new ArrayList<String>(
-        Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o",
-            "p", "q", "r", "s", "t", "u", "v", "w", "x", "y", "z"));
-    if (goodKeys.contains(key)) {
-      this.name = this.name + key;
-    }
-    if (key.equals("backspace")) {
-      String temp = this.name;
-      if (temp.length() > 0) {
-        this.name = temp.substring(0, temp.length() - 1);
-      }
-    }
-  }
-
-  // ends the world
-  public WorldEnd worldEnds() {
-    if (this.gameOver) {
-      try {
-        this.output.close();
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-      return new WorldEnd(true, this.makeAFinalScene());
-    } else {
-      return new WorldEnd(false, this.makeScene());
-    }
-  }
-
-  // makes the final end world scene
-  WorldScene makeAFinalScene() {
-    WorldScene scene = new WorldScene(this.width, this.height);
-    TextImage finalText = new TextImage("Game Over", Color.BLACK);
-    scene.placeImageXY(finalText, this.width / 2, this.height / 2);
-    return scene;
-
-  }
-
-  // onkey event
-  public void onKeyEvent(String key) {
-    // if the game has been won, writes the name that is currently being entered
-    if (isWinner()) {
-      writeName(key);
-    }
-    if (!isWinner() && key.equals("shift")) {
-      reset();
-      return;
-    }
-    if (key.equals(" ") && isWinner()) {
-      newGame();
-      return;
-    }
-    if (key.equals("escape")) {
-      this.gameOver = true;
-    }
-    // appends the entry to the existing file
-    if (key.equals("enter") && isWinner()) {
-      String leaderName = this.name;
-      this.name = "";
-
-      try {
-        StringBuilder sb = new StringBuilder();
-        sb.append(leaderName);
-        sb.append(',');
-        sb.append(this.numTilesWidth);
-        sb.append(',');
-        sb.append(this.numTilesHeight);
-        sb.append(',');
-        sb.append(this.moves);
-        sb.append(',');
-        sb.append(this.lookedAtSolution);
-        sb.append('\n');
-
-        this.output.write(sb.toString());
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-      return;
-    }
-
-    if (!isWinner()) {
-      if (key.equals("up") && this.powerRow > 0 && this.board.get(this.powerCol).get(this.powerRow)
-          .isConnectedTop(this.board.get(this.powerCol).get(this.powerRow - 1))) {
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = false;
-        this.powerRow--;
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = true;
-      }
-      if (key.equals("down") && this.powerRow < this.numTilesHeight - 1
-          && this.board.get(this.powerCol).get(this.powerRow)
-              .isConnectedBottom(this.board.get(this.powerCol).get(this.powerRow + 1))) {
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = false;
-        this.powerRow++;
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = true;
-      }
-      if (key.equals("right") && this.powerCol < this.numTilesWidth - 1
-          && this.board.get(this.powerCol).get(this.powerRow)
-              .isConnectedRight(this.board.get(this.powerCol + 1).get(this.powerRow))) {
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = false;
-        this.powerCol++;
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = true;
-
-      }
-      if (key.equals("left") && this.powerCol > 0 && this.board.get(powerCol).get(powerRow)
-          .isConnectedLeft(this.board.get(powerCol - 1).get(powerRow))) {
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = false;
-        this.powerCol--;
-        this.board.get(this.powerCol).get(this.powerRow).powerStation = true;
-      }
-      // wipe the cells
-      turnGamePieceOff();
-      this.board.get(powerCol).get(powerRow).lightCells(this.radius + 1);
-      this.moves++;
-    }
-
-  }
-
-  // goes through every gamepiece and removes their neighbors.
-  void removeNeighbors() {
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        curr.neighbors = new ArrayList<GamePiece>();
-      }
-    }
-  }
-
-  // goes through every gamepiece and adds their corresponding neighbors.
-  void addNeighbors() {
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        if (i > 0) {
-          if (curr.isConnectedLeft(this.board.get(i - 1).get(j))) {
-            curr.addNeighbor(this.board.get(i - 1).get(j));
-          }
-        }
-        if (j > 0) {
-          if (curr.isConnectedTop(this.board.get(i).get(j - 1))) {
-            curr.addNeighbor(this.board.get(i).get(j - 1));
-          }
-        }
-        if (i < this.board.size() - 1) {
-          if (curr.isConnectedRight(this.board.get(i + 1).get(j))) {
-            curr.addNeighbor(this.board.get(i + 1).get(j));
-          }
-        }
-        if (j < this.board.get(i).size() - 1) {
-          if (curr.isConnectedBottom(this.board.get(i).get(j + 1))) {
-            curr.addNeighbor(this.board.get(i).get(j + 1));
-          }
-        }
-      }
-    }
-  }
-
-  // gets the radius of the board.
-  int getRadius() {
-    GamePieceDepth furthestFirst = bfs(new Posn(this.powerCol, this.powerRow));
-    GamePieceDepth furthestSecond = bfs(furthestFirst.getCoordinates());
-
-    return furthestSecond.depth / 2 + 1;
-
-  }
-
-  // returns a gamepiece depth after executing a breadth first search given a
-  // position in the board.
-  GamePieceDepth bfs(Posn coord) {
-    GamePiece curr = this.board.get(coord.x).get(coord.y);
-    ArrayList<GamePieceDepth> sofar = new ArrayList<GamePieceDepth>();
-    Queue<GamePieceDepth> queue = new LinkedList<GamePieceDepth>();
-    queue.add(new GamePieceDepth(curr, 0));
-    GamePieceDepth removed = null;
-    while (!queue.isEmpty()) {
-      removed = queue.remove();
-      for (GamePiece gamePiece : removed.gp.neighbors) {
-        if (!gamePiece.gamePieceInDepth(sofar)) {
-          sofar.add(removed);
-          queue.add(new GamePieceDepth(gamePiece, removed.depth + 1));
-        }
-      }
-    }
-    return removed;
-  }
-
-  // implements union find that efficiently connects components. returns an
-  // arraylist of edges.
-  ArrayList<Edge> kruskalAlgos() {
-    HashMap<GamePiece, GamePiece> representatives = new HashMap<GamePiece, GamePiece>();
-
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        representatives.put(curr, curr);
-      }
-    }
-
-    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
-    EdgeComp comp = new EdgeComp();
-    ArrayList<Edge> worklist = this.generateEdges();
-    worklist.sort(comp);
-
-    while (worklist.size() > 0) {
-      Edge current = worklist.get(0);
-      if (representatives.get(current.fromNode).equals(representatives.get(current.toNode))) {
-        worklist.remove(current);
-      } else {
-        edgesInTree.add(worklist.remove(0));
-        union(representatives, representatives.get(current.fromNode),
-            representatives.get(current.toNode));
-      }
-    }
-    return edgesInTree;
-
-  }
-
-  // union method that sets one representatives representatives to the other.
-  void union(HashMap<GamePiece, GamePiece> representatives, GamePiece x, GamePiece y) {
-    ArrayList<GamePiece> groupX = findGroupOfGamePiece(representatives, x);
-    ArrayList<GamePiece> groupY = findGroupOfGamePiece(representatives, y);
-
-    if (groupX.size() < groupY.size()) {
-      representatives = changeValues(representatives, x, y);
-    } else {
-      representatives = changeValues(representatives, y, x);
-    }
-  }
-
-  // changes the values to set one representative to the other.
-  HashMap<GamePiece, GamePiece> changeValues(HashMap<GamePiece, GamePiece> representatives,
-      GamePiece x, GamePiece y) {
-    ArrayList<GamePiece> xGroup = findGroupOfGamePiece(representatives, x);
-    for (int i = 0; i < xGroup.size(); i++) {
-      representatives.remove(xGroup.get(i));
-      representatives.put(xGroup.get(i), y);
-    }
-    return representatives;
-  }
-
-  // finds what in a gamepiece group and returns an arraylist of gamepiece that
-  // are in the group.
-  ArrayList<GamePiece> findGroupOfGamePiece(HashMap<GamePiece, GamePiece> representatives,
-      GamePiece x) {
-
-    ArrayList<GamePiece> gpInGroup = new ArrayList<GamePiece>();
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        if (representatives.get(curr) != null && representatives.get(curr).equals(x)) {
-          gpInGroup.add(curr);
-        }
-      }
-    }
-    return gpInGroup;
-
-  }
-
-  // returns an arraylist of edges. Generating an edge for each gamepiece.
-  ArrayList<Edge> generateEdges() {
-    ArrayList<Edge> listOfEdges = new ArrayList<Edge>();
-    int totalNumWeights = this.numTilesHeight * this.numTilesWidth - 1;
-    int biasVert = 1;
-    int biasHor = 1;
-    if (this.bias > 0) {
-      biasVert = this.bias;
-    } else if (this.bias < 0) {
-      biasHor = this.bias * -1;
-    }
-    for (int i = 0; i < this.board.size(); i++) {
-      for (int j = 0; j < this.board.get(i).size(); j++) {
-        GamePiece curr = this.board.get(i).get(j);
-        if (i > 0) {
-          Edge newEdge = new Edge(curr, this.board.get(i - 1).get(j),
-              random.nextInt(totalNumWeights) * biasVert);
-          listOfEdges.add(newEdge);
-        }
-        if (j > 0) {
-          Edge newEdge = new Edge(curr, this.board.get(i).get(j - 1),
-              random.nextInt(totalNumWeights) * biasHor);
-          listOfEdges.add(newEdge);
-        }
-
-      }
-    }
-
-    return listOfEdges;
-  }
-
-}
-
-// class EdgeComp that implements a comparator. 
-class EdgeComp implements Comparator<Edge> {
-
-  // compare method that compares two edge weights and returns - if the first
-  // weight is greater, 0 if equal and + if the second is greater
-  public int compare(Edge e, Edge other) {
-    return e.weight - other.weight;
-  }
-
-}
-
-// Class GamePieceDepth that has a gamepiece and depth.
-class GamePieceDepth {
-  GamePiece gp;
-  int depth;
-
-  // constructor for gamepiecedepth
-  GamePieceDepth(GamePiece gp, int depth) {
-    this.gp = gp;
-    this.depth = depth;
-  }
-
-  // gets the coordinates of the gamepiece. Returns the row and col.
-  Posn getCoordinates() {
-    return new Posn(this.gp.row, this.gp.col);
-  }
-
-}
-
-// class that represents a game piece
-class GamePiece {
-  // in logical coordinates, with the origin
-  // at the top-left corner of the screen
-  // rows and cols start at 0
-  int row;
-  int col;
-  // whether this GamePiece is connected to the
-  // adjacent left, right, top, or bottom pieces
-  boolean left;
-  boolean right;
-  boolean top;
-  boolean bottom;
-  // whether the power station is on this piece
-  boolean powerStation;
-  int wireSize;
-  int powered;
-  ArrayList<GamePiece> neighbors;
-
-  // constructor for GamePiece
-  GamePiece(int row, int col, boolean left, boolean right, boolean top, boolean bottom,
-      boolean powerStation, int wireSize) {
-    this.row = row;
-    this.col = col;
-    this.left = left;
-    this.right = right;
-    this.top = top;
-    this.bottom = bottom;
-    this.powerStation = powerStation;
-    this.wireSize = wireSize;
-    this.powered = 0;
-    this.neighbors = new ArrayList<GamePiece>();
-  }
-
-  // returns whether or not this gamepiece is in the given list of gamepiece
-  // depth.
-  boolean gamePieceInDepth(ArrayList<GamePieceDepth> gpd) {
-    for (int i = 0; i < gpd.size(); i++) {
-      if (gpd.get(i).gp.equals(this)) {
-        return true;
-      }
-    }
-    return false;
-  }
-
-  // adds the given gamepiece to this gamepiece's neighbors.
-  void addNeighbor(GamePiece gp) {
-    this.neighbors.add(gp);
-  }
-
-  // removes the given gamepiece from this gamepiece's neighbors.
-  void removeNeighbor(GamePiece gp) {
-    this.neighbors.remove(gp);
-  }
-
-  // lights the cells within the radius of the power station
-  // NOTE: by design, we have decided to have the radius include this gamepiece.
-  void lightCells(int radius) {
-    this.lightCellsHelp(radius, new ArrayList<GamePiece>());
-  }
-
-  // Loops through neighbors and keeps lighting up cells within the radius,
-  // decrementing each iteration
-  void lightCellsHelp(int radius, ArrayList<GamePiece> sofar) {
-    if (radius > -1) {
-      this.powered = radius;
-      sofar.add(this);
-      for (int i = 0; i < this.neighbors.size(); i++) {
-        if (!sofar.contains(this.neighbors.get(i))) {
-          this.neighbors.get(i).lightCellsHelp(radius - 1, sofar);
-        }
-      }
-    }
-
-  }
-
-  // renders a game piece depending on its top, left, right, and bottom
-  WorldImage draw(int size) {
-    Color color = Color.LIGHT_GRAY;
-    if (this.powered != 0) {
-      color = new Color(255 - 80 / this.powered, 255 - 80 / this.powered, 0);
-    }
-
-    WorldImage tempImg = new OverlayImage(
-        new RectangleImage(size, size, OutlineMode.OUTLINE, Color.BLACK),
-        new RectangleImage(size, size, OutlineMode.SOLID, Color.DARK_GRAY));
-
-    if (this.right) {
-      WorldImage wire = new RectangleImage(this.wireSize, 5, OutlineMode.SOLID, color);
-      tempImg = new OverlayOffsetImage(wire, -size / 4, 0, tempImg);
-    }
-    if (this.left) {
-      WorldImage wire = new RectangleImage(this.wireSize, 5, OutlineMode.SOLID, color);
-      tempImg = new OverlayOffsetImage(wire, size / 4, 0, tempImg);
-    }
-    if (this.top) {
-      WorldImage wire = new RectangleImage(5, this.wireSize, OutlineMode.SOLID, color);
-      tempImg = new OverlayOffsetImage(wire, 0, size / 4, tempImg);
-    }
-    if (this.bottom) {
-      WorldImage wire = new RectangleImage(5, this.wireSize, OutlineMode.SOLID, color);
-      tempImg = new OverlayOffsetImage(wire, 0, -size / 4, tempImg);
-    }
-    if (this.powerStation) {
-      StarImage starImg = new StarImage(20, OutlineMode.SOLID, Color.YELLOW);
-      tempImg = new OverlayImage(starImg, tempImg);
-    }
-    return tempImg;
-  }
-
-  // rotates a game piece
-  void rotate() {
-    boolean temp1 = this.top;
-    boolean temp2 = this.right;
-    boolean temp3 = this.bottom;
-    this.top = this.left;
-    this.right = temp1;
-    this.bottom = temp2;
-    this.left = temp3;
-  }
-
-  // determines if a game piece is connected to the left
-  boolean isConnectedLeft(GamePiece gp) {
-    return this.left && gp.right;
-  }
-
-  // determines if a game piece is connected to the right
-  boolean isConnectedRight(GamePiece gp) {
-    return this.right && gp.left;
-  }
-
-  // determines if a game piece is connected to the top
-  boolean isConnectedTop(GamePiece gp) {
-    return this.top && gp.bottom;
-  }
-
-  // determines if a game piece is connected to the bottom
-  boolean isConnectedBottom(GamePiece gp) {
-    return this.bottom && gp.top;
-  }
-}
-
-// class representing an edge for a tree representation
-class Edge {
-  GamePiece fromNode;
-  GamePiece toNode;
-  int weight;
-
-  Edge(GamePiece fromNode, GamePiece toNode, int weight) {
-    this.fromNode = fromNode;
-    this.toNode = toNode;
-    this.weight = weight;
-  }
-
-}
-
 // examples class for testing
 class ExamplesPowerLine {
 
@@ -1130,33 +135,183 @@ class ExamplesPowerLine {
     this.game1.bigBang(600, 600, 1);
   }
 
-  EdgeComp e = new EdgeComp();
-  Edge e1 = new Edge(this.gp1, this.gp2, 34);
-  Edge e2 = new Edge(this.gp3, this.gp4, 34);
-  Edge e3 = new Edge(this.gp1, this.gp4, 36);
-  Edge e4 = new Edge(this.gp2, this.gp3, 30);
-  Edge e5 = new Edge(this.gp3, this.gp4, 34);
-
-  // tests compare in EdgeComp class
-  void testEdgeComp(Tester t) {
-    t.checkExpect(this.e.compare(this.e1, this.e2), 0);
-    t.checkExpect(this.e.compare(this.e3, this.e2), 2);
-    t.checkExpect(this.e.compare(this.e4, this.e3), -6);
+  // test for add and sortByWeight in the EdgeList class
+  void testEdgeList(Tester t) {
+    EdgeList edges = new EdgeList(5);
+    edges.add(1, 2, 34);
+    edges.add(3, 4, 34);
+    edges.add(1, 4, 36);
+    edges.add(2, 3, 30);
+    edges.add(3, 5, 0);
+    t.checkExpect(edges.size(), 5);
+    edges.sortByWeight();
+    t.checkExpect(edges.weight, new int[] { 0, 30, 34, 34, 36 });
+    // edges of equal weight keep the order they were added in
+    t.checkExpect(edges.from, new int[] { 3, 2, 1, 3, 1 });
+    t.checkExpect(edges.to, new int[] { 5, 3, 2, 4, 4 });
+    // weights that need more than one counting pass
+    EdgeList big = new EdgeList(4);
+    big.add(0, 1, 70000);
+    big.add(1, 2, 65536);
+    big.add(2, 3, 3);
+    big.add(3, 4, 70000);
+    big.sortByWeight();
+    t.checkExpect(big.weight, new int[] { 3, 65536, 70000, 70000 });
+    t.checkExpect(big.from, new int[] { 2, 1, 0, 3 });
+    EdgeList empty = new EdgeList(0);
+    empty.sortByWeight();
+    t.checkExpect(empty.size(), 0);
   }
 
   // test drawTiles
   void testDrawTiles(Tester t) {
     this.initData();
-    WorldImage temp = new EmptyImage();
-    for (int i = 0; i < this.game2.board.size(); i++) {
-      WorldImage innerTemp = new EmptyImage();
-      for (int j = 0; j < this.game2.board.get(i).size(); j++) {
-        innerTemp = new AboveImage(innerTemp,
-            this.game2.board.get(i).get(j).draw(this.game2.tileSize));
+    int size = this.game2.tileSize;
+    PuzzleEngine engine = this.game2.engine;
+    int station = engine.board.index(engine.powerCol, engine.powerRow);
+    t.checkExpect(this.game2.drawTiles(),
+        new OverlayOffsetImage(
+            this.game2.tileSprites().sprite(engine.board.tiles[station],
+                engine.board.power(station)),
+            (2 - 1 - 2 * engine.powerCol) * size / 2.0,
+            (2 - 1 - 2 * engine.powerRow) * size / 2.0, this.game2.raster.image));
+    ComputedPixelImage image = this.game2.raster.image;
+    t.checkExpect(image.getWidth(), 2.0 * size);
+    t.checkExpect(image.getHeight(), 2.0 * size);
+    // every tile has a black outline and a dark gray background
+    t.checkExpect(image.getPixel(0, 0), Color.BLACK);
+    t.checkExpect(image.getPixel(2 * size - 1, 2 * size - 1), Color.BLACK);
+    t.checkExpect(image.getPixel(size + 2, size + 2), Color.DARK_GRAY);
+    // a tile's wires are drawn in the color of its power
+    for (int i = 0; i < 4; i++) {
+      Board b = engine.board;
+      int x = b.col(i) * size + size / 2;
+      int y = b.row(i) * size + size / 2;
+      Color color = Color.LIGHT_GRAY;
+      if (b.power(i) > 0) {
+        color = new Color(255 - 80 / b.power(i), 255 - 80 / b.power(i), 0);
+      }
+      if (b.hasWire(i, Board.RIGHT)) {
+        t.checkExpect(image.getPixel(x + size / 4, y), color);
+      } else {
+        t.checkExpect(image.getPixel(x + size / 2 - 2, y), Color.DARK_GRAY);
+      }
+      if (b.hasWire(i, Board.TOP)) {
+        t.checkExpect(image.getPixel(x, y - size / 4), color);
+      } else {
+        t.checkExpect(image.getPixel(x, y - size / 2 + 2), Color.DARK_GRAY);
       }
-      temp = new BesideImage(temp, innerTemp);
     }
-    t.checkExpect(this.game2.drawTiles(), temp);
+  }
+
+  // test that drawTiles only draws the tiles that changed again
+  void testDrawTilesChanged(Tester t) {
+    this.initData();
+    Board b = this.game1.engine.board;
+    this.game1.drawTiles();
+    BoardRaster raster = this.game1.raster;
+    // a tile that is not lit only changes itself when rotated
+    int tile = b.index(0, this.game1.engine.numTilesHeight - 1);
+    b.setPower(tile, 0);
+    this.game1.drawTiles();
+    b.rotate(tile);
+    // marks the pixel in the middle, the next draw only paints over the rotated tile
+    int x = b.col(tile) * this.game1.tileSize + this.game1.tileSize / 2;
+    int y = b.row(tile) * this.game1.tileSize + 2;
+    int other = b.index(1, 0);
+    int otherX = b.col(other) * this.game1.tileSize + 2;
+    int otherY = b.row(other) * this.game1.tileSize + 2;
+    raster.image.setPixel(otherX, otherY, Color.RED);
+    this.game1.drawTiles();
+    t.checkExpect(this.game1.raster == raster, true);
+    t.checkExpect(raster.image.getPixel(otherX, otherY), Color.RED);
+    t.checkExpect(raster.image.getPixel(x, y),
+        b.hasWire(tile, Board.TOP) ? Color.LIGHT_GRAY : Color.DARK_GRAY);
+    // turning the board off may change every tile, but the tiles that look
+    // the same as before are not painted again
+    this.game1.engine.turnGamePieceOff();
+    this.game1.engine.lightCells();
+    this.game1.drawTiles();
+    t.checkExpect(raster.image.getPixel(otherX, otherY), Color.RED);
+    // reset copies the puzzle back into the same board, so it is drawn the same way
+    this.game1.reset();
+    this.game1.drawTiles();
+    t.checkExpect(raster.image.getPixel(otherX, otherY), Color.RED);
+    // a new board is drawn from scratch
+    this.game1.newGame();
+    this.game1.drawTiles();
+    t.checkExpect(raster.board == this.game1.engine.board, true);
+    t.checkExpect(raster.image.getPixel(otherX, otherY), Color.DARK_GRAY);
+  }
+
+  // test for the ChangedTiles class, and that a board only notes its changes while drawn
+  void testChangedTiles(Tester t) {
+    ChangedTiles changes = new ChangedTiles(3);
+    t.checkExpect(changes.all, true);
+    changes.add(1);
+    t.checkExpect(changes.count, 0);
+    changes.clear();
+    t.checkExpect(changes.all, false);
+    changes.add(2);
+    changes.add(0);
+    changes.add(2);
+    t.checkExpect(changes.count, 2);
+    t.checkExpect(changes.tiles[0], 2);
+    t.checkExpect(changes.tiles[1], 0);
+    changes.clear();
+    t.checkExpect(changes.count, 0);
+    t.checkExpect(changes.listed[2], false);
+    // a board that is never drawn keeps no changes
+    Board b = new Board(3, 1);
+    b.connect(0, 1);
+    b.rotate(1);
+    b.setPower(2, 3);
+    b.turnOff();
+    t.checkExpect(b.changes, null);
+    t.checkExpect(b.copy().changes, null);
+    // the raster drawing a board is the only one that keeps its changes
+    this.initData();
+    this.game1.drawTiles();
+    BoardRaster raster = this.game1.raster;
+    Board drawn = this.game1.engine.board;
+    t.checkExpect(drawn.changes == raster.changes, true);
+    this.game1.newGame();
+    this.game1.drawTiles();
+    t.checkExpect(drawn.changes, null);
+    t.checkExpect(this.game1.engine.board.changes == raster.changes, true);
+  }
+
+  // test for the TileSprites class and tileSprites
+  void testTileSprites(Tester t) {
+    this.initData();
+    TileSprites sprites = new TileSprites(50, 25);
+    t.checkExpect(sprites.count(), 0);
+    int tile = Board.LEFT | Board.TOP | Board.STATION;
+    GamePiece gp = new GamePiece(0, 0, true, false, true, false, true, 25);
+    gp.powered = 3;
+    t.checkExpect(sprites.sprite(tile, 3), gp.draw(50));
+    // the same kind of tile is only drawn once
+    t.checkExpect(sprites.sprite(tile, 3) == sprites.sprite(tile, 3), true);
+    t.checkExpect(sprites.count(), 1);
+    // powers with the same color share an image
+    t.checkExpect(sprites.sprite(Board.RIGHT, 90) == sprites.sprite(Board.RIGHT, 100), true);
+    t.checkExpect(sprites.sprite(Board.RIGHT, 2) == sprites.sprite(Board.RIGHT, 3), false);
+    t.checkExpect(sprites.sprite(Board.RIGHT, 0) == sprites.sprite(Board.RIGHT, 1), false);
+    t.checkExpect(sprites.count(), 6);
+    t.checkExpect(TileSprites.level(0), 0);
+    t.checkExpect(TileSprites.level(1), 81);
+    t.checkExpect(TileSprites.level(81), 1);
+    // drawing the board again does not make any new images
+    this.game1.drawTiles();
+    TileSprites cached = this.game1.sprites;
+    int count = cached.count();
+    this.game1.drawTiles();
+    t.checkExpect(this.game1.sprites == cached, true);
+    t.checkExpect(cached.count(), count);
+    // a new tile size needs new images
+    this.game1.tileSize = this.game1.tileSize / 2;
+    t.checkExpect(this.game1.tileSprites() == cached, false);
+    t.checkExpect(this.game1.tileSprites().tileSize, this.game1.tileSize);
   }
 
   // test getTimeText
@@ -1166,11 +321,11 @@ class ExamplesPowerLine {
     t.checkExpect(this.game2.getTimeText(), "Time: 0 seconds");
     this.game1.onTick();
     t.checkExpect(this.game1.getTimeText(), "Time: 1 second");
-    while (this.game1.timer < 60) {
+    while (this.game1.controls.timer < 60) {
       this.game1.onTick();
     }
     t.checkExpect(this.game1.getTimeText(), "Time: 1 minute 0 seconds");
-    while (this.game1.timer < 61) {
+    while (this.game1.controls.timer < 61) {
       this.game1.onTick();
     }
     t.checkExpect(this.game1.getTimeText(), "Time: 1 minute 1 second");
@@ -1184,7 +339,7 @@ class ExamplesPowerLine {
     TextImage winnerText = new TextImage("You Won!", Color.GREEN);
     TextImage newGameText = new TextImage("Press space to Play Again", Color.BLACK);
     TextImage endGame = new TextImage("Press escape to exit", Color.BLACK);
-    TextImage name = new TextImage("Enter Your Name: " + this.game1.name, Color.BLACK);
+    TextImage name = new TextImage("Enter Your Name: " + this.game1.controls.name, Color.BLACK);
     WorldImage newGameButton = new RectangleImage(3 * 600 / 10, 600 / 20, OutlineMode.SOLID,
         Color.GREEN);
     scene.placeImageXY(endGame, 600 / 2, 11 * 600 / 20);
@@ -1217,17 +372,17 @@ class ExamplesPowerLine {
   void testShowSolution(Tester t) {
     this.initData();
     this.game1.onTick();
-    t.checkExpect(this.game1.timer, 1);
-    t.checkExpect(this.game2.lookedAtSolution, false);
+    t.checkExpect(this.game1.controls.timer, 1);
+    t.checkExpect(this.game2.engine.lookedAtSolution, false);
     this.game2.showSolution();
-    t.checkExpect(this.game2.lookedAtSolution, true);
-    t.checkExpect(this.game1.lookedAtSolution, false);
+    t.checkExpect(this.game2.engine.lookedAtSolution, true);
+    t.checkExpect(this.game1.engine.lookedAtSolution, false);
     this.game1.showSolution();
-    t.checkExpect(this.game1.lookedAtSolution, true);
-    t.checkExpect(this.game1.timer, 0);
-    t.checkExpect(this.game2.timer, 0);
-    t.checkExpect(this.game1.moves, 0);
-    t.checkExpect(this.game2.moves, 0);
+    t.checkExpect(this.game1.engine.lookedAtSolution, true);
+    t.checkExpect(this.game1.controls.timer, 0);
+    t.checkExpect(this.game2.controls.timer, 0);
+    t.checkExpect(this.game1.engine.moves, 0);
+    t.checkExpect(this.game2.engine.moves, 0);
 
   }
 
@@ -1237,13 +392,13 @@ class ExamplesPowerLine {
     // doing some stuff to the game
     this.game1.showSolution();
     this.game1.onTick();
-    t.checkExpect(this.game1.lookedAtSolution, true);
-    t.checkExpect(this.game1.timer, 1);
+    t.checkExpect(this.game1.engine.lookedAtSolution, true);
+    t.checkExpect(this.game1.controls.timer, 1);
     // resetting
     this.game1.reset();
-    t.checkExpect(this.game1.timer, 0);
-    t.checkExpect(this.game1.moves, 0);
-    t.checkExpect(this.game1.lookedAtSolution, false);
+    t.checkExpect(this.game1.controls.timer, 0);
+    t.checkExpect(this.game1.engine.moves, 0);
+    t.checkExpect(this.game1.engine.lookedAtSolution, false);
   }
 
   // test newGame
@@ -1253,13 +408,13 @@ class ExamplesPowerLine {
     this.game1.onTick();
     this.game1.onKeyEvent("right");
     this.game1.onKeyEvent("down");
-    t.checkExpect(this.game1.lookedAtSolution, true);
-    t.checkExpect(this.game1.timer, 1);
+    t.checkExpect(this.game1.engine.lookedAtSolution, true);
+    t.checkExpect(this.game1.controls.timer, 1);
     this.game1.newGame();
-    t.checkExpect(this.game1.powerCol, 4);
-    t.checkExpect(this.game1.powerRow, 0);
-    t.checkExpect(this.game1.lookedAtSolution, false);
-    t.checkExpect(this.game1.timer, 0);
+    t.checkExpect(this.game1.engine.powerCol, 4);
+    t.checkExpect(this.game1.engine.powerRow, 0);
+    t.checkExpect(this.game1.engine.lookedAtSolution, false);
+    t.checkExpect(this.game1.controls.timer, 0);
 
   }
 
@@ -1277,13 +432,13 @@ class ExamplesPowerLine {
   void testWriteName(Tester t) {
     this.initData();
     this.game1.writeName("K");
-    t.checkExpect(this.game1.name, "");
+    t.checkExpect(this.game1.controls.name, "");
     this.game1.writeName("k");
-    t.checkExpect(this.game1.name, "k");
+    t.checkExpect(this.game1.controls.name, "k");
     this.game1.writeName("1");
-    t.checkExpect(this.game1.name, "k");
+    t.checkExpect(this.game1.controls.name, "k");
     this.game1.writeName("!");
-    t.checkExpect(this.game1.name, "k");
+    t.checkExpect(this.game1.controls.name, "k");
 
   }
 
@@ -1291,7 +446,7 @@ class ExamplesPowerLine {
   void testWorldEnds(Tester t) {
     this.initData();
     t.checkExpect(this.game1.worldEnds(), new WorldEnd(false, this.game1.makeScene()));
-    this.game1.gameOver = true;
+    this.game1.controls.gameOver = true;
   }
 
   // test makeAFinalScene
@@ -1305,14 +460,25 @@ class ExamplesPowerLine {
     t.checkExpect(this.game2.makeAFinalScene(), scene2);
   }
 
-  // test union
-  void testUnion(Tester t) {
-    this.initData();
-    HashMap<GamePiece, GamePiece> hm = new HashMap<GamePiece, GamePiece>();
-    hm.put(this.gp2, this.gp1);
-    hm.put(this.gp3, this.gp2);
-    this.game1.union(hm, this.gp1, this.gp2);
-    t.checkExpect(hm.size(), 2);
+  // test for find and union in the UnionFind class
+  void testUnionFind(Tester t) {
+    UnionFind uf = new UnionFind(5);
+    t.checkExpect(uf.find(3), 3);
+    t.checkExpect(uf.union(1, 2), true);
+    t.checkExpect(uf.union(3, 2), true);
+    // the smaller group is hung under the larger one
+    t.checkExpect(uf.find(3), uf.find(1));
+    t.checkExpect(uf.size[uf.find(1)], 3);
+    t.checkExpect(uf.union(1, 3), false);
+    t.checkExpect(uf.find(0) == uf.find(1), false);
+    t.checkExpect(uf.union(4, 0), true);
+    t.checkExpect(uf.union(0, 1), true);
+    t.checkExpect(uf.size[uf.find(4)], 5);
+    // finding compresses the path of every tile it walks through
+    for (int i = 0; i < 5; i++) {
+      uf.find(i);
+      t.checkExpect(uf.parent[uf.parent[i]], uf.find(i));
+    }
   }
 
   // test for draw
@@ -1423,13 +589,38 @@ class ExamplesPowerLine {
 
   }
 
-  // test for lightCellsHelp
-  void testLightCellsHelp(Tester t) {
+  // test for lightCells on wires too long to light recursively
+  void testLightCellsLongWire(Tester t) {
     this.initData();
-    this.gp1.lightCellsHelp(1, new ArrayList<GamePiece>());
-    t.checkExpect(this.gp1.powered, 1);
-    this.gp2.lightCellsHelp(10, new ArrayList<GamePiece>());
-    t.checkExpect(this.gp2.powered, 10);
+    // a cycle of neighbors, each gamepiece gets its distance along the shorter way round
+    this.gp1.addNeighbor(this.gp2);
+    this.gp2.addNeighbor(this.gp1);
+    this.gp2.addNeighbor(this.gp3);
+    this.gp3.addNeighbor(this.gp2);
+    this.gp3.addNeighbor(this.gp4);
+    this.gp4.addNeighbor(this.gp3);
+    this.gp4.addNeighbor(this.gp1);
+    this.gp1.addNeighbor(this.gp4);
+    this.gp1.lightCells(3);
+    t.checkExpect(this.gp1.powered, 3);
+    t.checkExpect(this.gp2.powered, 2);
+    t.checkExpect(this.gp3.powered, 1);
+    t.checkExpect(this.gp4.powered, 2);
+    // a chain that would overflow the stack if every step was a call
+    int length = 200000;
+    GamePiece first = new GamePiece(0, 0, false, false, false, true, true, 10);
+    GamePiece curr = first;
+    for (int i = 1; i < length; i++) {
+      GamePiece next = new GamePiece(0, i, false, false, true, true, false, 10);
+      curr.addNeighbor(next);
+      next.addNeighbor(curr);
+      curr = next;
+    }
+    first.lightCells(length);
+    t.checkExpect(first.powered, length);
+    t.checkExpect(curr.powered, 1);
+    first.lightCells(length / 2);
+    t.checkExpect(curr.powered, 1);
   }
 
   // test for removeNeighbors GamePiece class
@@ -1454,307 +645,215 @@ class ExamplesPowerLine {
   // testing onTick
   void testOnTick(Tester t) {
     this.initData();
-    int temp1 = this.game1.timer;
+    int temp1 = this.game1.controls.timer;
     this.game1.onTick();
-    t.checkExpect(this.game1.timer, temp1 + 1);
+    t.checkExpect(this.game1.controls.timer, temp1 + 1);
     this.game1.onTick();
-    t.checkExpect(this.game1.timer, temp1 + 2);
-    int temp2 = this.game2.timer;
+    t.checkExpect(this.game1.controls.timer, temp1 + 2);
+    int temp2 = this.game2.controls.timer;
     this.game2.onTick();
-    t.checkExpect(this.game2.timer, temp2 + 1);
-    int temp3 = this.game3.timer;
+    t.checkExpect(this.game2.controls.timer, temp2 + 1);
+    int temp3 = this.game3.controls.timer;
     this.game3.onTick();
-    t.checkExpect(this.game3.timer, temp3 + 1);
+    t.checkExpect(this.game3.controls.timer, temp3 + 1);
   }
 
   // test for removeNeighbors LightEmAll class
   void testRemoveNeighbors(Tester t) {
     this.initData();
-    this.game1.removeNeighbors();
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors, new ArrayList<GamePiece>());
-    t.checkExpect(this.game1.board.get(0).get(1).neighbors, new ArrayList<GamePiece>());
-    t.checkExpect(this.game1.board.get(1).get(1).neighbors, new ArrayList<GamePiece>());
-    t.checkExpect(this.game1.board.get(6).get(5).neighbors, new ArrayList<GamePiece>());
-    ArrayList<GamePiece> neighbors1 = this.game1.board.get(0).get(0).neighbors;
+    this.game1.engine.removeNeighbors();
+    t.checkExpect(this.game1.engine.board.links[this.game1.engine.board.index(0, 0)], (byte) 0);
+    t.checkExpect(this.game1.engine.board.links[this.game1.engine.board.index(0, 1)], (byte) 0);
+    t.checkExpect(this.game1.engine.board.links[this.game1.engine.board.index(1, 1)], (byte) 0);
+    t.checkExpect(this.game1.engine.board.links[this.game1.engine.board.index(6, 5)], (byte) 0);
     // adding neighbors
-    neighbors1.add(this.gp1);
-    neighbors1.add(this.gp2);
-    neighbors1.add(this.gp4);
-    neighbors1.add(this.gp10);
-    // shows that neighbors are there
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get(0), this.gp1);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get(1), this.gp2);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get(2), this.gp4);
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors.get(3), this.gp10);
+    this.game1.engine.board.links[0] = (byte) (Board.RIGHT | Board.BOTTOM);
+    t.checkExpect(this.game1.engine.board.links[0], (byte) 12);
     // removing neighbors
-    this.game1.removeNeighbors();
-    t.checkExpect(this.game1.board.get(0).get(0).neighbors, new ArrayList<GamePiece>());
+    this.game1.engine.removeNeighbors();
+    t.checkExpect(this.game1.engine.board.links[0], (byte) 0);
 
   }
 
   void testKruskalAlgos(Tester t) {
     LightEmAll testKruskal = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    HashMap<GamePiece, GamePiece> representatives = new HashMap<GamePiece, GamePiece>();
-
-    for (int i = 0; i < testKruskal.board.size(); i++) {
-      for (int j = 0; j < testKruskal.board.get(i).size(); j++) {
-        GamePiece curr = testKruskal.board.get(i).get(j);
-        representatives.put(curr, curr);
-      }
+    EdgeList edgesInTree = new KruskalGenerator().generate(testKruskal.engine.board, 0,
+        testKruskal.engine.random);
+    t.checkExpect(edgesInTree.size(), 99);
+    // the edges make a tree, so no edge joins two tiles that are already connected
+    UnionFind representatives = new UnionFind(testKruskal.engine.board.size());
+    for (int i = 0; i < edgesInTree.size(); i++) {
+      t.checkExpect(representatives.union(edgesInTree.from[i], edgesInTree.to[i]), true);
     }
-
-    ArrayList<Edge> edgesInTree = new ArrayList<Edge>();
-    EdgeComp comp = new EdgeComp();
-    ArrayList<Edge> worklist = testKruskal.generateEdges();
-    worklist.sort(comp);
-
-    while (worklist.size() > 0) {
-      Edge current = worklist.get(0);
-      if (representatives.get(current.fromNode).equals(representatives.get(current.toNode))) {
-        worklist.remove(current);
-      } else {
-        edgesInTree.add(worklist.remove(0));
-        testKruskal.union(representatives, representatives.get(current.fromNode),
-            representatives.get(current.toNode));
-      }
+    // the tree is built from the cheapest edges first
+    for (int i = 1; i < edgesInTree.size(); i++) {
+      t.checkExpect(edgesInTree.weight[i - 1] <= edgesInTree.weight[i], true);
     }
-    testKruskal = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-
-    t.checkExpect(testKruskal.kruskalAlgos().size(), 99);
-
+    // a single tile needs no edges
+    t.checkExpect(new KruskalGenerator().generate(new Board(1, 1), 0, new Random(5)).size(), 0);
+    // the same seed gives the same tree
+    LightEmAll again = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
+    t.checkExpect(again.engine.mst, new LightEmAll(600, 600, 10, 10, 0, new Random(5)).engine.mst);
   }
 
   // testing generateEdges
   void testGenerateEdges(Tester t) {
     this.initData();
-    t.checkExpect(this.game1.generateEdges().size(), 142);
-    t.checkExpect(this.game2.generateEdges().size(), 4);
-    t.checkExpect(this.game3.generateEdges().size(), 0);
-  }
-
-  void testFindGroupOfGamePiece(Tester t) {
-    HashMap<GamePiece, GamePiece> testHash = new HashMap<GamePiece, GamePiece>();
-    testHash.put(this.gp1, this.gp2);
-    GamePiece x = new GamePiece(0, 0, true, true, true, true, true, 30);
-    LightEmAll testFindGroupOfGamePiece = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    ArrayList<GamePiece> gpInGroup = new ArrayList<GamePiece>();
-    for (int i = 0; i < testFindGroupOfGamePiece.board.size(); i++) {
-      for (int j = 0; j < testFindGroupOfGamePiece.board.get(i).size(); j++) {
-        GamePiece curr = testFindGroupOfGamePiece.board.get(i).get(j);
-        if (testHash.get(curr) != null && testHash.get(curr).equals(x)) {
-          gpInGroup.add(curr);
-        }
-      }
-    }
-    testFindGroupOfGamePiece = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    HashMap<GamePiece, GamePiece> reps = new HashMap<GamePiece, GamePiece>();
-    reps.put(this.gp1, this.gp2);
-    t.checkExpect(testFindGroupOfGamePiece
-        .findGroupOfGamePiece(reps, new GamePiece(0, 0, true, true, true, true, true, 30)).size(),
-        0);
-  }
-
-  void testChangeValues(Tester t) {
-    LightEmAll testChangeValues = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    HashMap<GamePiece, GamePiece> testHash = new HashMap<GamePiece, GamePiece>();
-    testHash.put(this.gp1, this.gp2);
-    GamePiece x = new GamePiece(0, 0, true, true, true, true, true, 30);
-    GamePiece y = new GamePiece(0, 0, true, true, true, true, true, 30);
-    ArrayList<GamePiece> xGroup = testChangeValues.findGroupOfGamePiece(testHash, x);
-    for (int i = 0; i < xGroup.size(); i++) {
-      testHash.remove(xGroup.get(i));
-      testHash.put(xGroup.get(i), y);
-    }
-    testChangeValues = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    HashMap<GamePiece, GamePiece> reps = new HashMap<GamePiece, GamePiece>();
-    reps.put(this.gp1, this.gp2);
+    KruskalGenerator kruskal = new KruskalGenerator();
+    t.checkExpect(
+        kruskal.generateEdges(this.game1.engine.board, 0, this.game1.engine.random).size(), 142);
     t.checkExpect(
-        testChangeValues.changeValues(reps, new GamePiece(0, 0, true, true, true, true, true, 30),
-            new GamePiece(0, 0, true, true, true, true, true, 30)).size(),
-        1);
+        kruskal.generateEdges(this.game2.engine.board, 3, this.game2.engine.random).size(), 4);
+    t.checkExpect(
+        kruskal.generateEdges(this.game3.engine.board, -1, this.game3.engine.random).size(), 0);
+    // a positive bias makes the horizontal edges cost more
+    EdgeList biased = kruskal.generateEdges(new Board(2, 1), 3, new Random(5));
+    t.checkExpect(biased.weight[0] % 3, 0);
   }
 
   void testBfs(Tester t) {
     LightEmAll testBfs = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    GamePiece curr = testBfs.board.get(5).get(0);
-    ArrayList<GamePieceDepth> sofar = new ArrayList<GamePieceDepth>();
-    Queue<GamePieceDepth> queue = new LinkedList<GamePieceDepth>();
-    queue.add(new GamePieceDepth(curr, 0));
-    GamePieceDepth removed = null;
-    while (!queue.isEmpty()) {
-      removed = queue.remove();
-      for (GamePiece gamePiece : removed.gp.neighbors) {
-        if (!gamePiece.gamePieceInDepth(sofar)) {
-          sofar.add(removed);
-          queue.add(new GamePieceDepth(gamePiece, removed.depth + 1));
-        }
-      }
+    // rebuilds the solved board so every tile is reachable from the station
+    testBfs.engine.board = testBfs.engine.createBoard();
+    testBfs.engine.createBoardWithMst();
+    testBfs.engine.addNeighbors();
+    int furthest = testBfs.engine.board.bfs(testBfs.engine.board.index(5, 0));
+    int furthestDepth = testBfs.engine.board.distance[furthest];
+    int back = testBfs.engine.board.bfs(furthest);
+    t.checkExpect(testBfs.engine.board.distance[back] >= furthestDepth, true);
+    t.checkExpect(testBfs.engine.board.distance[furthest], 0);
+    t.checkExpect(testBfs.engine.getRadius(), testBfs.engine.board.distance[back] / 2 + 1);
+    // no tile is further away than the last one reached
+    for (int i = 0; i < testBfs.engine.board.size(); i++) {
+      t.checkExpect(testBfs.engine.board.distance[i] <= testBfs.engine.board.distance[back], true);
+    }
+    this.initData();
+    // a single tile is the furthest tile from itself
+    t.checkExpect(this.game3.engine.board.bfs(0), 0);
+    t.checkExpect(this.game3.engine.board.distance[0], 0);
+  }
+
+  // test for diameter in the Board class
+  void testDiameter(Tester t) {
+    // a plus shape with one long arm
+    Board b = new Board(5, 3);
+    b.connect(b.index(0, 1), b.index(1, 1));
+    b.connect(b.index(1, 1), b.index(2, 1));
+    b.connect(b.index(2, 1), b.index(3, 1));
+    b.connect(b.index(3, 1), b.index(4, 1));
+    b.connect(b.index(1, 1), b.index(1, 0));
+    b.connect(b.index(1, 1), b.index(1, 2));
+    b.addNeighbors();
+    TreeDiameter d = b.diameter(b.index(1, 0));
+    t.checkExpect(d.length, 4);
+    t.checkExpect(d.center, b.index(2, 1));
+    t.checkExpect(d.radius(), 3);
+    t.checkExpect(d.to == b.index(4, 1) || d.from == b.index(4, 1), true);
+    // a single tile is its own center
+    Board single = new Board(1, 1);
+    t.checkExpect(single.diameter(0), new TreeDiameter(0, 0, 0, 0));
+    // a station on the center of a generated tree lights every tile
+    for (int seed = 0; seed < 5; seed++) {
+      LightEmAll game = new LightEmAll(600, 600, 11, 8, seed - 2, new Random(seed));
+      game.engine.board = game.engine.createBoard();
+      game.engine.createBoardWithMst();
+      game.engine.addNeighbors();
+      game.engine.board.lightCells(game.engine.center, game.engine.radius + 1);
+      t.checkExpect(game.isWinner(), true);
     }
-    testBfs = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-
-    // t.checkExpect(testBfs.bfs(new Posn(5,0)).depth, removed.depth);
-
-  }
-
-  void getRadius(Tester t) {
-    LightEmAll testGetRadius = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    GamePieceDepth furthestFirst = testGetRadius.bfs(new Posn(0, 5));
-    GamePieceDepth furthestSecond = testGetRadius.bfs(furthestFirst.getCoordinates());
-
-    testGetRadius = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    t.checkExpect(testGetRadius.getRadius(), furthestSecond.depth / 2 + 1);
   }
 
   // test AddNeighbors
   void testAddNeighbors(Tester t) {
     LightEmAll testAddNeighbors = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    testAddNeighbors.removeNeighbors();
-    for (int i = 0; i < testAddNeighbors.board.size(); i++) {
-      for (int j = 0; j < testAddNeighbors.board.get(i).size(); j++) {
-        GamePiece curr = testAddNeighbors.board.get(i).get(j);
-        if (i > 0) {
-          if (curr.isConnectedLeft(testAddNeighbors.board.get(i - 1).get(j))) {
-            curr.addNeighbor(testAddNeighbors.board.get(i - 1).get(j));
-          }
-        }
-        if (j > 0) {
-          if (curr.isConnectedTop(testAddNeighbors.board.get(i).get(j - 1))) {
-            curr.addNeighbor(testAddNeighbors.board.get(i).get(j - 1));
-          }
-        }
-        if (i < testAddNeighbors.board.size() - 1) {
-          if (curr.isConnectedRight(testAddNeighbors.board.get(i + 1).get(j))) {
-            curr.addNeighbor(testAddNeighbors.board.get(i + 1).get(j));
-          }
-        }
-        if (j < testAddNeighbors.board.get(i).size() - 1) {
-          if (curr.isConnectedBottom(testAddNeighbors.board.get(i).get(j + 1))) {
-            curr.addNeighbor(testAddNeighbors.board.get(i).get(j + 1));
-          }
+    testAddNeighbors.engine.removeNeighbors();
+    testAddNeighbors.engine.addNeighbors();
+    Board b = testAddNeighbors.engine.board;
+    t.checkExpect(Integer.bitCount(b.links[0]), 0);
+    t.checkExpect(Integer.bitCount(b.links[10]), 1);
+    t.checkExpect(Integer.bitCount(b.links[1]), 0);
+    // every link is matched by a link back from the neighbor
+    for (int i = 0; i < b.size(); i++) {
+      for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+        if ((b.links[i] & dir) != 0) {
+          int other = b.neighbor(i, dir);
+          t.checkExpect((b.links[other] & Board.opposite(dir)) != 0, true);
         }
       }
     }
-
-    testAddNeighbors = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    t.checkExpect(testAddNeighbors.board.get(0).get(0).neighbors.size(), 0);
-    t.checkExpect(testAddNeighbors.board.get(1).get(0).neighbors.size(), 1);
-    t.checkExpect(testAddNeighbors.board.get(0).get(1).neighbors.size(), 0);
-  }
-
-  // test gamePieceInDepth
-  void testGamePieceInDepth(Tester t) {
-    this.initData();
-    ArrayList<GamePieceDepth> arr1 = new ArrayList<GamePieceDepth>();
-    t.checkExpect(this.gp1.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp2.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp3.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp4.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp5.gamePieceInDepth(arr1), false);
-    arr1.add(new GamePieceDepth(this.gp1, 1));
-    t.checkExpect(this.gp1.gamePieceInDepth(arr1), true);
-    t.checkExpect(this.gp2.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp3.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp4.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp5.gamePieceInDepth(arr1), false);
-    arr1.add(new GamePieceDepth(this.gp2, 6));
-    t.checkExpect(this.gp1.gamePieceInDepth(arr1), true);
-    t.checkExpect(this.gp2.gamePieceInDepth(arr1), true);
-    t.checkExpect(this.gp3.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp4.gamePieceInDepth(arr1), false);
-    t.checkExpect(this.gp5.gamePieceInDepth(arr1), false);
-
-  }
-
-  // test getCoordinates
-  void testGetCoordinates(Tester t) {
-    this.initData();
-    t.checkExpect(new GamePieceDepth(this.gp1, 0).getCoordinates(), new Posn(1, 1));
-    t.checkExpect(new GamePieceDepth(this.gp2, 1).getCoordinates(), new Posn(1, 2));
-    t.checkExpect(new GamePieceDepth(this.gp3, 2).getCoordinates(), new Posn(2, 1));
-    t.checkExpect(new GamePieceDepth(this.gp4, 7).getCoordinates(), new Posn(2, 2));
-    t.checkExpect(new GamePieceDepth(this.gp5, 10).getCoordinates(), new Posn(1, 1));
-    t.checkExpect(new GamePieceDepth(this.gp6, 20).getCoordinates(), new Posn(4, 6));
-    t.checkExpect(new GamePieceDepth(this.gp7, 6).getCoordinates(), new Posn(2, 1));
   }
 
   // test turnGamePieceOff
   void testGamePieceOff(Tester t) {
     this.initData();
-    this.game2.turnGamePieceOff();
-    t.checkExpect(this.game2.board.get(0).get(0).powered, 0);
-    t.checkExpect(this.game2.board.get(1).get(1).powered, 0);
-    t.checkExpect(this.game2.board.get(0).get(1).powered, 0);
+    this.game2.engine.turnGamePieceOff();
+    t.checkExpect(this.game2.engine.board.power(this.game2.engine.board.index(0, 0)), 0);
+    t.checkExpect(this.game2.engine.board.power(this.game2.engine.board.index(1, 1)), 0);
+    t.checkExpect(this.game2.engine.board.power(this.game2.engine.board.index(0, 1)), 0);
   }
 
   // test createBoardWithMst
   void testCreateBoardMst(Tester t) {
     LightEmAll testCreateBoardMst = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    for (int i = 0; i < testCreateBoardMst.mst.size(); i++) {
-      GamePiece curr1 = testCreateBoardMst.mst.get(i).fromNode;
-      GamePiece curr2 = testCreateBoardMst.mst.get(i).toNode;
-
-      if (curr1.row == curr2.row) {
-        if (curr1.col == curr2.col + 1) {
-          testCreateBoardMst.board.get(curr1.row).get(curr1.col).top = true;
-          testCreateBoardMst.board.get(curr2.row).get(curr2.col).bottom = true;
-        } else {
-          testCreateBoardMst.board.get(curr1.row).get(curr1.col).bottom = true;
-          testCreateBoardMst.board.get(curr2.row).get(curr2.col).top = true;
-        }
-      }
-      if (curr1.col == curr2.col) {
-        if (curr1.row == curr2.row + 1) {
-          testCreateBoardMst.board.get(curr1.row).get(curr1.col).left = true;
-          testCreateBoardMst.board.get(curr2.row).get(curr2.col).right = true;
-        } else {
-          testCreateBoardMst.board.get(curr1.row).get(curr1.col).right = true;
-          testCreateBoardMst.board.get(curr1.row).get(curr2.col).left = true;
-        }
-      }
+    testCreateBoardMst.engine.board = testCreateBoardMst.engine.createBoard();
+    testCreateBoardMst.engine.createBoardWithMst();
+    int wires = 0;
+    for (int i = 0; i < testCreateBoardMst.engine.board.size(); i++) {
+      wires = wires + Integer.bitCount(testCreateBoardMst.engine.board.wires(i));
     }
-    t.checkExpect(testCreateBoardMst.mst.size(), 99);
+    // every edge of the tree adds a wire to both of its tiles
+    t.checkExpect(wires, 2 * 99);
+    t.checkExpect(testCreateBoardMst.engine.mst.size(), 99);
+    EdgeList mst = testCreateBoardMst.engine.mst;
+    t.checkExpect(testCreateBoardMst.engine.board.wires(mst.from[0]) != 0, true);
+    t.checkExpect(testCreateBoardMst.engine.board.wires(mst.to[0]) != 0, true);
   }
 
   // test createBoard
   void testCreateBoard(Tester t) {
     LightEmAll testCreateBoard = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
 
-    t.checkExpect(testCreateBoard.createBoard().size(), 10);
-    t.checkExpect(testCreateBoard.createBoard().get(0).size(), 10);
+    t.checkExpect(testCreateBoard.engine.createBoard().cols, 10);
+    t.checkExpect(testCreateBoard.engine.createBoard().rows, 10);
+    t.checkExpect(testCreateBoard.engine.createBoard().findStation(),
+        testCreateBoard.engine.createBoard().index(5, 0));
   }
 
   // test saveCurrState
   void testSaveCurrState(Tester t) {
     LightEmAll testSaveCurrState = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    testSaveCurrState.saveCurrState();
-    t.checkExpect(testSaveCurrState.currState.get(0).size(), 10);
-    t.checkExpect(testSaveCurrState.currState.size(), 20);
+    testSaveCurrState.engine.board.rotate(0);
+    testSaveCurrState.engine.saveCurrState();
+    t.checkExpect(testSaveCurrState.engine.currState.length, 100);
+    t.checkExpect(testSaveCurrState.engine.currState, testSaveCurrState.engine.board.tiles);
+    byte saved = testSaveCurrState.engine.currState[0];
+    testSaveCurrState.engine.board.rotate(0);
+    // the saved state is a copy, so it does not see later rotations
+    t.checkExpect(testSaveCurrState.engine.currState[0], saved);
   }
 
   void testRotations(Tester t) {
     LightEmAll testRotations = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
     int moves = 0;
-    for (int i = 0; i < testRotations.board.size(); i++) {
-      for (int j = 0; j < testRotations.board.get(i).size(); j++) {
-        int rotations = testRotations.random.nextInt(4);
-        moves = moves + 4 - rotations;
-        while (rotations > 0) {
-          testRotations.board.get(i).get(j).rotate();
-          rotations--;
-        }
-
+    for (int i = 0; i < testRotations.engine.board.size(); i++) {
+      int rotations = testRotations.engine.random.nextInt(4);
+      moves = moves + 4 - rotations;
+      while (rotations > 0) {
+        testRotations.engine.board.rotate(i);
+        rotations--;
       }
-
     }
-    testRotations.removeNeighbors();
-    testRotations.addNeighbors();
-    testRotations.turnGamePieceOff();
-    testRotations.board.get(testRotations.powerCol).get(testRotations.powerRow)
-        .lightCells(testRotations.radius + 1);
-    int ans = moves + testRotations.radius;
+    testRotations.engine.removeNeighbors();
+    testRotations.engine.addNeighbors();
+    testRotations.engine.turnGamePieceOff();
+    testRotations.engine.lightCells();
+    int ans = new PuzzleAnalysis(testRotations.engine.board, testRotations.engine.mst,
+        testRotations.engine.board.findStation(), testRotations.engine.radius).minMoves;
+    // never more than turning every tile back the long way and walking the radius
+    t.checkExpect(ans <= moves + testRotations.engine.radius, true);
 
     testRotations = new LightEmAll(600, 600, 10, 10, 0, new Random(5));
-    t.checkExpect(testRotations.rotations(), ans);
+    t.checkExpect(testRotations.engine.rotations(), ans);
   }
 
   // test for makeScene
@@ -1765,14 +864,15 @@ class ExamplesPowerLine {
     scene.placeImageXY(testMakeScene.drawTiles(), testMakeScene.width / 2,
         testMakeScene.height / 2);
     TextImage timeCount = new TextImage(testMakeScene.getTimeText(), Color.BLACK);
-    TextImage movesCount = new TextImage("Number of Moves: " + testMakeScene.moves, Color.BLACK);
-    TextImage movesNeeded = new TextImage("Number of Moves Needed: " + testMakeScene.numMovesNeeded,
+    TextImage movesCount = new TextImage("Number of Moves: " + testMakeScene.engine.moves,
         Color.BLACK);
+    TextImage movesNeeded = new TextImage(
+        "Number of Moves Needed: " + testMakeScene.engine.numMovesNeeded, Color.BLACK);
     TextImage resetText = new TextImage("Press shift to Reset", Color.BLACK);
     WorldImage resetButton = new RectangleImage(testMakeScene.width / 4, testMakeScene.height / 20,
         OutlineMode.OUTLINE, Color.BLUE);
-    int userMovesRemaining = 3 * testMakeScene.numMovesNeeded / 2 + testMakeScene.radius
-        - testMakeScene.moves;
+    int userMovesRemaining = 3 * testMakeScene.engine.numMovesNeeded / 2
+        + testMakeScene.engine.radius - testMakeScene.engine.moves;
     TextImage userMovesNeeded = new TextImage("Number of Moves Left: " + userMovesRemaining,
         Color.BLACK);
     TextImage showSolution = new TextImage("Show Solution", Color.BLACK);
@@ -1794,7 +894,7 @@ class ExamplesPowerLine {
         (int) (.025 * testMakeScene.height));
     scene.placeImageXY(solutionButton, (int) (4 * testMakeScene.width / 5),
         (int) (.025 * testMakeScene.height));
-    if (3 * testMakeScene.numMovesNeeded / 2 + testMakeScene.radius - testMakeScene.moves < 0) {
+    if (userMovesRemaining < 0) {
       scene = testMakeScene.loser();
     }
     if (testMakeScene.isWinner()) {
@@ -1806,42 +906,1111 @@ class ExamplesPowerLine {
   // testOnMouseClicked
   void testOnMouseClicked(Tester t) {
     this.initData();
-    t.checkExpect(this.game2.board.get(0).get(0).powerStation, false);
-    t.checkExpect(this.game2.board.get(0).get(0).top, false);
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game2.board.get(0).get(0).left, true);
-    t.checkExpect(this.game2.board.get(0).get(0).right, false);
+    Board b = this.game2.engine.board;
+    t.checkExpect(b.hasStation(b.index(0, 0)), false);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.TOP), false);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.BOTTOM), true);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.LEFT), true);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.RIGHT), false);
     this.game2.onMouseClicked(new Posn(1, 1), "RightButton");
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, true);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.BOTTOM), true);
     this.game2.onMouseClicked(new Posn(1, 1), "LeftButton");
-    t.checkExpect(this.game2.board.get(0).get(0).top, false);
-    t.checkExpect(this.game2.board.get(0).get(0).bottom, true);
-    t.checkExpect(this.game2.board.get(0).get(0).left, true);
-    t.checkExpect(this.game2.board.get(0).get(0).right, false);
-
-    t.checkExpect(this.game2.board.get(1).get(1).powerStation, false);
-    t.checkExpect(this.game2.board.get(1).get(1).top, false);
-    t.checkExpect(this.game2.board.get(1).get(1).bottom, false);
-    t.checkExpect(this.game2.board.get(1).get(1).left, true);
-    t.checkExpect(this.game2.board.get(1).get(1).right, false);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.TOP), false);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.BOTTOM), true);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.LEFT), true);
+    t.checkExpect(b.hasWire(b.index(0, 0), Board.RIGHT), false);
+
+    t.checkExpect(b.hasStation(b.index(1, 1)), false);
+    t.checkExpect(b.hasWire(b.index(1, 1), Board.TOP), false);
+    t.checkExpect(b.hasWire(b.index(1, 1), Board.BOTTOM), false);
+    t.checkExpect(b.hasWire(b.index(1, 1), Board.LEFT), true);
+    t.checkExpect(b.hasWire(b.index(1, 1), Board.RIGHT), false);
     this.game2.onMouseClicked(new Posn(2, 2), "LeftButton");
-    t.checkExpect(this.game2.board.get(1).get(1).right, false);
-
+    t.checkExpect(b.hasWire(b.index(1, 1), Board.RIGHT), false);
+
+    // in a window wider than it is tall, the board of 270 pixel tiles starts at 45,30
+    LightEmAll wide = new LightEmAll(900, 600, 3, 2, 0, new Random(1));
+    b = wide.engine.board;
+    t.checkExpect(wide.tileSize, 270);
+    t.checkExpect(wide.isWinner(), false);
+    int wires = b.wires(b.index(1, 1));
+    wide.onMouseClicked(new Posn(320, 305), "LeftButton");
+    t.checkExpect(b.wires(b.index(1, 1)), Board.rotateMask(wires));
+    t.checkExpect(wide.engine.moves, 1);
+    // the far edges are just off the board
+    wide.onMouseClicked(new Posn(855, 100), "LeftButton");
+    wide.onMouseClicked(new Posn(100, 570), "LeftButton");
+    t.checkExpect(wide.engine.moves, 1);
+    wide.onMouseClicked(new Posn(854, 569), "LeftButton");
+    t.checkExpect(wide.engine.moves, 2);
+    t.checkException(new IndexOutOfBoundsException("No tile 3,0 on a 3x2 board"), wide.engine,
+        "rotate", 3, 0);
+    t.checkException(new IndexOutOfBoundsException("No tile 0,-1 on a 3x2 board"), wide.engine,
+        "rotate", 0, -1);
   }
 
   // test for onKeyEvent
   void testOnKeyEvent(Tester t) {
     this.initData();
+    Board b = this.game1.engine.board;
     this.game1.onKeyEvent("a");
-    t.checkExpect(this.game1.board.get(5).get(0).powerStation, false);
+    t.checkExpect(b.hasStation(b.index(5, 0)), false);
     this.game1.onKeyEvent("up");
-    t.checkExpect(this.game1.board.get(5).get(0).powerStation, false);
+    t.checkExpect(b.hasStation(b.index(5, 0)), false);
     this.game1.onKeyEvent("down");
-    t.checkExpect(this.game1.board.get(5).get(0).powerStation, false);
-    t.checkExpect(this.game1.board.get(5).get(1).powerStation, false);
+    t.checkExpect(b.hasStation(b.index(5, 0)), false);
+    t.checkExpect(b.hasStation(b.index(5, 1)), false);
     this.initData();
+    b = this.game1.engine.board;
     this.game1.onKeyEvent("left");
-    t.checkExpect(this.game1.board.get(0).get(0).powerStation, false);
+    t.checkExpect(b.hasStation(b.index(0, 0)), false);
+  }
+
+  // test for the PuzzleEngine class, played without a window
+  void testPuzzleEngine(Tester t) {
+    PuzzleEngine engine = new PuzzleEngine(9, 7, 1, new Random(3), new KruskalGenerator());
+    // the same puzzle as a game made with the same seed
+    LightEmAll game = new LightEmAll(600, 600, 9, 7, 1, new Random(3));
+    t.checkExpect(engine.board.tiles, game.engine.board.tiles);
+    t.checkExpect(engine.numMovesNeeded, game.engine.numMovesNeeded);
+    t.checkExpect(engine.powerCol, 4);
+    t.checkExpect(engine.powerRow, 0);
+    t.checkExpect(engine.moves, 0);
+    t.checkExpect(engine.movesLeft(), 3 * engine.numMovesNeeded / 2 + engine.radius);
+    // rotating a tile four times gives back the same board and counts four moves
+    byte[] before = engine.board.tiles.clone();
+    for (int i = 0; i < 4; i++) {
+      engine.rotate(2, 3);
+    }
+    t.checkExpect(engine.board.tiles, before);
+    t.checkExpect(engine.moves, 4);
+    // the station only moves along a wire, but every try is a move
+    int station = engine.board.index(engine.powerCol, engine.powerRow);
+    t.checkExpect(engine.moveStation(Board.TOP), false);
+    t.checkExpect(engine.moveStation(0), false);
+    t.checkExpect(engine.moves, 6);
+    t.checkExpect(engine.moveStation(Board.BOTTOM), engine.board.isConnectedBottom(station));
+    t.checkExpect(engine.board.findStation(), engine.board.index(engine.powerCol, engine.powerRow));
+    // the solution wins once the station is in the center of the tree
+    engine.showSolution();
+    t.checkExpect(engine.moves, 0);
+    t.checkExpect(engine.lookedAtSolution, true);
+    engine.board.setStation(engine.board.index(engine.powerCol, engine.powerRow), false);
+    engine.powerCol = engine.board.col(engine.center);
+    engine.powerRow = engine.board.row(engine.center);
+    engine.board.setStation(engine.center, true);
+    engine.turnGamePieceOff();
+    engine.lightCells();
+    t.checkExpect(engine.isWinner(), true);
+    // reset goes back to the scrambled puzzle
+    engine.reset();
+    t.checkExpect(engine.board.tiles, before);
+    t.checkExpect(engine.lookedAtSolution, false);
+    t.checkExpect(engine.powerCol, 4);
+    // a new game is a different puzzle of the same size
+    engine.newGame();
+    t.checkExpect(engine.board.size(), 63);
+    t.checkExpect(engine.currState, engine.board.tiles);
+  }
+
+  // test for the PuzzleSession class, which answers the commands of the puzzle server
+  void testPuzzleSession(Tester t) {
+    PuzzleSession session = new PuzzleSession(new Random(4));
+    t.checkExpect(session.engine.board.size(), 64);
+    PuzzleEngine engine = session.engine;
+    t.checkExpect(session.handle("state").startsWith(session.status() + " size=8x8 station=4,0"),
+        true);
+    t.checkExpect(session.handle("state").length(),
+        (session.status() + " size=8x8 station=4,0 tiles=").length() + 64);
+    t.checkExpect(session.handle("rotate 1 2"), session.status());
+    t.checkExpect(engine.moves, 1);
+    t.checkExpect(session.handle("  ROTATE   1 2 "), session.status());
+    t.checkExpect(session.handle("move left").startsWith("ok moves=3 "), true);
+    t.checkExpect(session.handle("reset").startsWith("ok moves=0 "), true);
+    t.checkExpect(session.handle("rotate 8 0"), "error no tile at 8 0");
+    t.checkExpect(session.handle("rotate 1"), "error usage: rotate x y");
+    t.checkExpect(session.handle("rotate a b"), "error not a number: rotate a b");
+    t.checkExpect(session.handle("move sideways"), "error no direction sideways");
+    t.checkExpect(session.handle("jump"), "error unknown command: jump");
+    t.checkExpect(session.handle("new 1000 1000"),
+        "error a puzzle has from 1 to " + PuzzleSession.MAX_TILES + " tiles");
+    t.checkExpect(session.handle("new 3 2 4"), "error the bias is from -3 to 3");
+    t.checkExpect(session.handle("new 3 2 -2147483648"), "error the bias is from -3 to 3");
+    t.checkExpect(session.engine, engine);
+    t.checkExpect(session.handle("new 3 2 1").startsWith("ok moves=0 "), true);
+    t.checkExpect(session.engine.board.size(), 6);
+    t.checkExpect(session.handle("new").endsWith("/6 won=" + session.engine.isWinner()), true);
+    t.checkExpect(PuzzleSession.direction("up"), Board.TOP);
+    t.checkExpect(PuzzleSession.direction("down"), Board.BOTTOM);
+    // scores go on the leaderboard of the puzzle's size once it is won
+    t.checkExpect(session.handle("submit kev").startsWith("error"), !session.engine.isWinner());
+    t.checkExpect(session.handle("new 1 1").endsWith("won=true"), true);
+    t.checkExpect(session.handle("rank kev"), "error no score for kev");
+    t.checkExpect(session.handle("submit a,b").startsWith("error usage"), true);
+    t.checkExpect(session.handle("submit kev"), "ok rank=1 of 1");
+    t.checkExpect(session.handle("submit kev"), "error the score was already submitted");
+    t.checkExpect(session.handle("rank kev"), "ok rank=1 of 1 moves=0");
+    t.checkExpect(session.handle("top 3"), "ok top kev:0");
+    t.checkExpect(session.handle("top 0").startsWith("error"), true);
+    t.checkExpect(session.handle("quit"), null);
+  }
+
+  // test for the PuzzleServer class, playing two sessions over a local socket
+  void testPuzzleServer(Tester t) {
+    try {
+      PuzzleServer host = new PuzzleServer(0);
+      Thread serving = new Thread(() -> host.serve());
+      serving.start();
+      for (int i = 0; i < 2; i++) {
+        try (java.net.Socket socket = new java.net.Socket(host.server.getInetAddress(),
+            host.server.getLocalPort())) {
+          java.io.PrintWriter out = new java.io.PrintWriter(socket.getOutputStream(), true);
+          java.io.BufferedReader in = new java.io.BufferedReader(
+              new java.io.InputStreamReader(socket.getInputStream()));
+          out.println("new 4 3");
+          t.checkExpect(in.readLine().startsWith("ok moves=0 "), true);
+          out.println("rotate 0 0");
+          t.checkExpect(in.readLine().startsWith("ok moves=1 "), true);
+          out.println("state");
+          t.checkExpect(in.readLine().contains(" size=4x3 station=2,0 tiles="), true);
+          out.println("quit");
+          t.checkExpect(in.readLine(), null);
+        }
+      }
+      host.close();
+      serving.join();
+      host.executor.awaitTermination(10, java.util.concurrent.TimeUnit.SECONDS);
+      t.checkExpect(host.sessionsStarted.get(), 2L);
+      t.checkExpect(host.commands.get(), 6L);
+      t.checkExpect(host.latency.count(), 6L);
+      t.checkExpect(host.sessionsOpen.get(), 0L);
+    } catch (Exception e) {
+      t.checkExpect(e, null);
+    }
+    // lines longer than the buffer end the session
+    java.io.InputStream in = new java.io.ByteArrayInputStream("rotate 1 2\r\nstate".getBytes());
+    byte[] line = new byte[8];
+    try {
+      t.checkExpect(PuzzleServer.readLine(in, line), -1);
+      in = new java.io.ByteArrayInputStream("move up\r\nstate".getBytes());
+      t.checkExpect(PuzzleServer.readLine(in, line), 7);
+      t.checkExpect(PuzzleServer.readLine(in, line), 5);
+      t.checkExpect(PuzzleServer.readLine(in, line), -1);
+    } catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // test for the LatencyHistogram class
+  void testLatencyHistogram(Tester t) {
+    LatencyHistogram h = new LatencyHistogram();
+    t.checkExpect(h.percentile(0.5), 0L);
+    t.checkExpect(h.mean(), 0.0);
+    for (int i = 1; i <= 100; i++) {
+      h.record(i * 1000);
+    }
+    t.checkExpect(h.count(), 100L);
+    t.checkExpect(h.max(), 100000L);
+    t.checkExpect(h.mean(), 50500.0);
+    // every percentile is within an eighth of the real time
+    t.checkNumRange(h.percentile(0.5), 50000L, 50000L * 9 / 8 + 1);
+    t.checkNumRange(h.percentile(0.99), 99000L, 99000L * 9 / 8 + 1);
+    t.checkExpect(h.percentile(1.0), 100000L);
+    // the buckets cover every time, in order, with no gaps
+    int last = LatencyHistogram.bucket(Long.MAX_VALUE);
+    t.checkExpect(last < LatencyHistogram.BUCKETS, true);
+    t.checkExpect(LatencyHistogram.bucketTop(last), Long.MAX_VALUE);
+    for (int b = 1; b <= last; b++) {
+      t.checkExpect(LatencyHistogram.bucket(LatencyHistogram.bucketTop(b - 1) + 1), b);
+      t.checkExpect(LatencyHistogram.bucket(LatencyHistogram.bucketTop(b)), b);
+    }
+    LatencyHistogram copy = h.snapshot();
+    h.clear();
+    t.checkExpect(h.count(), 0L);
+    t.checkExpect(copy.count(), 100L);
+    t.checkExpect(copy.max(), 100000L);
+    h.record(7);
+    LatencyHistogram window = h.snapshotAndReset();
+    t.checkExpect(window.count(), 1L);
+    t.checkExpect(window.max(), 7L);
+    t.checkExpect(window.mean(), 7.0);
+    t.checkExpect(h.count(), 0L);
+    t.checkExpect(h.max(), 0L);
+    // a time recorded while the windows are taken is in exactly one of them
+    Thread recorder = new Thread(() -> {
+      for (int i = 0; i < 100000; i++) {
+        h.record(i);
+      }
+    });
+    recorder.start();
+    long seen = 0;
+    while (recorder.isAlive()) {
+      seen = seen + h.snapshotAndReset().count();
+    }
+    try {
+      recorder.join();
+    } catch (InterruptedException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(seen + h.snapshotAndReset().count(), 100000L);
+  }
+
+  // test for the PuzzlePool class, and new games taken from it
+  void testPuzzlePool(Tester t) {
+    this.initData();
+    PuzzlePool pool = new PuzzlePool(3, 2, 7);
+    TreeGenerator kruskal = new KruskalGenerator();
+    t.checkExpect(pool.readyCount(6, 5, 1, kruskal), 0);
+    // nothing is ready yet, so the engine makes its own first puzzle
+    PuzzleEngine engine = new PuzzleEngine(6, 5, 1, new Random(2), kruskal, pool);
+    t.checkExpect(engine.currState,
+        new PuzzleEngine(6, 5, 1, new Random(2), new KruskalGenerator()).currState);
+    // waits for the background threads to fill the pool
+    long deadline = System.currentTimeMillis() + 10000;
+    while (pool.readyCount(6, 5, 1, kruskal) < 3 && System.currentTimeMillis() < deadline) {
+      Thread.yield();
+    }
+    t.checkExpect(pool.readyCount(6, 5, 1, kruskal), 3);
+    t.checkExpect(pool.making.get(PuzzlePool.key(6, 5, 1, kruskal)).get(), 0);
+    // a new game takes a ready puzzle, which is a complete puzzle of the right size
+    PuzzleEngine next = pool.queue(6, 5, 1, kruskal).peek();
+    engine.moves = 5;
+    engine.newGame();
+    t.checkExpect(engine.board == next.board, true);
+    t.checkExpect(engine.currState == next.currState, true);
+    t.checkExpect(engine.moves, 0);
+    t.checkExpect(engine.board.size(), 30);
+    t.checkExpect(engine.radius, next.radius);
+    t.checkExpect(engine.board.findStation(), engine.board.index(3, 0));
+    t.checkExpect(engine.board.lit > 0, true);
+    // the puzzles of another generator are kept apart, and made with that generator
+    PuzzleEngine wilson = new PuzzleEngine(6, 5, 1, new Random(2), new WilsonGenerator(),
+        pool);
+    t.checkExpect(wilson.currState,
+        new PuzzleEngine(6, 5, 1, new Random(2), new WilsonGenerator()).currState);
+    t.checkExpect(PuzzlePool.key(6, 5, 1, new WilsonGenerator())
+        .equals(PuzzlePool.key(6, 5, 1, kruskal)), false);
+    deadline = System.currentTimeMillis() + 10000;
+    while (pool.readyCount(6, 5, 1, new WilsonGenerator()) < 3
+        && System.currentTimeMillis() < deadline) {
+      Thread.yield();
+    }
+    next = pool.queue(6, 5, 1, new WilsonGenerator()).peek();
+    t.checkExpect(next.generator instanceof WilsonGenerator, true);
+    wilson.newGame();
+    t.checkExpect(wilson.board == next.board, true);
+    // the first puzzle of a game that does not repeat its puzzles comes from the pool
+    PuzzlePool.shared().prepare(7, 3, 2, kruskal);
+    deadline = System.currentTimeMillis() + 10000;
+    while (PuzzlePool.shared().readyCount(7, 3, 2, kruskal) < PuzzlePool.shared().capacity
+        && System.currentTimeMillis() < deadline) {
+      Thread.yield();
+    }
+    next = PuzzlePool.shared().queue(7, 3, 2, kruskal).peek();
+    t.checkExpect(new LightEmAll(600, 600, 7, 3, 2).engine.board == next.board, true);
+    // the seeded games of LightEmAll do not use a pool, the others share one
+    t.checkExpect(this.game2.engine.pool, null);
+    t.checkExpect(this.game1.engine.pool == PuzzlePool.shared(), true);
+    // a pool never keeps more than its capacity
+    pool.prepare(6, 5, 1, kruskal);
+    pool.prepare(6, 5, 1, kruskal);
+    t.checkExpect(pool.readyCount(6, 5, 1, kruskal)
+        + pool.making.get(PuzzlePool.key(6, 5, 1, kruskal)).get() <= 3, true);
+  }
+
+  // test for the BatchGenerator class
+  void testBatchGenerator(Tester t) {
+    java.io.StringWriter one = new java.io.StringWriter();
+    java.io.StringWriter four = new java.io.StringWriter();
+    BatchGenerator batch = new BatchGenerator(5, 4, -1, new TextPuzzleSink(one));
+    try {
+      batch.generate(40, 11, 1);
+      new BatchGenerator(5, 4, -1, new TextPuzzleSink(four)).generate(40, 11, 4);
+    } catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(batch.written.get(), 40L);
+    String[] lines = one.toString().split("\n");
+    String[] others = four.toString().split("\n");
+    t.checkExpect(lines.length, 40);
+    // the same puzzles, whichever thread made them
+    Arrays.sort(lines);
+    Arrays.sort(others);
+    t.checkExpect(lines, others);
+    // every puzzle can be made again from its seed
+    for (String line : lines) {
+      String[] words = line.split(" ");
+      PuzzleEngine engine = new PuzzleEngine(5, 4, -1, new Random(Long.parseLong(words[4])),
+          new KruskalGenerator());
+      t.checkExpect(words[1] + " " + words[2] + " " + words[3], "5 4 -1");
+      t.checkExpect(Integer.parseInt(words[5]), engine.radius);
+      t.checkExpect(Integer.parseInt(words[6]), engine.numMovesNeeded);
+      t.checkExpect(words[7] + " " + words[8], "2 0");
+      t.checkExpect(words[9], Board.tilesText(engine.currState));
+    }
+    // the same puzzles can be analyzed instead of written
+    AnalysisSink analyses = new AnalysisSink(40);
+    try {
+      new BatchGenerator(5, 4, -1, analyses).generate(40, 11, 2);
+    } catch (java.io.IOException e) {
+      t.checkExpect(e, null);
+    }
+    for (String line : lines) {
+      String[] words = line.split(" ");
+      t.checkExpect(analyses.analyses[Integer.parseInt(words[0])].minMoves,
+          Integer.parseInt(words[6]));
+    }
+  }
+
+  // test for tilesText in the Board class
+  void testBoardTilesText(Tester t) {
+    Board b = new Board(2, 2);
+    b.connect(0, 2);
+    b.connect(0, 1);
+    b.setStation(3, true);
+    t.checkExpect(b.tilesText(), "c21g");
+  }
+
+  // test for PuzzleLibrary and PuzzleLibraryWriter
+  void testPuzzleLibrary(Tester t) {
+    t.checkExpect(PuzzleLibrary.puzzleBytes(1), 34);
+    t.checkExpect(PuzzleLibrary.puzzleBytes(20), 47);
+    PuzzleEngine[] engines = new PuzzleEngine[4];
+    for (int i = 0; i < engines.length; i++) {
+      engines[i] = new PuzzleEngine(3 + i, 5 - i, i - 2, new Random(30 + i),
+          new KruskalGenerator());
+    }
+    engines[1].rotate(0, 0);
+    PuzzleLibrary library = null;
+    java.nio.file.Path path = null;
+    try {
+      path = java.nio.file.Files.createTempFile("puzzles", ".puz");
+      try (PuzzleLibraryWriter writer = new PuzzleLibraryWriter(path, engines.length)) {
+        // written out of order, as the threads of a batch would
+        for (int i = engines.length - 1; i >= 0; i--) {
+          writer.put(i, engines[i]);
+        }
+      }
+      library = new PuzzleLibrary(path);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(library.size(), 4);
+    t.checkExpect(library.maxPuzzleBytes, PuzzleLibrary.puzzleBytes(16));
+    for (int i = 0; i < engines.length; i++) {
+      PuzzleEngine loaded = library.load(i);
+      // every puzzle comes back as it was made, whatever was done to it since
+      t.checkExpect(loaded.board.tilesText(), Board.tilesText(engines[i].currState));
+      t.checkExpect(Board.tilesText(loaded.currState), Board.tilesText(engines[i].currState));
+      t.checkExpect(loaded.numTilesWidth, 3 + i);
+      t.checkExpect(loaded.numTilesHeight, 5 - i);
+      t.checkExpect(loaded.bias, i - 2);
+      t.checkExpect(loaded.radius, engines[i].radius);
+      t.checkExpect(loaded.center, engines[i].center);
+      t.checkExpect(loaded.numMovesNeeded, engines[i].numMovesNeeded);
+      t.checkExpect(loaded.powerCol,
+          engines[i].board.col(Board.findStation(engines[i].currState)));
+      t.checkExpect(loaded.moves, 0);
+      t.checkExpect(this.isSpanningTree(loaded.board, loaded.mst), true);
+      engines[i].reset();
+      t.checkExpect(loaded.board.powers(), engines[i].board.powers());
+    }
+    // an engine can be loaded with one puzzle after another
+    PuzzleEngine engine = library.load(0);
+    library.load(2, engine);
+    t.checkExpect(engine.board.tilesText(), Board.tilesText(engines[2].currState));
+    t.checkException(new IndexOutOfBoundsException("No puzzle 4 of 4"), library, "load", 4);
+    t.checkException(new IndexOutOfBoundsException("No puzzle -1 of 4"), library, "offset", -1);
+    try {
+      // a library that not every puzzle was written to is not finished
+      PuzzleLibraryWriter writer = new PuzzleLibraryWriter(path, 3);
+      writer.put(0, engines[0]);
+      writer.put(2, engines[2]);
+      writer.put(2, engines[2]);
+      try {
+        writer.close();
+        t.checkExpect("closed", "not finished");
+      } catch (IOException e) {
+        t.checkExpect(e.getMessage(),
+            "Only 2 of 3 puzzles were written, the library is not finished: " + path);
+      }
+      try {
+        new PuzzleLibrary(path);
+        t.checkExpect("opened", "not a puzzle library");
+      } catch (IOException e) {
+        t.checkExpect(e.getMessage(), "Not a puzzle library: " + path);
+      }
+      // a puzzle whose offset is in the index, or past the end of the file, is not read
+      java.nio.ByteBuffer bytes = java.nio.ByteBuffer.allocate(24 + PuzzleLibrary.puzzleBytes(1));
+      bytes.putInt(PuzzleLibrary.MAGIC).putInt(PuzzleLibrary.VERSION).putInt(1).putInt(34);
+      java.nio.file.Files.write(path, bytes.putLong(16, 0).array());
+      library = new PuzzleLibrary(path);
+      try {
+        library.offset(0);
+        t.checkExpect("read", "not in the library");
+      } catch (java.io.UncheckedIOException e) {
+        t.checkExpect(e.getCause().getMessage(), "Puzzle 0 is not in the library, its offset is 0");
+      }
+      java.nio.file.Files.write(path, bytes.putLong(16, 40).array());
+      library = new PuzzleLibrary(path);
+      try {
+        library.offset(0);
+        t.checkExpect("read", "not in the library");
+      } catch (java.io.UncheckedIOException e) {
+        t.checkExpect(e.getCause().getMessage(),
+            "Puzzle 0 is not in the library, its offset is 40");
+      }
+      java.nio.file.Files.write(path, bytes.putLong(16, 24).array());
+      t.checkExpect(new PuzzleLibrary(path).offset(0), 24L);
+      // a puzzle with no tiles, more tiles than the largest puzzle, or its station off
+      // the board is not loaded
+      int[][] headers = {{0, 0, 0}, {1, -1, 0}, {3, 1, 0}, {1, 1, 1}, {1, 1, -1}};
+      String[] problems = {"is 0x0, which is not in the library",
+          "is 1x-1, which is not in the library", "is 3x1, which is not in the library",
+          "has its station at 1, off its board", "has its station at -1, off its board"};
+      for (int i = 0; i < headers.length; i++) {
+        bytes.putInt(24, headers[i][0]).putInt(28, headers[i][1]).putInt(44, headers[i][2]);
+        java.nio.file.Files.write(path, bytes.array());
+        try {
+          new PuzzleLibrary(path).load(0);
+          t.checkExpect("loaded", problems[i]);
+        } catch (java.io.UncheckedIOException e) {
+          t.checkExpect(e.getCause().getMessage(), "Puzzle 0 " + problems[i]);
+        }
+      }
+      bytes.putInt(24, 1).putInt(28, 1).putInt(44, 0);
+      java.nio.file.Files.write(path, bytes.array());
+      t.checkExpect(new PuzzleLibrary(path).load(0).board.size(), 1);
+      java.nio.file.Files.write(path, new byte[] {1, 2, 3});
+      new PuzzleLibrary(path);
+      t.checkExpect("opened", "not a puzzle library");
+    } catch (IOException e) {
+      t.checkExpect(e.getMessage(), "Not a puzzle library: " + path);
+    } finally {
+      try {
+        java.nio.file.Files.deleteIfExists(path);
+      } catch (IOException e) {
+        t.checkExpect(e, null);
+      }
+    }
+  }
+
+  // test for the MoveHistory class
+  void testMoveHistory(Tester t) {
+    MoveHistory history = new MoveHistory();
+    t.checkExpect(history.canUndo(), false);
+    t.checkExpect(history.canRedo(), false);
+    t.checkExpect(MoveHistory.isStep(MoveHistory.rotation(7)), false);
+    t.checkExpect(MoveHistory.target(MoveHistory.rotation(7)), 7);
+    t.checkExpect(MoveHistory.isStep(MoveHistory.step(Board.RIGHT)), true);
+    t.checkExpect(MoveHistory.target(MoveHistory.step(Board.RIGHT)), Board.RIGHT);
+    for (int i = 0; i < 40; i++) {
+      history.add(MoveHistory.rotation(i));
+    }
+    t.checkExpect(history.undo(), MoveHistory.rotation(39));
+    t.checkExpect(history.undo(), MoveHistory.rotation(38));
+    t.checkExpect(history.canRedo(), true);
+    t.checkExpect(history.redo(), MoveHistory.rotation(38));
+    // a new move drops the moves that were taken back
+    history.add(MoveHistory.step(0));
+    t.checkExpect(history.canRedo(), false);
+    t.checkExpect(history.undo(), MoveHistory.step(0));
+    t.checkExpect(history.undo(), MoveHistory.rotation(38));
+    history.clear();
+    t.checkExpect(history.canUndo(), false);
+    t.checkExpect(history.canRedo(), false);
+  }
+
+  // test for undo, redo and reset in the PuzzleEngine class
+  void testPuzzleEngineUndo(Tester t) {
+    PuzzleEngine engine = new PuzzleEngine(12, 10, 0, new Random(8), new KruskalGenerator());
+    Board board = engine.board;
+    byte[] start = engine.board.tiles.clone();
+    int[] startPower = engine.board.powers();
+    t.checkExpect(engine.undo(), false);
+    Random random = new Random(9);
+    for (int i = 0; i < 200; i++) {
+      if (random.nextInt(4) == 0) {
+        engine.moveStation(1 << random.nextInt(4));
+      } else {
+        engine.rotate(random.nextInt(12), random.nextInt(10));
+      }
+    }
+    byte[] end = engine.board.tiles.clone();
+    int[] endPower = engine.board.powers();
+    t.checkExpect(engine.moves, 200);
+    // taking every move back gives the puzzle as it started
+    while (engine.undo()) {
+      continue;
+    }
+    t.checkExpect(engine.moves, 0);
+    t.checkExpect(engine.board.tiles, start);
+    t.checkExpect(engine.board.powers(), startPower);
+    t.checkExpect(engine.board.findStation(), engine.board.index(engine.powerCol, engine.powerRow));
+    // and making them again gives the board they made
+    while (engine.redo()) {
+      continue;
+    }
+    t.checkExpect(engine.moves, 200);
+    t.checkExpect(engine.board.tiles, end);
+    t.checkExpect(engine.board.powers(), endPower);
+    // reset copies the puzzle back into the same board, and forgets the moves
+    engine.reset();
+    t.checkExpect(engine.board == board, true);
+    t.checkExpect(engine.board.tiles, start);
+    t.checkExpect(engine.board.links, engine.startBoard().links);
+    t.checkExpect(engine.board.powers(), startPower);
+    t.checkExpect(engine.undo(), false);
+    t.checkExpect(engine.redo(), false);
+    // the puzzle session takes moves back too
+    PuzzleSession session = new PuzzleSession(new Random(2));
+    session.handle("rotate 0 0");
+    t.checkExpect(session.handle("undo").startsWith("ok moves=0 "), true);
+    t.checkExpect(session.handle("redo").startsWith("ok moves=1 "), true);
+    t.checkExpect(session.handle("redo").startsWith("ok moves=1 "), true);
+  }
+
+  // test for the LeaderboardWriter class
+  void testLeaderboardWriter(Tester t) {
+    t.checkExpect(LeaderboardWriter.entry("kev", 8, 9, 40, false), "kev,8,9,40,false\n");
+    java.nio.file.Path path = null;
+    try {
+      path = java.nio.file.Files.createTempFile("leaderboard", ".csv");
+      java.nio.file.Files.delete(path);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    LeaderboardWriter writer = new LeaderboardWriter(path, 4, 0);
+    // nothing is created until there is an entry to write
+    writer.flush();
+    t.checkExpect(java.nio.file.Files.exists(path), false);
+    for (int i = 0; i < 10; i++) {
+      t.checkExpect(writer.add(LeaderboardWriter.entry("p" + i, 4, 4, i, i % 2 == 0)), true);
+    }
+    writer.flush();
+    t.checkExpect(writer.written, 10L);
+    t.checkExpect(writer.failed, 0L);
+    writer.close();
+    t.checkExpect(writer.add("late\n"), false);
+    // a second writer appends to the file without writing the header again
+    LeaderboardWriter again = new LeaderboardWriter(path, 64, -1);
+    again.add(LeaderboardWriter.entry("last", 2, 3, 7, true));
+    again.close();
+    try {
+      java.util.List<String> lines = java.nio.file.Files.readAllLines(path);
+      t.checkExpect(lines.size(), 12);
+      t.checkExpect(lines.get(0) + "\n", LeaderboardWriter.HEADER);
+      t.checkExpect(lines.get(1), "p0,4,4,0,true");
+      t.checkExpect(lines.get(10), "p9,4,4,9,false");
+      t.checkExpect(lines.get(11), "last,2,3,7,true");
+      java.nio.file.Files.delete(path);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  // test for the Leaderboard class
+  void testLeaderboard(Tester t) {
+    Leaderboard board = null;
+    java.nio.file.Path path = null;
+    try {
+      path = java.nio.file.Files.createTempFile("leaderboard", ".csv");
+      java.nio.file.Files.write(path, java.util.Arrays.asList(LeaderboardWriter.HEADER.trim(),
+          "ann,4,4,30,false", LeaderboardWriter.HEADER.trim(), "bob,4,4,20,true",
+          "cy,4,4,20,false", "ann,4,4,25,false", "ann,4,4,40,false", "dee,5,4,9,false",
+          "broken line", "eve,4,4,x,false", "huge,4,4,1073741823,false",
+          "big,4,4,300000000,true"));
+      board = Leaderboard.load(path, null);
+      java.nio.file.Files.delete(path);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(board.skipped, 6L);
+    t.checkExpect(board.players(4, 4), 3);
+    t.checkExpect(board.players(5, 4), 1);
+    // fewer moves first, and of the same moves, not looking at the solution first
+    ArrayList<LeaderboardEntry> top = board.top(4, 4, 10);
+    t.checkExpect(top.size(), 3);
+    t.checkExpect(top.get(0).name + top.get(1).name + top.get(2).name, "cybobann");
+    t.checkExpect(top.get(2).moves, 25);
+    t.checkExpect(board.top(4, 4, 2).size(), 2);
+    t.checkExpect(board.rank(4, 4, "cy"), 1);
+    t.checkExpect(board.rank(4, 4, "ann"), 3);
+    t.checkExpect(board.rank(4, 4, "dee"), 0);
+    t.checkExpect(board.rank(5, 4, "dee"), 1);
+    // a worse score keeps the best one, a better score replaces it
+    t.checkExpect(board.submit("cy", 4, 4, 50, false), 1);
+    t.checkExpect(board.best(4, 4, "cy").moves, 20);
+    t.checkExpect(board.submit("ann", 4, 4, 20, false), 1);
+    t.checkExpect(board.rank(4, 4, "cy"), 1);
+    t.checkExpect(board.rank(4, 4, "bob"), 3);
+    // far apart scores only take a place in the tree each
+    t.checkExpect(board.submit("fay", 4, 4, 5000, false), 4);
+    t.checkExpect(board.submit("gus", 4, 4, 4999, true), 4);
+    t.checkExpect(board.rank(4, 4, "fay"), 5);
+    t.checkExpect(board.rank(4, 4, "bob"), 3);
+    t.checkExpect(board.submit("hal", 4, 4, Leaderboard.MAX_MOVES, true), 6);
+    // a place for every different score seen, not for every possible score
+    t.checkExpect(board.ranking(4, 4).scores.length, 9);
+    t.checkExpect(board.ranking(4, 4).tree.length(), 10);
+    t.checkExpect(board.best(4, 4, "hal").score(), 2L * Leaderboard.MAX_MOVES + 1);
+    // too many moves are not ranked
+    t.checkExpect(board.submit("ivy", 4, 4, Leaderboard.MAX_MOVES + 1, false), 0);
+    t.checkExpect(board.submit("ivy", 4, 4, -1, false), 0);
+    t.checkExpect(board.rank(4, 4, "ivy"), 0);
+    t.checkExpect(board.players(4, 4), 6);
+    // many threads submitting at once
+    Leaderboard shared = new Leaderboard(null);
+    Thread[] threads = new Thread[4];
+    for (int k = 0; k < threads.length; k++) {
+      int id = k;
+      threads[k] = new Thread(() -> {
+        Random random = new Random(id);
+        for (int i = 0; i < 500; i++) {
+          shared.submit("p" + random.nextInt(300), 6, 6, random.nextInt(2000), false);
+        }
+      });
+      threads[k].start();
+    }
+    for (Thread thread : threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        t.checkExpect(e, null);
+      }
+    }
+    ArrayList<LeaderboardEntry> all = shared.top(6, 6, 1000);
+    t.checkExpect(all.size(), shared.players(6, 6));
+    boolean ranked = true;
+    for (int i = 0; i < all.size(); i++) {
+      int better = 0;
+      while (better < i && all.get(better).moves < all.get(i).moves) {
+        better++;
+      }
+      ranked = ranked && shared.rank(6, 6, all.get(i).name) == better + 1
+          && (i == 0 || all.get(i - 1).moves <= all.get(i).moves);
+    }
+    t.checkExpect(ranked, true);
+  }
+
+  // returns whether rotating the tiles of the given board the given number of times
+  // makes them one tree over the whole board
+  boolean solves(Board board, int[] turns) {
+    Board solved = board.copy();
+    for (int i = 0; i < turns.length; i++) {
+      for (int r = 0; r < turns[i]; r++) {
+        solved.rotate(i);
+      }
+    }
+    solved.addNeighbors();
+    int links = 0;
+    boolean joined = true;
+    for (int i = 0; i < solved.size(); i++) {
+      links = links + Integer.bitCount(solved.links[i]);
+      joined = joined && solved.links[i] == solved.wires(i);
+    }
+    solved.bfs(0);
+    for (int i = 0; i < solved.size(); i++) {
+      joined = joined && solved.mark[i] == solved.walk;
+    }
+    return joined && links / 2 == solved.size() - 1;
+  }
+
+  // test for the PuzzleSolver class
+  void testPuzzleSolver(Tester t) {
+    for (int k = 0; k < 6; k++) {
+      PuzzleEngine engine = new PuzzleEngine(3 + 4 * k, 9 - k, k - 3, new Random(40 + k),
+          new KruskalGenerator());
+      PuzzleSolver solver = new PuzzleSolver(engine.board);
+      t.checkExpect(solver.solve(10000000000L), true);
+      t.checkExpect(this.solves(engine.board, solver.turns()), true);
+    }
+    // a board whose wires cannot make a tree
+    Board loop = new Board(2, 2);
+    loop.connect(0, 1);
+    loop.connect(1, 3);
+    loop.connect(3, 2);
+    loop.connect(2, 0);
+    t.checkExpect(new PuzzleSolver(loop).solve(1000000000L), false);
+    Board single = new Board(1, 1);
+    t.checkExpect(new PuzzleSolver(single).solve(1000000000L), true);
+    // a large board is solved well within the time allowed
+    PuzzleEngine big = new PuzzleEngine(200, 200, 0, new Random(3), new KruskalGenerator());
+    PuzzleSolver solver = new PuzzleSolver(big.board);
+    t.checkExpect(solver.solve(20000000000L), true);
+    t.checkExpect(solver.timedOut, false);
+    // no time at all is not enough once a tile has to be tried
+    PuzzleSolver hurried = new PuzzleSolver(big.board);
+    t.checkExpect(hurried.solve(0), false);
+    t.checkExpect(hurried.timedOut, true);
+    // and neither are no tries at all, however long there is
+    PuzzleSolver limited = new PuzzleSolver(big.board);
+    limited.maxTries = 0;
+    t.checkExpect(limited.solve(Long.MAX_VALUE), false);
+    t.checkExpect(limited.timedOut, true);
+    t.checkExpect(limited.deadline, Long.MAX_VALUE);
+  }
+
+  // test that showSolution solves the board on screen
+  void testShowSolutionSolves(Tester t) {
+    PuzzleEngine engine = new PuzzleEngine(12, 12, 1, new Random(5), new KruskalGenerator());
+    Board board = engine.board;
+    engine.rotate(3, 3);
+    engine.showSolution();
+    t.checkExpect(engine.board == board, true);
+    t.checkExpect(engine.powerCol, 6);
+    t.checkExpect(engine.powerRow, 0);
+    t.checkExpect(engine.getRadius() <= engine.radius, true);
+    engine.moveStation(0);
+    engine.board.setStation(engine.board.index(engine.powerCol, engine.powerRow), false);
+    TreeDiameter tree = engine.measureTree();
+    engine.powerCol = engine.board.col(tree.center);
+    engine.powerRow = engine.board.row(tree.center);
+    engine.board.setStation(tree.center, true);
+    engine.turnGamePieceOff();
+    engine.lightCells();
+    t.checkExpect(engine.isWinner(), true);
+  }
+
+  // test for the ParallelSolver class
+  void testParallelSolver(Tester t) {
+    java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(3);
+    ParallelSolver solver = null;
+    for (int k = 0; k < 4; k++) {
+      Board board = new PuzzleEngine(40 + 10 * k, 30, k - 2, new Random(60 + k),
+          new KruskalGenerator()).board;
+      solver = new ParallelSolver(board, pool);
+      t.checkExpect(solver.splitDepth, 4);
+      t.checkExpect(solver.solve(20000000000L), true);
+      t.checkExpect(this.solves(board, solver.turns), true);
+      t.checkExpect(solver.done.get(), true);
+    }
+    // a board with no solution
+    Board loop = new Board(2, 2);
+    loop.connect(0, 1);
+    loop.connect(1, 3);
+    loop.connect(3, 2);
+    loop.connect(2, 0);
+    t.checkExpect(new ParallelSolver(loop, pool).solve(1000000000L), false);
+    // one thread searches without splitting
+    java.util.concurrent.ForkJoinPool one = new java.util.concurrent.ForkJoinPool(1);
+    Board board = new PuzzleEngine(30, 30, 0, new Random(1), new KruskalGenerator()).board;
+    solver = new ParallelSolver(board, one);
+    t.checkExpect(solver.splitDepth, 0);
+    t.checkExpect(solver.solve(20000000000L), true);
+    t.checkExpect(this.solves(board, solver.turns), true);
+    pool.shutdown();
+    one.shutdown();
+  }
+
+  // test for the PuzzleAnalysis class
+  void testPuzzleAnalysis(Tester t) {
+    // a row of three tiles: a dead end turned once needs three more turns,
+    // a straight wire turned once needs one
+    Board row = new Board(3, 1);
+    EdgeList line = new EdgeList(2);
+    line.add(0, 1, 0);
+    line.add(1, 2, 0);
+    row.connect(0, 1);
+    row.connect(1, 2);
+    row.rotate(0);
+    row.rotate(1);
+    PuzzleAnalysis lineAnalysis = new PuzzleAnalysis(row, line, 0, 1);
+    t.checkExpect(lineAnalysis.clicks, 4);
+    t.checkExpect(lineAnalysis.turnedTiles, 2);
+    t.checkExpect(lineAnalysis.stationMoves, 1);
+    t.checkExpect(lineAnalysis.goal, 1);
+    t.checkExpect(lineAnalysis.minMoves, 5);
+    t.checkExpect(lineAnalysis.diameter, 2);
+    t.checkExpect(lineAnalysis.deadEnds, 2);
+    t.checkExpect(lineAnalysis.junctions, 0);
+    t.checkExpect(new PuzzleAnalysis(row, line, 1, 1).minMoves, 4);
+    t.checkExpect(new PuzzleAnalysis(row, line, 0, 2).minMoves, 4);
+    // a cross in the middle of a 3x3 board never needs turning
+    Board plus = new Board(3, 3);
+    EdgeList tree = new EdgeList(8);
+    int[][] edges = {{4, 1}, {4, 3}, {4, 5}, {4, 7}, {0, 1}, {1, 2}, {6, 7}, {7, 8}};
+    for (int[] edge : edges) {
+      tree.add(edge[0], edge[1], 0);
+      plus.connect(edge[0], edge[1]);
+    }
+    plus.rotate(4);
+    plus.rotate(4);
+    plus.rotate(3);
+    PuzzleAnalysis plusAnalysis = new PuzzleAnalysis(plus, tree, 0, 2);
+    t.checkExpect(plusAnalysis.clicks, 3);
+    t.checkExpect(plusAnalysis.turnedTiles, 1);
+    t.checkExpect(plusAnalysis.goal, 4);
+    t.checkExpect(plusAnalysis.stationMoves, 2);
+    t.checkExpect(plusAnalysis.minMoves, 5);
+    t.checkExpect(plusAnalysis.diameter, 4);
+    t.checkExpect(plusAnalysis.deadEnds, 6);
+    t.checkExpect(plusAnalysis.junctions, 3);
+    t.checkExpect(plusAnalysis.branching, 8.0 / 3);
+    // a tile that is not a rotation of its wires in the tree
+    plus.connect(0, 3);
+    t.checkConstructorException(
+        new IllegalArgumentException("Tile 0 is not a rotation of the tree"),
+        "PuzzleAnalysis", plus, tree, 0, 2);
+    // the tree this puzzle was made from takes 15 moves to put together, another takes 11
+    PuzzleEngine cheaper = new PuzzleEngine(3, 3, 0, new Random(5), new KruskalGenerator());
+    PuzzleAnalysis cheapest = new PuzzleAnalysis(cheaper.startBoard(), cheaper.mst,
+        Board.findStation(cheaper.currState), cheaper.radius);
+    t.checkExpect(cheapest.minMoves, 11);
+    t.checkExpect(cheapest.clicks, 11);
+    t.checkExpect(cheapest.exact, true);
+    t.checkExpect(this.solves(cheaper.startBoard(), cheapest.turns), true);
+    // the engine's par is the fewest moves, and making them wins the game
+    for (int k = 0; k < 5; k++) {
+      PuzzleEngine engine = k == 4 ? cheaper : new PuzzleEngine(4 + 3 * k, 9 - k, k - 2,
+          new Random(60 + k), new KruskalGenerator());
+      PuzzleAnalysis analysis = new PuzzleAnalysis(engine);
+      t.checkExpect(engine.numMovesNeeded, analysis.minMoves);
+      t.checkExpect(analysis.minMoves, analysis.clicks + analysis.stationMoves);
+      for (int i = 0; i < engine.board.size(); i++) {
+        for (int turn = 0; turn < analysis.turns[i]; turn++) {
+          engine.rotate(engine.board.col(i), engine.board.row(i));
+        }
+      }
+      t.checkExpect(engine.moves, analysis.clicks);
+      engine.board.bfs(analysis.goal);
+      int station = engine.board.findStation();
+      while (station != analysis.goal) {
+        for (int dir = 1; dir <= 8; dir <<= 1) {
+          if (engine.board.isConnected(station, dir) && engine.board
+              .distance[engine.board.neighbor(station, dir)] < engine.board.distance[station]) {
+            engine.moveStation(dir);
+            break;
+          }
+        }
+        station = engine.board.findStation();
+      }
+      t.checkExpect(engine.moves, analysis.minMoves);
+      t.checkExpect(engine.isWinner(), true);
+    }
+  }
+
+  // test for the PerfMonitor class
+  void testPerfMonitor(Tester t) {
+    PerfMonitor perf = new PerfMonitor();
+    t.checkExpect(perf.start(), 0L);
+    t.checkExpect(perf.lap(PerfMonitor.KEY, 0), 0L);
+    t.checkExpect(perf.report().size(), 0);
+    perf.enabled = true;
+    long start = perf.start();
+    t.checkExpect(start != 0, true);
+    long next = perf.lap(PerfMonitor.KEY, start);
+    t.checkExpect(next >= start, true);
+    perf.lap(PerfMonitor.SCENE, next);
+    perf.lap(PerfMonitor.SCENE, next);
+    LinkedHashMap<String, LatencyHistogram> snapshot = perf.snapshot();
+    t.checkExpect(snapshot.size(), PerfMonitor.NAMES.length);
+    t.checkExpect(snapshot.get("onKeyEvent").count(), 1L);
+    t.checkExpect(snapshot.get("makeScene").count(), 2L);
+    t.checkExpect(snapshot.get("onTick").count(), 0L);
+    t.checkExpect(perf.report().size(), 2);
+    t.checkExpect(perf.report().get(0).startsWith("onKeyEvent n=1 p50="), true);
+    // the snapshot does not change with later events
+    perf.lap(PerfMonitor.SCENE, next);
+    t.checkExpect(snapshot.get("makeScene").count(), 2L);
+    perf.clear();
+    t.checkExpect(perf.report().size(), 0);
+    // events started while disabled are not recorded once it is enabled
+    perf.enabled = false;
+    start = perf.start();
+    perf.enabled = true;
+    perf.lap(PerfMonitor.KEY, start);
+    t.checkExpect(perf.histograms[PerfMonitor.KEY].count(), 0L);
+
+    // every phase of making a puzzle, and every callback, is timed by the monitor of
+    // the game
+    LightEmAll game = new LightEmAll(600, 600, 6, 6, 0, new Random(4));
+    LightEmAll other = new LightEmAll(600, 600, 6, 6, 0, new Random(4));
+    PerfMonitor monitor = game.perf;
+    t.checkExpect(game.engine.perf == monitor, true);
+    t.checkExpect(other.perf == monitor, false);
+    t.checkExpect(monitor.enabled, false);
+    // puzzles made off screen are never timed, even while the game is
+    t.checkExpect(new PuzzleEngine(4, 4, 0, new Random(1), new KruskalGenerator()).perf,
+        PerfMonitor.OFF);
+    t.checkExpect(new PuzzleEngine(new Random(), new KruskalGenerator()).perf,
+        PerfMonitor.OFF);
+    t.checkExpect(PerfMonitor.OFF.enabled, false);
+    game.onKeyEvent("p");
+    t.checkExpect(game.showPerf, true);
+    t.checkExpect(monitor.enabled, true);
+    t.checkExpect(game.engine.moves, 0);
+    // the other game is not timed
+    t.checkExpect(other.perf.enabled, false);
+    other.onTick();
+    other.newGame();
+    t.checkExpect(other.perf.report().size(), 0);
+    monitor.clear();
+    game.newGame();
+    new PuzzleEngine(4, 4, 0, new Random(1), new KruskalGenerator());
+    for (int i = PerfMonitor.NEW_GAME; i <= PerfMonitor.SAVE; i++) {
+      t.checkExpect(monitor.histograms[i].count(), 1L);
+      t.checkExpect(PerfMonitor.OFF.histograms[i].count(), 0L);
+    }
+    game.onTick();
+    game.onMouseClicked(new Posn(300, 300), "LeftButton");
+    game.onKeyEvent("left");
+    game.makeScene();
+    t.checkExpect(monitor.histograms[PerfMonitor.TICK].count(), 1L);
+    t.checkExpect(monitor.histograms[PerfMonitor.MOUSE].count(), 1L);
+    t.checkExpect(monitor.histograms[PerfMonitor.KEY].count(), 1L);
+    t.checkExpect(monitor.histograms[PerfMonitor.SCENE].count(), 1L);
+    t.checkExpect(monitor.report().size(), PerfMonitor.NAMES.length);
+    game.onKeyEvent("p");
+    t.checkExpect(game.showPerf, false);
+    t.checkExpect(monitor.enabled, false);
+    game.makeScene();
+    t.checkExpect(monitor.histograms[PerfMonitor.SCENE].count(), 1L);
+    monitor.clear();
+  }
+
+  // test for the Flight Recorder events of the game
+  void testPuzzleEvents(Tester t) {
+    String[] names = new String[] { "lightemall.CreateBoard", "lightemall.GenerateEdges",
+        "lightemall.Kruskal", "lightemall.Radius", "lightemall.Scramble",
+        "lightemall.Lighting", "lightemall.Scene" };
+    java.util.List<jdk.jfr.consumer.RecordedEvent> events = null;
+    LightEmAll game = null;
+    try (jdk.jfr.Recording recording = new jdk.jfr.Recording()) {
+      for (String name : names) {
+        recording.enable(name).withThreshold(java.time.Duration.ZERO);
+      }
+      recording.start();
+      game = new LightEmAll(600, 600, 7, 5, 2, new Random(8));
+      game.engine.rotate(3, 2);
+      game.makeScene();
+      recording.stop();
+      java.nio.file.Path path = java.nio.file.Files.createTempFile("events", ".jfr");
+      recording.dump(path);
+      events = jdk.jfr.consumer.RecordingFile.readAllEvents(path);
+      java.nio.file.Files.delete(path);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    HashMap<String, jdk.jfr.consumer.RecordedEvent> last =
+        new HashMap<String, jdk.jfr.consumer.RecordedEvent>();
+    for (jdk.jfr.consumer.RecordedEvent event : events) {
+      last.put(event.getEventType().getName(), event);
+    }
+    for (String name : names) {
+      t.checkExpect(last.containsKey(name), true);
+      t.checkExpect(last.get(name).getInt("cols"), 7);
+      t.checkExpect(last.get(name).getInt("rows"), 5);
+    }
+    t.checkExpect(last.get("lightemall.GenerateEdges").getInt("edges"), 6 * 5 + 7 * 4);
+    t.checkExpect(last.get("lightemall.GenerateEdges").getInt("bias"), 2);
+    t.checkExpect(last.get("lightemall.Kruskal").getInt("edges"), 58);
+    t.checkExpect(last.get("lightemall.Kruskal").getInt("treeEdges"), 34);
+    t.checkExpect(last.get("lightemall.Radius").getInt("radius"), game.engine.radius);
+    t.checkExpect(last.get("lightemall.Scramble").getInt("movesNeeded"),
+        game.engine.numMovesNeeded);
+    // the last lighting is the relight after the turn
+    t.checkExpect(last.get("lightemall.Lighting").getInt("tilesLit"), game.engine.board.lit);
+    t.checkExpect(last.get("lightemall.Scene").getInt("tileSize"), game.tileSize);
+    t.checkExpect(last.get("lightemall.Scene").getBoolean("won"), game.isWinner());
+  }
+
+  // test for the InputLog and InputReplay classes
+  void testInputReplay(Tester t) {
+    InputLog log = new InputLog(600, 600, 6, 5, 1, 77);
+    LightEmAll game = new LightEmAll(log.controls());
+    game.controls.recording = log;
+    // the solution of a recorded game does not depend on how fast the machine is
+    t.checkExpect(game.engine.solveTries, PuzzleEngine.SOLVE_TRIES);
+    // clicks on the tiles, a key that does nothing, the station moving, undo and
+    // time passing, then the solution and a click outside the board
+    for (int i = 0; i < 40; i++) {
+      game.onMouseClicked(new Posn(60 + 90 * (i % 6), 80 + 90 * (i * 7 % 5)),
+          i % 9 == 0 ? "RightButton" : "LeftButton");
+      if (i % 5 == 0) {
+        game.onTick();
+      }
+    }
+    game.onKeyEvent("down");
+    game.onKeyEvent("z");
+    game.onKeyEvent("p");
+    game.onKeyEvent("p");
+    game.onMouseClicked(new Posn(480, 10), "LeftButton");
+    game.onKeyEvent("q");
+    game.onMouseClicked(new Posn(5, 590), "LeftButton");
+    log.finish(game.controls);
+    t.checkExpect(log.count, 55);
+    t.checkExpect(log.kinds[0], InputLog.OTHER_CLICK);
+    t.checkExpect(log.kinds[1], InputLog.TICK);
+    t.checkExpect(log.keys[48], "down");
+    t.checkExpect(log.state, InputLog.state(game.controls));
+    t.checkExpect(log.times[54] >= log.times[0], true);
+
+    // the log comes back from its file as it was written, to the microsecond
+    InputLog read = null;
+    java.nio.file.Path path = null;
+    try {
+      path = java.nio.file.Files.createTempFile("session", ".lei");
+      log.write(path);
+      read = InputLog.read(path);
+      t.checkExpect(java.nio.file.Files.size(path) < 16 * log.count, true);
+      java.nio.file.Files.write(path, new byte[] { 1, 2, 3, 4 });
+      InputLog.read(path);
+      t.checkExpect(false, true);
+    } catch (IOException e) {
+      t.checkExpect(e.getMessage(), "Not an input log: " + path);
+    } finally {
+      try {
+        java.nio.file.Files.deleteIfExists(path);
+      } catch (IOException e) {
+        t.checkExpect(e, null);
+      }
+    }
+    t.checkExpect(read.count, log.count);
+    t.checkExpect(read.seed, 77L);
+    t.checkExpect(read.bias, 1);
+    t.checkExpect(Arrays.copyOf(read.kinds, read.count), Arrays.copyOf(log.kinds, log.count));
+    t.checkExpect(Arrays.copyOf(read.xs, read.count), Arrays.copyOf(log.xs, log.count));
+    t.checkExpect(Arrays.copyOf(read.keys, read.count), Arrays.copyOf(log.keys, log.count));
+    t.checkExpect(read.times[54], log.times[54] / 1000 * 1000);
+    t.checkExpect(read.state, log.state);
+
+    // replaying plays the same game, however many times
+    InputReplay replay = new InputReplay(read, true);
+    PuzzleControls replayed = replay.replay();
+    t.checkExpect(replay.diverged(), false);
+    t.checkExpect(replayed.engine.board.tilesText(), game.engine.board.tilesText());
+    t.checkExpect(replayed.engine.moves, game.engine.moves);
+    // a replayed game writes nothing to the leaderboard, even once it is won
+    t.checkExpect(replayed.leaderboard, null);
+    PuzzleControls won = new InputReplay(new InputLog(600, 600, 1, 1, 0, 5), false).replay();
+    t.checkExpect(won.isWinner(), true);
+    won.name = "replay";
+    won.key("enter");
+    t.checkExpect(won.name, "");
+    new InputReplay(read, false).replay();
+    t.checkExpect(replay.replay().timer, game.controls.timer);
+    t.checkExpect(replay.events, 2L * log.count);
+    // a different seed makes a different game
+    read.seed = 78;
+    replay.replay();
+    t.checkExpect(replay.diverged(), true);
+    // big numbers take more bytes, and come back the same
+    try {
+      java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+      java.io.DataOutputStream out = new java.io.DataOutputStream(bytes);
+      InputLog.writeVarint(out, 127);
+      InputLog.writeVarint(out, 128);
+      InputLog.writeVarint(out, Long.MAX_VALUE);
+      t.checkExpect(bytes.size(), 1 + 2 + 9);
+      java.io.DataInputStream in = new java.io.DataInputStream(
+          new java.io.ByteArrayInputStream(bytes.toByteArray()));
+      t.checkExpect(InputLog.readVarint(in), 127L);
+      t.checkExpect(InputLog.readVarint(in), 128L);
+      t.checkExpect(InputLog.readVarint(in), Long.MAX_VALUE);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
   }
 
   // test for addNeighbors GamePiece class
@@ -1854,5 +2023,348 @@ class ExamplesPowerLine {
     t.checkExpect(this.gp1.neighbors.size(), 3);
   }
 
-}
+  // test for index, col and row in the Board class
+  void testBoardIndex(Tester t) {
+    Board b = new Board(3, 4);
+    t.checkExpect(b.size(), 12);
+    t.checkExpect(b.index(0, 0), 0);
+    t.checkExpect(b.index(0, 3), 3);
+    t.checkExpect(b.index(2, 1), 9);
+    t.checkExpect(b.col(9), 2);
+    t.checkExpect(b.row(9), 1);
+  }
+
+  // test for neighbor in the Board class
+  void testBoardNeighbor(Tester t) {
+    Board b = new Board(3, 4);
+    t.checkExpect(b.neighbor(0, Board.LEFT), -1);
+    t.checkExpect(b.neighbor(0, Board.TOP), -1);
+    t.checkExpect(b.neighbor(0, Board.RIGHT), 4);
+    t.checkExpect(b.neighbor(0, Board.BOTTOM), 1);
+    t.checkExpect(b.neighbor(11, Board.RIGHT), -1);
+    t.checkExpect(b.neighbor(11, Board.BOTTOM), -1);
+    t.checkExpect(b.neighbor(11, Board.LEFT), 7);
+    t.checkExpect(b.neighbor(11, Board.TOP), 10);
+  }
+
+  // test for rotate and rotateMask in the Board class
+  void testBoardRotate(Tester t) {
+    t.checkExpect(Board.rotateMask(Board.LEFT), Board.TOP);
+    t.checkExpect(Board.rotateMask(Board.BOTTOM), Board.LEFT);
+    t.checkExpect(Board.rotateMask(Board.LEFT | Board.RIGHT), Board.TOP | Board.BOTTOM);
+    t.checkExpect(Board.rotateMask(Board.WIRES), Board.WIRES);
+    t.checkExpect(Board.opposite(Board.LEFT), Board.RIGHT);
+    t.checkExpect(Board.opposite(Board.TOP), Board.BOTTOM);
+    Board b = new Board(2, 2);
+    b.connect(0, 2);
+    b.setStation(0, true);
+    b.rotate(0);
+    // the station stays on the tile when its wires are rotated
+    t.checkExpect(b.hasStation(0), true);
+    t.checkExpect(b.wires(0), Board.BOTTOM);
+    // rotating the same way as a GamePiece
+    this.initData();
+    this.gp3.rotate();
+    t.checkExpect(Board.rotateMask(Board.LEFT | Board.RIGHT),
+        (this.gp3.top ? Board.TOP : 0) | (this.gp3.bottom ? Board.BOTTOM : 0));
+  }
+
+  // test for connect and the isConnected checks in the Board class
+  void testBoardIsConnected(Tester t) {
+    Board b = new Board(2, 2);
+    b.connect(0, 2);
+    b.connect(3, 2);
+    t.checkExpect(b.wires(0), Board.RIGHT);
+    t.checkExpect(b.wires(2), Board.LEFT | Board.BOTTOM);
+    t.checkExpect(b.wires(3), Board.TOP);
+    t.checkExpect(b.isConnectedRight(0), true);
+    t.checkExpect(b.isConnectedLeft(2), true);
+    t.checkExpect(b.isConnectedBottom(2), true);
+    t.checkExpect(b.isConnectedTop(3), true);
+    t.checkExpect(b.isConnectedBottom(0), false);
+    t.checkExpect(b.isConnectedLeft(0), false);
+    b.rotate(3);
+    t.checkExpect(b.isConnectedBottom(2), false);
+    b.addNeighbors();
+    t.checkExpect(b.links[0], (byte) Board.RIGHT);
+    t.checkExpect(b.links[2], (byte) Board.LEFT);
+    t.checkExpect(b.links[3], (byte) 0);
+  }
+
+  // test for lightCells in the Board class
+  void testBoardLightCells(Tester t) {
+    Board b = new Board(3, 1);
+    b.connect(0, 1);
+    b.connect(1, 2);
+    b.addNeighbors();
+    b.lightCells(0, 2);
+    t.checkExpect(b.powers(), new int[] { 2, 1, 0 });
+    b.turnOff();
+    t.checkExpect(b.powers(), new int[] { 0, 0, 0 });
+    b.lightCells(1, 5);
+    t.checkExpect(b.powers(), new int[] { 4, 5, 4 });
+    b.lightCells(1, -1);
+    t.checkExpect(b.powers(), new int[] { 4, 5, 4 });
+  }
+
+  // test for the count of lit tiles, and turning the board off, in the Board class
+  void testBoardLit(Tester t) {
+    Board b = new Board(4, 1);
+    b.connect(0, 1);
+    b.connect(1, 2);
+    b.addNeighbors();
+    t.checkExpect(b.lit, 0);
+    t.checkExpect(b.allLit(), false);
+    b.lightCells(0, 2);
+    t.checkExpect(b.lit, 2);
+    b.lightCells(1, 3);
+    t.checkExpect(b.lit, 3);
+    t.checkExpect(b.powers(), new int[] { 2, 3, 2, 0 });
+    b.connect(2, 3);
+    b.addNeighbors();
+    b.lightCells(1, 3);
+    t.checkExpect(b.allLit(), true);
+    // turning off starts a new epoch instead of clearing the tiles
+    int epoch = b.epoch;
+    b.turnOff();
+    t.checkExpect(b.epoch, epoch + 1);
+    t.checkExpect(b.lit, 0);
+    t.checkExpect(b.power(1), 0);
+    t.checkExpect(b.powers(), new int[] { 0, 0, 0, 0 });
+    b.setPower(3, 1);
+    t.checkExpect(b.lit, 1);
+    b.setPower(3, 0);
+    t.checkExpect(b.lit, 0);
+    // the epoch wraps around before it overflows, clearing the tiles once
+    b.lightCells(0, 4);
+    b.epoch = Integer.MAX_VALUE - 1;
+    b.turnOff();
+    t.checkExpect(b.epoch, 0);
+    t.checkExpect(b.powers(), new int[] { 0, 0, 0, 0 });
+    b.lightCells(3, 2);
+    t.checkExpect(b.powers(), new int[] { 0, 0, 1, 2 });
+    t.checkExpect(b.copy().lit, 2);
+    t.checkExpect(b.copy().powers(), new int[] { 0, 0, 1, 2 });
+  }
+
+  // test for lightCells in the Board class on a 2000x2000 board
+  // that is a single wire winding through every tile
+  void testBoardLightCellsLarge(Tester t) {
+    Board b = new Board(2000, 2000);
+    for (int i = 0; i < b.cols; i++) {
+      for (int j = 1; j < b.rows; j++) {
+        b.connect(b.index(i, j - 1), b.index(i, j));
+      }
+      if (i > 0) {
+        int row = i % 2 == 1 ? b.rows - 1 : 0;
+        b.connect(b.index(i - 1, row), b.index(i, row));
+      }
+    }
+    b.addNeighbors();
+    int last = b.index(b.cols - 1, 0);
+    b.lightCells(0, b.size());
+    t.checkExpect(b.power(0), b.size());
+    t.checkExpect(b.power(b.index(0, b.rows - 1)), b.size() - b.rows + 1);
+    t.checkExpect(b.power(last), 1);
+    b.turnOff();
+    // lights only the first half of the wire
+    b.lightCells(0, b.size() / 2);
+    t.checkExpect(b.power(b.index(b.cols / 2 - 1, 0)), 1);
+    t.checkExpect(b.power(b.index(b.cols / 2, 0)), 0);
+    t.checkExpect(b.power(last), 0);
+    // lights both ways from the middle of the wire
+    b.turnOff();
+    b.lightCells(b.size() / 2, b.size() / 2 + 1);
+    t.checkExpect(b.power(0), 1);
+    t.checkExpect(b.power(last), 2);
+  }
+
+  // test for findStation, copy and view in the Board class
+  void testBoardView(Tester t) {
+    Board b = new Board(2, 3);
+    t.checkExpect(b.findStation(), -1);
+    b.setStation(4, true);
+    b.connect(4, 5);
+    t.checkExpect(b.findStation(), 4);
+    Board other = b.copy();
+    b.setStation(4, false);
+    t.checkExpect(other.findStation(), 4);
+    t.checkExpect(GamePiece.view(other, 4, 35),
+        new GamePiece(1, 1, false, false, false, true, true, 35));
+    t.checkExpect(GamePiece.view(other, 0, 35),
+        new GamePiece(0, 0, false, false, false, false, false, 35));
+  }
+
+  // returns whether the given edges make a spanning tree over the given board,
+  // i.e., there is one fewer edge than tiles, every edge joins adjacent tiles,
+  // and no edge closes a loop
+  boolean isSpanningTree(Board board, EdgeList edges) {
+    if (edges.size() != board.size() - 1) {
+      return false;
+    }
+    UnionFind groups = new UnionFind(board.size());
+    for (int i = 0; i < edges.size(); i++) {
+      boolean adjacent = false;
+      for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+        adjacent = adjacent || board.neighbor(edges.from[i], dir) == edges.to[i];
+      }
+      if (!adjacent || !groups.union(edges.from[i], edges.to[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns how many of the given edges are horizontal wires
+  int countHorizontal(Board board, EdgeList edges) {
+    int count = 0;
+    for (int i = 0; i < edges.size(); i++) {
+      if (board.row(edges.from[i]) == board.row(edges.to[i])) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  // test for generate in every TreeGenerator
+  void testTreeGenerators(Tester t) {
+    TreeGenerator[] generators = new TreeGenerator[] { new KruskalGenerator(),
+        new PrimGenerator(), new DfsGenerator(), new WilsonGenerator() };
+    for (TreeGenerator generator : generators) {
+      Board board = new Board(12, 9);
+      t.checkExpect(this.isSpanningTree(board, generator.generate(board, 0, new Random(7))),
+          true);
+      t.checkExpect(this.isSpanningTree(board, generator.generate(board, -2, new Random(7))),
+          true);
+      t.checkExpect(this.isSpanningTree(new Board(1, 1),
+          generator.generate(new Board(1, 1), 3, new Random(7))), true);
+      t.checkExpect(this.isSpanningTree(new Board(1, 6),
+          generator.generate(new Board(1, 6), 3, new Random(7))), true);
+      // the same seed builds the same tree
+      t.checkExpect(generator.generate(board, 1, new Random(3)),
+          generator.generate(board, 1, new Random(3)));
+      // a positive bias makes vertical wires more common, a negative one horizontal wires
+      Board big = new Board(30, 30);
+      t.checkExpect(this.countHorizontal(big, generator.generate(big, 3, new Random(11))) < 435,
+          true);
+      t.checkExpect(this.countHorizontal(big, generator.generate(big, -3, new Random(11))) > 435,
+          true);
+      // every generator makes a puzzle that is solved by its tree
+      LightEmAll game = new LightEmAll(600, 600, 6, 6, 0, new Random(2), generator);
+      game.engine.board = game.engine.createBoard();
+      game.engine.createBoardWithMst();
+      game.engine.addNeighbors();
+      // a radius as big as the board reaches every tile joined to the station
+      game.engine.radius = game.engine.board.size();
+      game.engine.lightCells();
+      t.checkExpect(game.isWinner(), true);
+    }
+  }
+
+  // test that prim's and kruskal's algorithms agree on the weight of the tree
+  void testPrimGenerator(Tester t) {
+    Board board = new Board(15, 11);
+    for (int bias = -3; bias <= 3; bias++) {
+      EdgeList kruskal = new KruskalGenerator().generate(board, bias, new Random(bias + 10));
+      EdgeList prim = new PrimGenerator().generate(board, bias, new Random(bias + 10));
+      int kruskalWeight = 0;
+      int primWeight = 0;
+      for (int i = 0; i < kruskal.size(); i++) {
+        kruskalWeight = kruskalWeight + kruskal.weight[i];
+        primWeight = primWeight + prim.weight[i];
+      }
+      t.checkExpect(primWeight, kruskalWeight);
+    }
+  }
+
+  // test for the helpers in the ATreeGenerator class
+  void testATreeGenerator(Tester t) {
+    ATreeGenerator generator = new DfsGenerator();
+    t.checkExpect(generator.horizontalCost(3), 3);
+    t.checkExpect(generator.horizontalCost(-3), 1);
+    t.checkExpect(generator.verticalCost(-2), 2);
+    t.checkExpect(generator.verticalCost(0), 1);
+    Random random = new Random(4);
+    t.checkExpect(generator.pickDirection(Board.TOP, 1, 5, random), Board.TOP);
+    for (int i = 0; i < 20; i++) {
+      int dir = generator.pickDirection(Board.LEFT | Board.BOTTOM, 2, 3, random);
+      t.checkExpect(dir == Board.LEFT || dir == Board.BOTTOM, true);
+    }
+    // a direction with no weight is never picked
+    for (int i = 0; i < 20; i++) {
+      t.checkExpect(generator.pickDirection(Board.RIGHT | Board.TOP, 0, 1, random), Board.TOP);
+    }
+  }
+
+  // test for relink in the Board class
+  void testBoardRelink(Tester t) {
+    Board b = new Board(2, 2);
+    b.connect(0, 2);
+    b.connect(0, 1);
+    b.addNeighbors();
+    t.checkExpect(b.links[0], (byte) (Board.RIGHT | Board.BOTTOM));
+    b.rotate(0);
+    b.relink(0);
+    // the tile now only has wires to the bottom and the left
+    t.checkExpect(b.links[0], (byte) Board.BOTTOM);
+    t.checkExpect(b.links[1], (byte) Board.TOP);
+    t.checkExpect(b.links[2], (byte) 0);
+    b.rotate(0);
+    b.rotate(0);
+    b.rotate(0);
+    b.relink(0);
+    t.checkExpect(b.links[0], (byte) (Board.RIGHT | Board.BOTTOM));
+    t.checkExpect(b.links[2], (byte) Board.LEFT);
+  }
+
+  // test for rotateAndRelight in the Board class, which has to give the same links and
+  // power as relinking and relighting the whole board after every rotation
+  void testBoardRotateAndRelight(Tester t) {
+    for (int seed = 0; seed < 6; seed++) {
+      LightEmAll game = new LightEmAll(600, 600, 9, 7, seed % 3 - 1, new Random(seed));
+      Random clicks = new Random(seed + 100);
+      int station = game.engine.board.index(game.engine.powerCol, game.engine.powerRow);
+      boolean same = true;
+      for (int i = 0; i < 300; i++) {
+        int clicked = clicks.nextInt(game.engine.board.size());
+        game.engine.board.rotateAndRelight(clicked, station, game.engine.radius + 1);
+        Board full = game.engine.board.copy();
+        full.removeNeighbors();
+        full.addNeighbors();
+        full.turnOff();
+        full.lightCells(station, game.engine.radius + 1);
+        same = same && Arrays.equals(full.links, game.engine.board.links)
+            && Arrays.equals(full.powers(), game.engine.board.powers())
+            && full.lit == game.engine.board.lit;
+      }
+      t.checkExpect(same, true);
+    }
+  }
 
+  // test for spread in the Board class
+  void testBoardSpread(Tester t) {
+    Board b = new Board(5, 1);
+    for (int i = 0; i < 4; i++) {
+      b.connect(i, i + 1);
+    }
+    b.addNeighbors();
+    b.setPower(0, 2);
+    b.setPower(4, 4);
+    long[] seeds = new long[] { (2L << 32) | 0, (4L << 32) | 4 };
+    b.spread(seeds, 2);
+    t.checkExpect(b.powers(), new int[] { 2, 1, 2, 3, 4 });
+  }
+
+  // test for nextWalk in the Board class
+  void testBoardNextWalk(Tester t) {
+    Board b = new Board(2, 2);
+    t.checkExpect(b.nextWalk(), 1);
+    t.checkExpect(b.nextWalk(), 2);
+    b.mark[3] = 2;
+    b.walk = Integer.MAX_VALUE - 1;
+    // the marks are cleared before the walk numbers wrap around
+    t.checkExpect(b.nextWalk(), 1);
+    t.checkExpect(b.mark[3], 0);
+  }
+
+}
@@ -0,0 +1,108 @@
+import java.util.Random;
+
+// class that builds the tree with prim's algorithm, growing it from one tile
+// by always taking the cheapest edge out of it from a binary heap
+class PrimGenerator extends ATreeGenerator {
+
+  // grows the tree from the first tile. the edge weights are drawn in the same order
+  // as the kruskal edges, so both give a tree of the same total weight
+  public EdgeList generate(Board board, int bias, Random random) {
+    int size = board.size();
+    int totalNumWeights = size - 1;
+    int biasVert = this.horizontalCost(bias);
+    int biasHor = this.verticalCost(bias);
+    // the weight of the edge from every tile to its left and to its top neighbor
+    int[] leftWeight = new int[size];
+    int[] topWeight = new int[size];
+    for (int i = 0; i < size; i++) {
+      if (board.neighbor(i, Board.LEFT) >= 0) {
+        leftWeight[i] = random.nextInt(totalNumWeights) * biasVert;
+      }
+      if (board.neighbor(i, Board.TOP) >= 0) {
+        topWeight[i] = random.nextInt(totalNumWeights) * biasHor;
+      }
+    }
+
+    EdgeList edgesInTree = new EdgeList(Math.max(size - 1, 0));
+    boolean[] inTree = new boolean[size];
+    // a binary min-heap of edges, each stored as its weight, the tile it leaves
+    // the tree from and the direction it goes in
+    int capacity = 2 * size;
+    int[] heapWeight = new int[capacity];
+    int[] heapTile = new int[capacity];
+    int[] heapDir = new int[capacity];
+    int heapSize = 0;
+
+    int added = 0;
+    if (size > 0) {
+      inTree[added] = true;
+    }
+    while (added >= 0) {
+      for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+        int next = board.neighbor(added, dir);
+        if (next >= 0 && !inTree[next]) {
+          int weight;
+          if (dir == Board.LEFT) {
+            weight = leftWeight[added];
+          } else if (dir == Board.RIGHT) {
+            weight = leftWeight[next];
+          } else if (dir == Board.TOP) {
+            weight = topWeight[added];
+          } else {
+            weight = topWeight[next];
+          }
+          // sifts the new edge up
+          int at = heapSize++;
+          while (at > 0 && heapWeight[(at - 1) / 2] > weight) {
+            int parent = (at - 1) / 2;
+            heapWeight[at] = heapWeight[parent];
+            heapTile[at] = heapTile[parent];
+            heapDir[at] = heapDir[parent];
+            at = parent;
+          }
+          heapWeight[at] = weight;
+          heapTile[at] = added;
+          heapDir[at] = dir;
+        }
+      }
+
+      // pops edges until one reaches a tile that is not in the tree yet
+      added = -1;
+      while (heapSize > 0 && added < 0) {
+        int tile = heapTile[0];
+        int dir = heapDir[0];
+        int weight = heapWeight[0];
+        heapSize--;
+        // sifts the last edge down from the root
+        int lastWeight = heapWeight[heapSize];
+        int lastTile = heapTile[heapSize];
+        int lastDir = heapDir[heapSize];
+        int at = 0;
+        while (2 * at + 1 < heapSize) {
+          int child = 2 * at + 1;
+          if (child + 1 < heapSize && heapWeight[child + 1] < heapWeight[child]) {
+            child++;
+          }
+          if (heapWeight[child] >= lastWeight) {
+            break;
+          }
+          heapWeight[at] = heapWeight[child];
+          heapTile[at] = heapTile[child];
+          heapDir[at] = heapDir[child];
+          at = child;
+        }
+        heapWeight[at] = lastWeight;
+        heapTile[at] = lastTile;
+        heapDir[at] = lastDir;
+
+        int next = board.neighbor(tile, dir);
+        if (!inTree[next]) {
+          inTree[next] = true;
+          edgesInTree.add(next, tile, weight);
+          added = next;
+        }
+      }
+    }
+    return edgesInTree;
+  }
+}
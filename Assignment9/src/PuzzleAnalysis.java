@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+// class that represents how hard a puzzle is: the fewest moves that solve it, and the
+// shape of the tree it was made from. a tile only turns clockwise, so it needs the
+// fewest turns that take its scrambled wires to its wires in a tree, which is at most
+// one for a straight wire and none for a cross. the station then has to get, along the
+// tree, to the nearest tile that lights every tile, which is a tile no further than
+// the radius from both ends of the longest path. the tree the puzzle was made from
+// is not always the cheapest one to put together, so every tree the tiles can make
+// is searched with PuzzleSolver, within a number of tries.
+// run with: java PuzzleAnalysis count cols rows bias seed [threads]
+// to make the puzzles BatchGenerator would make from the same arguments, and print
+// how hard every one is and how the batch splits into four levels of difficulty
+class PuzzleAnalysis {
+  // the most tries the search for the cheapest tree makes
+  static final long SEARCH_TRIES = 100000;
+
+  // the number of tiles
+  int tiles;
+  // the clockwise turns of every tile in the cheapest tree, their sum,
+  // and the number of tiles that need any
+  int[] turns;
+  int clicks;
+  int turnedTiles;
+  // the steps the station takes along the cheapest tree to light every tile,
+  // and the tile it takes them to
+  int stationMoves;
+  int goal;
+  // the fewest moves that win the puzzle, and whether every tree was searched for them.
+  // if not, they are the fewest of the trees that were
+  int minMoves;
+  boolean exact;
+  // the length of the longest path through the tree, and the radius of the game
+  int diameter;
+  int radius;
+  // the number of tiles with one wire, and with three or four
+  int deadEnds;
+  int junctions;
+  // the mean number of wires leading on from a tile that is not a dead end,
+  // when the tree is walked from one tile
+  double branching;
+
+  // constructor for the analysis of the given scrambled board, made from the given
+  // tree, with the station at the given index and the given radius
+  PuzzleAnalysis(Board board, EdgeList tree, int station, int radius) {
+    this.tiles = board.size();
+    this.radius = radius;
+    int[] wires = board.treeWires(tree);
+    this.turns = new int[this.tiles];
+    for (int i = 0; i < this.tiles; i++) {
+      int mask = board.wires(i);
+      while (mask != wires[i] && this.turns[i] < 4) {
+        mask = Board.rotateMask(mask);
+        this.turns[i]++;
+      }
+      if (this.turns[i] == 4) {
+        throw new IllegalArgumentException("Tile " + i + " is not a rotation of the tree");
+      }
+      int degree = Integer.bitCount(wires[i]);
+      if (degree == 1) {
+        this.deadEnds++;
+      } else if (degree >= 3) {
+        this.junctions++;
+      }
+    }
+    this.branching = this.tiles - this.deadEnds > 0
+        ? (double) (this.tiles - 1) / (this.tiles - this.deadEnds) : 0;
+    // the tree itself, to walk
+    Board solved = new Board(board.cols, board.rows);
+    for (int i = 0; i < tree.size(); i++) {
+      solved.connect(tree.from[i], tree.to[i]);
+    }
+    solved.addNeighbors();
+    this.diameter = solved.diameter(station).length;
+    this.goal = solved.nearestCenter(station, radius);
+    this.stationMoves = solved.distance[this.goal];
+    this.countTurns();
+    this.minMoves = this.clicks + this.stationMoves;
+    // a tree with fewer moves than that one
+    PuzzleSolver solver = new PuzzleSolver(board);
+    this.exact = solver.cheapest(station, radius, this.minMoves, SEARCH_TRIES);
+    if (solver.bestTurns != null) {
+      this.turns = solver.bestTurns;
+      this.goal = solver.bestGoal;
+      this.countTurns();
+      this.minMoves = solver.best;
+      this.stationMoves = this.minMoves - this.clicks;
+    }
+  }
+
+  // sets the clicks and the turned tiles from the turns of every tile
+  void countTurns() {
+    this.clicks = 0;
+    this.turnedTiles = 0;
+    for (int i = 0; i < this.tiles; i++) {
+      this.clicks = this.clicks + this.turns[i];
+      if (this.turns[i] > 0) {
+        this.turnedTiles++;
+      }
+    }
+  }
+
+  // constructor for the analysis of the puzzle the given engine started with
+  PuzzleAnalysis(PuzzleEngine engine) {
+    this(engine.startBoard(), engine.mst, Board.findStation(engine.currState), engine.radius);
+  }
+
+  // makes and analyzes the puzzles given on the command line
+  public static void main(String[] args) throws IOException {
+    if (args.length < 5) {
+      System.out.println("usage: java PuzzleAnalysis count cols rows bias seed [threads]");
+      return;
+    }
+    int count = Integer.parseInt(args[0]);
+    int cols = Integer.parseInt(args[1]);
+    int rows = Integer.parseInt(args[2]);
+    int bias = Integer.parseInt(args[3]);
+    long seed = Long.parseLong(args[4]);
+    int threads = args.length > 5 ? Integer.parseInt(args[5])
+        : Runtime.getRuntime().availableProcessors();
+    AnalysisSink sink = new AnalysisSink(count);
+    BatchGenerator batch = new BatchGenerator(cols, rows, bias, sink);
+    long start = System.nanoTime();
+    batch.generate(count, seed, threads);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    PuzzleAnalysis[] analyses = sink.analyses;
+    // the levels split the puzzles into quarters by fewest moves per tile
+    double[] perTile = new double[count];
+    for (int i = 0; i < count; i++) {
+      perTile[i] = analyses[i].movesPerTile();
+    }
+    double[] sorted = perTile.clone();
+    Arrays.sort(sorted);
+    double[] bounds = new double[3];
+    for (int q = 0; q < bounds.length; q++) {
+      bounds[q] = sorted[(q + 1) * count / 4];
+    }
+    System.out.println("number minMoves clicks turnedTiles stationMoves diameter radius "
+        + "deadEnds junctions branching exact level");
+    int[] levels = new int[4];
+    for (int i = 0; i < count; i++) {
+      int level = 0;
+      while (level < bounds.length && perTile[i] >= bounds[level]) {
+        level++;
+      }
+      levels[level]++;
+      System.out.println(i + " " + analyses[i] + " " + (level + 1));
+    }
+    System.out.println(String.format(
+        "%d puzzles of %dx%d in %.2fs, %.1f puzzles/s, levels %s split at %s moves per tile",
+        count, cols, rows, seconds, count / seconds, Arrays.toString(levels),
+        Arrays.toString(bounds)));
+  }
+
+  // returns the fewest moves that win the puzzle for every tile
+  double movesPerTile() {
+    return (double) this.minMoves / this.tiles;
+  }
+
+  // returns the numbers of the analysis, separated by spaces
+  public String toString() {
+    return this.minMoves + " " + this.clicks + " " + this.turnedTiles + " " + this.stationMoves
+        + " " + this.diameter + " " + this.radius + " " + this.deadEnds + " " + this.junctions
+        + " " + String.format("%.3f", this.branching) + " " + this.exact;
+  }
+}
@@ -0,0 +1,182 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// class that plays a puzzle by the clicks and keys of a player without drawing
+// anything: it turns every click and key into a move of the PuzzleEngine, and keeps
+// the time, the name being entered and whether the player quit. LightEmAll draws it
+// in a window, and InputReplay gives it recorded input without one
+class PuzzleControls {
+  // the puzzle being played
+  PuzzleEngine engine;
+  // the size of the window the board is in, and of every tile
+  int width;
+  int height;
+  int tileSize;
+  // represents the time taken
+  int timer;
+  // represents the name of the user plaing the game
+  String name;
+  // represents whether or not the game is over
+  boolean gameOver;
+  // where the winning entries are written, in the background, null to write them nowhere
+  LeaderboardWriter leaderboard;
+  // where the input is recorded, null if it is not, see InputLog
+  InputLog recording;
+
+  // constructor for the controls of the given puzzle in a window of the given size,
+  // whose winning entries are written to the given leaderboard, if it is not null
+  PuzzleControls(PuzzleEngine engine, int width, int height, LeaderboardWriter leaderboard) {
+    this.engine = engine;
+    this.width = width;
+    this.height = height;
+    this.tileSize = Math.min((int) (.9 * width / engine.numTilesWidth),
+        (int) (.9 * height / engine.numTilesHeight));
+    this.timer = 0;
+    this.name = "";
+    this.gameOver = false;
+    this.leaderboard = leaderboard;
+    this.recording = null;
+  }
+
+  // counts another second
+  void tick() {
+    if (this.recording != null) {
+      this.recording.tick();
+    }
+    this.timer++;
+  }
+
+  // rotates the tile at the given place if it is left clicked on, counts a move if it
+  // is clicked on with another button, and shows the solution if its button is clicked
+  void click(int x, int y, String buttonName) {
+    if (this.recording != null) {
+      this.recording.click(x, y, buttonName);
+    }
+    int numTilesWidth = this.engine.numTilesWidth;
+    int numTilesHeight = this.engine.numTilesHeight;
+    // the top left corner of the board. a click is on the board from there up to,
+    // but not on, its far edges
+    int left = this.width / 2 - this.tileSize * numTilesWidth / 2;
+    int top = this.height / 2 - this.tileSize * numTilesHeight / 2;
+    if (x >= left && x < left + this.tileSize * numTilesWidth
+        && y >= top && y < top + this.tileSize * numTilesHeight && !this.isWinner()) {
+
+      int w = (x - left) / this.tileSize;
+      int h = (y - top) / this.tileSize;
+      if (buttonName.equals("LeftButton")) {
+        this.engine.rotate(w, h);
+      } else {
+        this.engine.moves++;
+      }
+    }
+
+    // if the show solution button is clicked
+    if (x < (int) (.925 * this.width) && x > (int) (.675 * this.width)
+        && y < (int) (.05 * this.height)) {
+      this.showSolution();
+    }
+  }
+
+  // handles the given key
+  void key(String key) {
+    if (this.recording != null) {
+      this.recording.key(key);
+    }
+    // if the game has been won, writes the name that is currently being entered
+    if (this.isWinner()) {
+      this.writeName(key);
+    }
+    if (!this.isWinner() && key.equals("shift")) {
+      this.reset();
+      return;
+    }
+    // p shows or hides how long the callbacks take, which only changes the drawing
+    if (!this.isWinner() && key.equals("p")) {
+      return;
+    }
+    // takes back the last move, or makes it again, while the game is neither won nor lost
+    boolean playing = !this.isWinner() && this.engine.movesLeft() >= 0;
+    if (playing && key.equals("z")) {
+      this.engine.undo();
+      return;
+    }
+    if (playing && key.equals("y")) {
+      this.engine.redo();
+      return;
+    }
+    if (key.equals(" ") && this.isWinner()) {
+      this.newGame();
+      return;
+    }
+    if (key.equals("escape")) {
+      this.gameOver = true;
+    }
+    // appends the entry to the existing file
+    if (key.equals("enter") && this.isWinner()) {
+      String leaderName = this.name;
+      this.name = "";
+      if (this.leaderboard == null) {
+        return;
+      }
+      // the entry is written in the background, so the game does not wait for the disk
+      this.leaderboard.add(LeaderboardWriter.entry(leaderName, this.engine.numTilesWidth,
+          this.engine.numTilesHeight, this.engine.moves, this.engine.lookedAtSolution));
+      return;
+    }
+
+    if (!this.isWinner()) {
+      int dir = 0;
+      if (key.equals("up")) {
+        dir = Board.TOP;
+      } else if (key.equals("down")) {
+        dir = Board.BOTTOM;
+      } else if (key.equals("right")) {
+        dir = Board.RIGHT;
+      } else if (key.equals("left")) {
+        dir = Board.LEFT;
+      }
+      this.engine.moveStation(dir);
+    }
+  }
+
+  // shows the solution for the puzzle
+  void showSolution() {
+    this.engine.showSolution();
+    this.timer = 0;
+  }
+
+  // resets the board to the original state
+  void reset() {
+    this.engine.reset();
+    this.timer = 0;
+  }
+
+  // creates a new puzzle board.
+  void newGame() {
+    this.engine.newGame();
+    this.name = "";
+    this.timer = 0;
+  }
+
+  // checks to see if every gamepiece is lit up
+  boolean isWinner() {
+    return this.engine.isWinner();
+  }
+
+  // sets the name to the string given by the key method
+  void writeName(String key) {
+    // creates an arraylist of "good keys" that can be used to enter in your name.
+    ArrayList<String> goodKeys = new ArrayList<String>(
+        Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m", "n", "o",
+            "p", "q", "r", "s", "t", "u", "v", "w", "x", "y", "z"));
+    if (goodKeys.contains(key)) {
+      this.name = this.name + key;
+    }
+    if (key.equals("backspace")) {
+      String temp = this.name;
+      if (temp.length() > 0) {
+        this.name = temp.substring(0, temp.length() - 1);
+      }
+    }
+  }
+}
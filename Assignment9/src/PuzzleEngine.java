@@ -0,0 +1,434 @@
+import java.util.Random;
+
+// class that represents the rules of one puzzle: making it, rotating tiles, moving the
+// power station, lighting, winning and starting over. it draws nothing, keeps no time
+// and writes no files, so puzzles can be played by programs as well as in a LightEmAll
+class PuzzleEngine {
+  // the longest showSolution spends solving the board before it shows the tree
+  // the puzzle was made from instead
+  static final long SOLVE_NANOS = 1000000000L;
+  // the most tries showSolution lets the solver make when the game has to end the same
+  // way every time it is played, whatever the machine, as a recorded game does
+  static final long SOLVE_TRIES = 10000;
+
+  // the tiles of the board, stored in column-major order
+  Board board;
+  // a list of edges of the minimum spanning tree
+  EdgeList mst;
+  // represents the number of tiles in on the board
+  int numTilesWidth;
+  int numTilesHeight;
+  // the current location of the power station
+  int powerRow;
+  int powerCol;
+  // the radius of the board
+  int radius;
+  // the board index of the tile in the middle of the tree,
+  // where the power station lights every tile
+  int center;
+  // represents the number of moves made so far
+  int moves;
+  // represents the minimum number of moves needed to solve the game.
+  int numMovesNeeded;
+  // represents the tiles of the initial board that is created, see saveCurrState
+  byte[] currState;
+  // represents whether the solution has been looked at
+  boolean lookedAtSolution;
+  // represents the bias, should be given as an int between -3 and 3
+  int bias;
+  // field for testing randoms
+  Random random;
+  // how the spanning tree of every new puzzle is built
+  TreeGenerator generator;
+  // where ready-made puzzles are taken from, null to always make them here
+  PuzzlePool pool;
+  // the moves made since the puzzle was started or reset, for undoing them
+  MoveHistory history;
+  // where the time taken by every phase of making a puzzle is recorded, which is
+  // PerfMonitor.OFF unless the puzzle is made for a game on screen
+  PerfMonitor perf;
+  // the most tries showSolution makes before it gives up solving the board, or 0 to
+  // give it SOLVE_NANOS instead, see InputLog
+  long solveTries;
+
+  // constructor for a new puzzle with the given number of tiles
+  PuzzleEngine(int numTilesWidth, int numTilesHeight, int bias, Random random,
+      TreeGenerator generator) {
+    this(numTilesWidth, numTilesHeight, bias, random, generator, PerfMonitor.OFF);
+  }
+
+  // constructor for a new puzzle with the given number of tiles, whose phases
+  // are timed by the given monitor
+  PuzzleEngine(int numTilesWidth, int numTilesHeight, int bias, Random random,
+      TreeGenerator generator, PerfMonitor perf) {
+    this.numTilesWidth = numTilesWidth;
+    this.numTilesHeight = numTilesHeight;
+    this.bias = bias;
+    this.random = random;
+    this.generator = generator;
+    this.history = new MoveHistory();
+    this.perf = perf;
+    this.newGame();
+  }
+
+  // constructor for an engine with no puzzle yet, for a puzzle to be loaded into,
+  // see PuzzleLibrary
+  PuzzleEngine(Random random, TreeGenerator generator) {
+    this.random = random;
+    this.generator = generator;
+    this.history = new MoveHistory();
+    this.perf = PerfMonitor.OFF;
+  }
+
+  // constructor for a new puzzle that is taken from the given pool if it has one ready,
+  // and for whose new games the pool is used the same way
+  PuzzleEngine(int numTilesWidth, int numTilesHeight, int bias, Random random,
+      TreeGenerator generator, PuzzlePool pool) {
+    this.numTilesWidth = numTilesWidth;
+    this.numTilesHeight = numTilesHeight;
+    this.bias = bias;
+    this.random = random;
+    this.generator = generator;
+    this.pool = pool;
+    this.history = new MoveHistory();
+    this.perf = PerfMonitor.OFF;
+    this.newGame();
+  }
+
+  // starts a new puzzle, taking a ready-made one from the pool if there is one,
+  // and otherwise making it
+  void newGame() {
+    long start = this.perf.start();
+    PuzzleEngine ready = null;
+    if (this.pool != null) {
+      ready = this.pool.take(this.numTilesWidth, this.numTilesHeight, this.bias,
+          this.generator);
+    }
+    if (ready != null) {
+      this.adopt(ready);
+    } else {
+      this.makeGame();
+    }
+    this.perf.lap(PerfMonitor.NEW_GAME, start);
+  }
+
+  // takes over the puzzle of the given engine, which must not be used afterwards
+  void adopt(PuzzleEngine other) {
+    this.board = other.board;
+    this.mst = other.mst;
+    this.powerCol = other.powerCol;
+    this.powerRow = other.powerRow;
+    this.radius = other.radius;
+    this.center = other.center;
+    this.moves = other.moves;
+    this.numMovesNeeded = other.numMovesNeeded;
+    this.currState = other.currState;
+    this.lookedAtSolution = other.lookedAtSolution;
+    this.history.clear();
+  }
+
+  // creates a new puzzle board, with the power station in the upper middle of the board
+  void makeGame() {
+    PerfMonitor perf = this.perf;
+    long time = perf.start();
+    this.powerCol = this.numTilesWidth / 2;
+    this.powerRow = 0;
+    // sets the board using the tree generator
+    this.board = this.createBoard();
+    time = perf.lap(PerfMonitor.CREATE_BOARD, time);
+    this.mst = this.generateTree();
+    time = perf.lap(PerfMonitor.GENERATE_TREE, time);
+    this.createBoardWithMst();
+    // removes and then adds all the neighbors for each tile
+    this.removeNeighbors();
+    this.addNeighbors();
+    this.turnGamePieceOff();
+    time = perf.lap(PerfMonitor.WIRE, time);
+    // sets the radius, and the center of the tree
+    TreeDiameter tree = this.measureTree();
+    this.radius = tree.radius();
+    this.center = tree.center;
+    time = perf.lap(PerfMonitor.MEASURE, time);
+    this.moves = 0;
+    this.lightCells();
+    time = perf.lap(PerfMonitor.LIGHT, time);
+    // gets the minimum number of moves needed to win the game and rotates the tiles
+    this.numMovesNeeded = this.rotations();
+    time = perf.lap(PerfMonitor.SCRAMBLE, time);
+    // saves the current state to allow for resets
+    this.saveCurrState();
+    perf.lap(PerfMonitor.SAVE, time);
+    this.lookedAtSolution = false;
+    this.history.clear();
+  }
+
+  // saves the tiles of the board as they are now, for resets
+  void saveCurrState() {
+    this.currState = this.board.saveTiles();
+  }
+
+  // returns a new board with the tiles the puzzle started with, linked and not lit
+  Board startBoard() {
+    Board start = new Board(this.board.cols, this.board.rows);
+    start.restore(this.currState);
+    return start;
+  }
+
+  // creates the grid, with the power station on its tile and no wires
+  Board createBoard() {
+    CreateBoardEvent event = new CreateBoardEvent();
+    event.begin();
+    Board temp = new Board(this.numTilesWidth, this.numTilesHeight);
+    temp.setStation(temp.index(this.powerCol, this.powerRow), true);
+    if (event.shouldCommit()) {
+      event.cols = temp.cols;
+      event.rows = temp.rows;
+      event.commit();
+    }
+    return temp;
+  }
+
+  // rotates the tiles at random and returns the fewest moves that solve the puzzle,
+  // see PuzzleAnalysis
+  int rotations() {
+    ScrambleEvent event = new ScrambleEvent();
+    event.begin();
+    for (int i = 0; i < this.board.size(); i++) {
+      int rotations = this.random.nextInt(4);
+      while (rotations > 0) {
+        this.board.rotate(i);
+        rotations--;
+      }
+    }
+    this.removeNeighbors();
+    this.addNeighbors();
+    this.turnGamePieceOff();
+    this.lightCells();
+    int movesNeeded = new PuzzleAnalysis(this.board, this.mst,
+        this.board.index(this.powerCol, this.powerRow), this.radius).minMoves;
+    if (event.shouldCommit()) {
+      event.cols = this.board.cols;
+      event.rows = this.board.rows;
+      event.bias = this.bias;
+      event.movesNeeded = movesNeeded;
+      event.commit();
+    }
+    return movesNeeded;
+  }
+
+  // rotates the tile at the given column and row clockwise, and counts it as a move.
+  // only the tile, its neighbors and the tiles whose power changes are updated
+  void rotate(int col, int row) {
+    if (col < 0 || col >= this.numTilesWidth || row < 0 || row >= this.numTilesHeight) {
+      throw new IndexOutOfBoundsException("No tile " + col + "," + row + " on a "
+          + this.numTilesWidth + "x" + this.numTilesHeight + " board");
+    }
+    int index = this.board.index(col, row);
+    this.turn(index, 1);
+    this.history.add(MoveHistory.rotation(index));
+    this.moves++;
+  }
+
+  // rotates the tile at the given index clockwise the given number of times
+  void turn(int index, int turns) {
+    LightingEvent event = new LightingEvent();
+    event.begin();
+    this.board.rotateAndRelight(index, this.board.index(this.powerCol, this.powerRow),
+        this.radius + 1, turns);
+    this.commitLighting(event);
+  }
+
+  // moves the power station one tile in the given direction, if it is connected that way,
+  // and counts it as a move. returns whether the station moved
+  boolean moveStation(int dir) {
+    boolean moved = this.step(dir);
+    this.history.add(MoveHistory.step(moved ? dir : 0));
+    this.moves++;
+    return moved;
+  }
+
+  // moves the power station one tile in the given direction, if it is connected that way,
+  // and relights the board. returns whether the station moved
+  boolean step(int dir) {
+    int station = this.board.index(this.powerCol, this.powerRow);
+    boolean moved = dir != 0 && this.board.isConnected(station, dir);
+    if (moved) {
+      int next = this.board.neighbor(station, dir);
+      this.board.setStation(station, false);
+      this.board.setStation(next, true);
+      this.powerCol = this.board.col(next);
+      this.powerRow = this.board.row(next);
+    }
+    // wipe the cells
+    this.turnGamePieceOff();
+    this.lightCells();
+    return moved;
+  }
+
+  // returns how many times every tile on the board has to be rotated clockwise to
+  // solve it, or null if that is not found within the given number of nanoseconds
+  int[] solve(long budgetNanos) {
+    return this.solve(budgetNanos, Long.MAX_VALUE);
+  }
+
+  // returns how many times every tile on the board has to be rotated clockwise to
+  // solve it, or null if that is not found within the given number of nanoseconds
+  // and of tries
+  int[] solve(long budgetNanos, long budgetTries) {
+    PuzzleSolver solver = new PuzzleSolver(this.board);
+    solver.maxTries = budgetTries;
+    return solver.solve(budgetNanos) ? solver.turns() : null;
+  }
+
+  // takes back the last move that has not been taken back, so it no longer counts.
+  // returns whether there was one
+  boolean undo() {
+    if (!this.history.canUndo()) {
+      return false;
+    }
+    int move = this.history.undo();
+    if (MoveHistory.isStep(move)) {
+      this.step(Board.opposite(MoveHistory.target(move)));
+    } else {
+      this.turn(MoveHistory.target(move), 3);
+    }
+    this.moves--;
+    return true;
+  }
+
+  // makes the last move that was taken back again. returns whether there was one
+  boolean redo() {
+    if (!this.history.canRedo()) {
+      return false;
+    }
+    int move = this.history.redo();
+    if (MoveHistory.isStep(move)) {
+      this.step(MoveHistory.target(move));
+    } else {
+      this.turn(MoveHistory.target(move), 1);
+    }
+    this.moves++;
+    return true;
+  }
+
+  // shows the solution for the puzzle, with the power station back in the upper middle.
+  // the tiles on the board are rotated into place by a PuzzleSolver, unless it runs out
+  // of time, or of tries if it is given solveTries, or finds a tree too long to light
+  // from its center, when the board is made again from the tree the puzzle was made from
+  void showSolution() {
+    int[] turns = this.solveTries > 0 ? this.solve(Long.MAX_VALUE, this.solveTries)
+        : this.solve(SOLVE_NANOS);
+    if (turns != null) {
+      for (int i = 0; i < turns.length; i++) {
+        for (int r = 0; r < turns[i]; r++) {
+          this.board.rotate(i);
+        }
+      }
+      this.addNeighbors();
+    }
+    if (turns == null || this.getRadius() > this.radius) {
+      this.board = this.createBoard();
+      this.createBoardWithMst();
+      this.removeNeighbors();
+      this.addNeighbors();
+    }
+    this.board.setStation(this.board.index(this.powerCol, this.powerRow), false);
+    this.powerCol = this.numTilesWidth / 2;
+    this.powerRow = 0;
+    this.board.setStation(this.board.index(this.powerCol, this.powerRow), true);
+    this.turnGamePieceOff();
+    this.lightCells();
+    this.moves = 0;
+    this.lookedAtSolution = true;
+    this.history.clear();
+  }
+
+  // resets the board to the original state, copying the saved tiles back into the
+  // board and linking them again
+  void reset() {
+    this.board.restore(this.currState);
+    int station = this.board.findStation();
+    this.powerCol = this.board.col(station);
+    this.powerRow = this.board.row(station);
+    this.moves = 0;
+    this.lightCells();
+    this.lookedAtSolution = false;
+    this.history.clear();
+  }
+
+  // sets the board using the minimum spanning tree that was generated
+  void createBoardWithMst() {
+    for (int i = 0; i < this.mst.size(); i++) {
+      this.board.connect(this.mst.from[i], this.mst.to[i]);
+    }
+  }
+
+  // turns every tile to be powered off
+  void turnGamePieceOff() {
+    this.board.turnOff();
+  }
+
+  // lights the cells based on the radius, starting from the power station
+  void lightCells() {
+    LightingEvent event = new LightingEvent();
+    event.begin();
+    this.board.lightCells(this.board.index(this.powerCol, this.powerRow), this.radius + 1);
+    this.commitLighting(event);
+  }
+
+  // records the given lighting of the board, if it is being recorded
+  void commitLighting(LightingEvent event) {
+    if (event.shouldCommit()) {
+      event.cols = this.board.cols;
+      event.rows = this.board.rows;
+      event.radius = this.radius;
+      event.tilesLit = this.board.lit;
+      event.commit();
+    }
+  }
+
+  // checks to see if every tile is lit up
+  boolean isWinner() {
+    return this.board.allLit();
+  }
+
+  // returns how many more moves can be made before the puzzle is lost
+  int movesLeft() {
+    return 3 * this.numMovesNeeded / 2 + this.radius - this.moves;
+  }
+
+  // goes through every tile and removes their neighbors.
+  void removeNeighbors() {
+    this.board.removeNeighbors();
+  }
+
+  // goes through every tile and adds their corresponding neighbors.
+  void addNeighbors() {
+    this.board.addNeighbors();
+  }
+
+  // gets the radius of the board.
+  int getRadius() {
+    return this.measureTree().radius();
+  }
+
+  // returns the longest path through the tiles linked to the power station
+  TreeDiameter measureTree() {
+    RadiusEvent event = new RadiusEvent();
+    event.begin();
+    TreeDiameter tree = this.board.diameter(this.board.index(this.powerCol, this.powerRow));
+    if (event.shouldCommit()) {
+      event.cols = this.board.cols;
+      event.rows = this.board.rows;
+      event.diameter = tree.length;
+      event.radius = tree.radius();
+      event.commit();
+    }
+    return tree;
+  }
+
+  // returns the edges of a new spanning tree over the board
+  EdgeList generateTree() {
+    return this.generator.generate(this.board, this.bias, this.random);
+  }
+}
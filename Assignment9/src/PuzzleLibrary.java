@@ -0,0 +1,154 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// class that reads puzzles out of a puzzle library file, which it maps into memory
+// so that loading a puzzle reads only that puzzle's bytes. the file is laid out as:
+//   header  magic, version, number of puzzles, size of the largest puzzle (4 ints)
+//   index   the offset in the file of every puzzle, in order (a long each)
+//   puzzles one after another, each made of
+//     cols, rows, bias, radius, center, station, moves needed, 0 (8 ints)
+//     the solved wires of every tile, two tiles a byte, the first in the low half
+//     how many times every tile was rotated, four tiles a byte, the first lowest
+// every tile is rotated from its solved wires as few times as gives its scrambled wires
+class PuzzleLibrary {
+  // the first int of every puzzle library file, "LEM1"
+  static final int MAGIC = 0x4C454D31;
+  static final int VERSION = 1;
+  // the sizes of the file header and of the header of every puzzle
+  static final int HEADER_BYTES = 16;
+  static final int PUZZLE_HEADER_BYTES = 32;
+  // how much of the file every mapped part starts after the one before it
+  static final long SEGMENT_BYTES = 1L << 30;
+
+  // the number of puzzles in the file, the size of the largest one, and of the file
+  int count;
+  int maxPuzzleBytes;
+  long size;
+  // the mapped parts of the file. every part also maps the largest puzzle's size past
+  // where the next part starts, so every puzzle is whole in the part it starts in
+  MappedByteBuffer[] segments;
+
+  // constructor that maps the puzzle library file at the given path
+  PuzzleLibrary(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      while (header.hasRemaining() && channel.read(header) >= 0) {
+        continue;
+      }
+      header.flip();
+      if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+        throw new IOException("Not a puzzle library: " + path);
+      }
+      if (header.getInt() != VERSION) {
+        throw new IOException("Unknown puzzle library version: " + path);
+      }
+      this.count = header.getInt();
+      this.maxPuzzleBytes = header.getInt();
+      long size = channel.size();
+      this.size = size;
+      int parts = (int) ((size + SEGMENT_BYTES - 1) / SEGMENT_BYTES);
+      this.segments = new MappedByteBuffer[Math.max(parts, 1)];
+      for (int i = 0; i < parts; i++) {
+        long start = i * SEGMENT_BYTES;
+        long length = Math.min(size - start, SEGMENT_BYTES + this.maxPuzzleBytes);
+        this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+      }
+    }
+  }
+
+  // returns the number of bytes a puzzle with the given number of tiles takes up
+  static int puzzleBytes(int tiles) {
+    return PUZZLE_HEADER_BYTES + (tiles + 1) / 2 + (tiles + 3) / 4;
+  }
+
+  // returns the number of puzzles in the library
+  int size() {
+    return this.count;
+  }
+
+  // returns the offset in the file of the puzzle with the given number, which has to be
+  // past the index and leave room for the header of the puzzle before the end of the file
+  long offset(int number) {
+    if (number < 0 || number >= this.count) {
+      throw new IndexOutOfBoundsException("No puzzle " + number + " of " + this.count);
+    }
+    long at = HEADER_BYTES + 8L * number;
+    long offset = this.segments[(int) (at / SEGMENT_BYTES)].getLong((int) (at % SEGMENT_BYTES));
+    if (offset < HEADER_BYTES + 8L * this.count || offset > this.size - PUZZLE_HEADER_BYTES) {
+      throw new UncheckedIOException(new IOException(
+          "Puzzle " + number + " is not in the library, its offset is " + offset));
+    }
+    return offset;
+  }
+
+  // returns a new engine playing the puzzle with the given number
+  PuzzleEngine load(int number) {
+    PuzzleEngine engine = new PuzzleEngine(new Random(), new KruskalGenerator());
+    this.load(number, engine);
+    return engine;
+  }
+
+  // puts the puzzle with the given number into the given engine, as a new game.
+  // the size and station of the puzzle are checked before anything is made of them
+  void load(int number, PuzzleEngine engine) {
+    long offset = this.offset(number);
+    ByteBuffer bytes = this.segments[(int) (offset / SEGMENT_BYTES)];
+    int at = (int) (offset % SEGMENT_BYTES);
+    int cols = bytes.getInt(at);
+    int rows = bytes.getInt(at + 4);
+    int station = bytes.getInt(at + 20);
+    long tiles = (long) cols * rows;
+    if (cols <= 0 || rows <= 0 || tiles > this.maxPuzzleBytes
+        || PuzzleLibrary.puzzleBytes((int) tiles) > this.maxPuzzleBytes
+        || offset + PuzzleLibrary.puzzleBytes((int) tiles) > this.size) {
+      throw new UncheckedIOException(new IOException(
+          "Puzzle " + number + " is " + cols + "x" + rows + ", which is not in the library"));
+    }
+    if (station < 0 || station >= tiles) {
+      throw new UncheckedIOException(new IOException(
+          "Puzzle " + number + " has its station at " + station + ", off its board"));
+    }
+    Board board = new Board(cols, rows);
+    EdgeList mst = new EdgeList(Math.max(cols * rows - 1, 0));
+    int wiresAt = at + PUZZLE_HEADER_BYTES;
+    int rotationsAt = wiresAt + (board.size() + 1) / 2;
+    for (int i = 0; i < board.size(); i++) {
+      int solved = (bytes.get(wiresAt + i / 2) >> (4 * (i % 2))) & Board.WIRES;
+      int rotations = (bytes.get(rotationsAt + i / 4) >> (2 * (i % 4))) & 3;
+      if ((solved & Board.RIGHT) != 0) {
+        mst.add(i, i + rows, 0);
+      }
+      if ((solved & Board.BOTTOM) != 0) {
+        mst.add(i, i + 1, 0);
+      }
+      int scrambled = solved;
+      for (int r = 0; r < rotations; r++) {
+        scrambled = Board.rotateMask(scrambled);
+      }
+      board.tiles[i] = (byte) (i == station ? scrambled | Board.STATION : scrambled);
+    }
+    engine.numTilesWidth = cols;
+    engine.numTilesHeight = rows;
+    engine.bias = bytes.getInt(at + 8);
+    engine.radius = bytes.getInt(at + 12);
+    engine.center = bytes.getInt(at + 16);
+    engine.numMovesNeeded = bytes.getInt(at + 24);
+    engine.powerCol = board.col(station);
+    engine.powerRow = board.row(station);
+    engine.board = board;
+    engine.mst = mst;
+    engine.moves = 0;
+    engine.addNeighbors();
+    engine.turnGamePieceOff();
+    engine.lightCells();
+    engine.saveCurrState();
+    engine.lookedAtSolution = false;
+    engine.history.clear();
+  }
+}
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+// class that writes a puzzle library file for a known number of puzzles. puzzles can be
+// written in any order and from many threads at once, each to its place in the index.
+// the header is only written once every puzzle has been, so a library that was not
+// finished can not be opened
+class PuzzleLibraryWriter implements AutoCloseable, PuzzleSink {
+  // the file being written, and its path
+  FileChannel channel;
+  Path path;
+  // the number of puzzles the file has room for in its index
+  int count;
+  // which puzzles have been written, one for every one that has, and how many
+  AtomicIntegerArray placed;
+  AtomicInteger written;
+  // where the next puzzle goes, and the size of the largest puzzle so far
+  AtomicLong end;
+  AtomicInteger maxPuzzleBytes;
+
+  // constructor for a writer of a new file at the given path, for the given number
+  // of puzzles
+  PuzzleLibraryWriter(Path path, int count) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    this.path = path;
+    this.count = count;
+    this.placed = new AtomicIntegerArray(count);
+    this.written = new AtomicInteger();
+    this.end = new AtomicLong(PuzzleLibrary.HEADER_BYTES + 8L * count);
+    this.maxPuzzleBytes = new AtomicInteger();
+  }
+
+  // writes the given puzzle, whose seed is not kept
+  public void accept(int number, long seed, PuzzleEngine engine) throws IOException {
+    this.put(number, engine);
+  }
+
+  // writes the puzzle the given engine started with, as the puzzle with the given number
+  void put(int number, PuzzleEngine engine) throws IOException {
+    if (number < 0 || number >= this.count) {
+      throw new IndexOutOfBoundsException("No puzzle " + number + " of " + this.count);
+    }
+    ByteBuffer puzzle = PuzzleLibraryWriter.encode(engine);
+    int length = puzzle.remaining();
+    long offset = this.end.getAndAdd(length);
+    this.maxPuzzleBytes.accumulateAndGet(length, Math::max);
+    PuzzleLibraryWriter.writeFully(this.channel, puzzle, offset);
+    ByteBuffer entry = ByteBuffer.allocate(8);
+    entry.putLong(0, offset);
+    PuzzleLibraryWriter.writeFully(this.channel, entry,
+        PuzzleLibrary.HEADER_BYTES + 8L * number);
+    if (this.placed.getAndSet(number, 1) == 0) {
+      this.written.incrementAndGet();
+    }
+  }
+
+  // returns the bytes of the puzzle the given engine started with
+  static ByteBuffer encode(PuzzleEngine engine) {
+    byte[] start = engine.currState;
+    int tiles = start.length;
+    int[] solved = engine.board.treeWires(engine.mst);
+    ByteBuffer puzzle = ByteBuffer.allocate(PuzzleLibrary.puzzleBytes(tiles));
+    puzzle.putInt(engine.board.cols);
+    puzzle.putInt(engine.board.rows);
+    puzzle.putInt(engine.bias);
+    puzzle.putInt(engine.radius);
+    puzzle.putInt(engine.center);
+    puzzle.putInt(Board.findStation(start));
+    puzzle.putInt(engine.numMovesNeeded);
+    puzzle.putInt(0);
+    int wiresAt = PuzzleLibrary.PUZZLE_HEADER_BYTES;
+    int rotationsAt = wiresAt + (tiles + 1) / 2;
+    for (int i = 0; i < tiles; i++) {
+      int rotations = 0;
+      int mask = solved[i];
+      while (mask != (start[i] & Board.WIRES) && rotations < 4) {
+        mask = Board.rotateMask(mask);
+        rotations++;
+      }
+      if (rotations == 4) {
+        throw new IllegalArgumentException("Tile " + i + " is not a rotation of the tree");
+      }
+      puzzle.put(wiresAt + i / 2,
+          (byte) (puzzle.get(wiresAt + i / 2) | solved[i] << 4 * (i % 2)));
+      puzzle.put(rotationsAt + i / 4,
+          (byte) (puzzle.get(rotationsAt + i / 4) | rotations << 2 * (i % 4)));
+    }
+    puzzle.clear();
+    return puzzle;
+  }
+
+  // writes all of the given bytes to the given channel at the given position
+  static void writeFully(FileChannel channel, ByteBuffer bytes, long position)
+      throws IOException {
+    while (bytes.hasRemaining()) {
+      position = position + channel.write(bytes, position);
+    }
+  }
+
+  // writes the header and closes the file, or if not every puzzle was written, closes
+  // the file without a header and throws an exception
+  public void close() throws IOException {
+    if (this.written.get() < this.count) {
+      this.channel.close();
+      throw new IOException("Only " + this.written.get() + " of " + this.count
+          + " puzzles were written, the library is not finished: " + this.path);
+    }
+    ByteBuffer header = ByteBuffer.allocate(PuzzleLibrary.HEADER_BYTES);
+    header.putInt(PuzzleLibrary.MAGIC);
+    header.putInt(PuzzleLibrary.VERSION);
+    header.putInt(this.count);
+    header.putInt(this.maxPuzzleBytes.get());
+    header.flip();
+    PuzzleLibraryWriter.writeFully(this.channel, header, 0);
+    this.channel.close();
+  }
+}
@@ -0,0 +1,106 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// class that keeps a few ready-made puzzles of every size, bias and tree generator that
+// has been asked for, made on background threads, so a new game can start without
+// making one. a puzzle is made with the generator it was asked for with, which keeps
+// no state, so the threads share it
+class PuzzlePool {
+  // the pool shared by the games that do not need to repeat their puzzles
+  static PuzzlePool shared;
+
+  // the most puzzles kept ready for every size, bias and generator
+  int capacity;
+  // the ready puzzles, and the number being made, for every size, bias and generator
+  ConcurrentHashMap<String, ArrayBlockingQueue<PuzzleEngine>> ready;
+  ConcurrentHashMap<String, AtomicInteger> making;
+  // the background threads that make the puzzles
+  ExecutorService executor;
+  // where the seeds of the puzzles come from
+  SplittableRandom seeds;
+
+  // constructor for a pool that keeps the given number of puzzles of every size, bias and
+  // generator ready, made by the given number of background threads
+  PuzzlePool(int capacity, int threads, long seed) {
+    this.capacity = capacity;
+    this.ready = new ConcurrentHashMap<String, ArrayBlockingQueue<PuzzleEngine>>();
+    this.making = new ConcurrentHashMap<String, AtomicInteger>();
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "puzzle-pool");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    this.seeds = new SplittableRandom(seed);
+  }
+
+  // returns the pool shared by the games, making it the first time
+  static synchronized PuzzlePool shared() {
+    if (shared == null) {
+      int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+      shared = new PuzzlePool(2, threads, System.nanoTime());
+    }
+    return shared;
+  }
+
+  // returns the name of the given size, bias and generator in the pool
+  static String key(int cols, int rows, int bias, TreeGenerator generator) {
+    return cols + "x" + rows + ":" + bias + ":" + generator.getClass().getName();
+  }
+
+  // returns a ready puzzle of the given size and bias made with the given generator,
+  // or null if there is none yet. either way, more are made in the background
+  PuzzleEngine take(int cols, int rows, int bias, TreeGenerator generator) {
+    PuzzleEngine puzzle = this.queue(cols, rows, bias, generator).poll();
+    this.prepare(cols, rows, bias, generator);
+    return puzzle;
+  }
+
+  // starts making puzzles of the given size and bias with the given generator in the
+  // background, until as many are ready or being made as the pool keeps
+  void prepare(int cols, int rows, int bias, TreeGenerator generator) {
+    String key = PuzzlePool.key(cols, rows, bias, generator);
+    ArrayBlockingQueue<PuzzleEngine> queue = this.queue(cols, rows, bias, generator);
+    AtomicInteger inProgress = this.making.computeIfAbsent(key, k -> new AtomicInteger());
+    while (true) {
+      int made = inProgress.get();
+      if (queue.size() + made >= this.capacity) {
+        return;
+      }
+      if (inProgress.compareAndSet(made, made + 1)) {
+        long seed = this.nextSeed();
+        this.executor.execute(() -> {
+          try {
+            queue.offer(new PuzzleEngine(cols, rows, bias, new Random(seed), generator));
+          } finally {
+            inProgress.decrementAndGet();
+          }
+        });
+      }
+    }
+  }
+
+  // returns the queue of ready puzzles of the given size and bias made with the given
+  // generator
+  ArrayBlockingQueue<PuzzleEngine> queue(int cols, int rows, int bias,
+      TreeGenerator generator) {
+    return this.ready.computeIfAbsent(PuzzlePool.key(cols, rows, bias, generator),
+        k -> new ArrayBlockingQueue<PuzzleEngine>(this.capacity));
+  }
+
+  // returns the number of ready puzzles of the given size and bias made with the given
+  // generator
+  int readyCount(int cols, int rows, int bias, TreeGenerator generator) {
+    return this.queue(cols, rows, bias, generator).size();
+  }
+
+  // returns the seed of the next puzzle
+  synchronized long nextSeed() {
+    return this.seeds.nextLong();
+  }
+}
@@ -0,0 +1,183 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// class that hosts many puzzles at once behind a line protocol on a local socket,
+// one PuzzleSession per connection, see PuzzleSession for the commands.
+// every connection runs on its own virtual thread when the JVM has them,
+// and on a thread of a cached pool otherwise.
+// run with: java PuzzleServer [port] [seconds between reports]
+class PuzzleServer {
+  // the longest command line a session reads, longer lines end the session
+  static final int MAX_LINE = 128;
+
+  // the socket the server listens on
+  ServerSocket server;
+  // runs every connection
+  ExecutorService executor;
+  // the number of sessions started and still open, and the commands answered
+  AtomicLong sessionsStarted;
+  AtomicLong sessionsOpen;
+  AtomicLong commands;
+  // how long the commands took to answer, from reading them to writing the answer
+  LatencyHistogram latency;
+  // where the seeds of the sessions come from
+  Random seeds;
+  // the scores of every session
+  Leaderboard leaderboard;
+
+  // constructor for a server listening on the given local port, 0 for any free port,
+  // with a leaderboard kept in memory only
+  PuzzleServer(int port) throws IOException {
+    this(port, new Leaderboard(null));
+  }
+
+  // constructor for a server listening on the given local port, 0 for any free port,
+  // whose sessions share the given leaderboard
+  PuzzleServer(int port, Leaderboard leaderboard) throws IOException {
+    this.leaderboard = leaderboard;
+    this.server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+    this.executor = PuzzleServer.connectionExecutor();
+    this.sessionsStarted = new AtomicLong();
+    this.sessionsOpen = new AtomicLong();
+    this.commands = new AtomicLong();
+    this.latency = new LatencyHistogram();
+    this.seeds = new Random();
+  }
+
+  // starts the server and prints a report every few seconds until it is stopped
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    PuzzleServer host = new PuzzleServer(port,
+        Leaderboard.load(Paths.get("leaderboard.csv"), LeaderboardWriter.shared()));
+    System.out.println("listening on " + host.server.getLocalSocketAddress());
+    Thread reporter = new Thread(() -> host.report(seconds), "puzzle-server-report");
+    reporter.setDaemon(true);
+    reporter.start();
+    host.serve();
+  }
+
+  // returns an executor that starts a virtual thread for every task, if this JVM
+  // has virtual threads, or else one that reuses platform threads
+  static ExecutorService connectionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  // takes connections until the server socket is closed
+  void serve() {
+    while (!this.server.isClosed()) {
+      try {
+        Socket socket = this.server.accept();
+        long seed;
+        synchronized (this.seeds) {
+          seed = this.seeds.nextLong();
+        }
+        this.executor.execute(() -> this.run(socket, seed));
+      } catch (IOException e) {
+        if (!this.server.isClosed()) {
+          e.printStackTrace();
+        }
+      }
+    }
+  }
+
+  // stops taking connections and lets the open sessions end
+  void close() throws IOException {
+    this.server.close();
+    this.executor.shutdown();
+  }
+
+  // plays one session over the given connection until it quits or hangs up
+  void run(Socket socket, long seed) {
+    this.sessionsStarted.incrementAndGet();
+    this.sessionsOpen.incrementAndGet();
+    try (Socket connection = socket) {
+      connection.setTcpNoDelay(true);
+      InputStream in = new BufferedInputStream(connection.getInputStream());
+      OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+      PuzzleSession session = new PuzzleSession(new Random(seed), this.leaderboard);
+      byte[] line = new byte[MAX_LINE];
+      int length = PuzzleServer.readLine(in, line);
+      while (length >= 0) {
+        long start = System.nanoTime();
+        String answer = session.handle(new String(line, 0, length, StandardCharsets.US_ASCII));
+        if (answer == null) {
+          break;
+        }
+        out.write(answer.getBytes(StandardCharsets.US_ASCII));
+        out.write('\n');
+        out.flush();
+        this.latency.record(System.nanoTime() - start);
+        this.commands.incrementAndGet();
+        length = PuzzleServer.readLine(in, line);
+      }
+    } catch (IOException e) {
+      // the other side hung up, which ends the session like quit does
+    } finally {
+      this.sessionsOpen.decrementAndGet();
+    }
+  }
+
+  // reads one line into the given buffer without its line ending, and returns its length,
+  // or -1 at the end of the stream or if the line does not fit in the buffer
+  static int readLine(InputStream in, byte[] line) throws IOException {
+    int length = 0;
+    int next = in.read();
+    if (next < 0) {
+      return -1;
+    }
+    while (next >= 0 && next != '\n') {
+      if (next != '\r') {
+        if (length == line.length) {
+          return -1;
+        }
+        line[length++] = (byte) next;
+      }
+      next = in.read();
+    }
+    return length;
+  }
+
+  // prints the sessions started per second, the open sessions, the commands per second
+  // and how long the commands took, every given number of seconds
+  void report(int seconds) {
+    long lastSessions = 0;
+    long lastCommands = 0;
+    long lastTime = System.nanoTime();
+    while (!this.server.isClosed()) {
+      try {
+        Thread.sleep(seconds * 1000L);
+      } catch (InterruptedException e) {
+        return;
+      }
+      long now = System.nanoTime();
+      long sessions = this.sessionsStarted.get();
+      long commands = this.commands.get();
+      LatencyHistogram window = this.latency.snapshotAndReset();
+      double elapsed = (now - lastTime) / 1e9;
+      System.out.println(String.format("sessions/s %.1f open %d commands/s %.1f latency %s",
+          (sessions - lastSessions) / elapsed, this.sessionsOpen.get(),
+          (commands - lastCommands) / elapsed, window.summary()));
+      lastSessions = sessions;
+      lastCommands = commands;
+      lastTime = now;
+    }
+  }
+}
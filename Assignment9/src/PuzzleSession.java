@@ -0,0 +1,246 @@
+import java.util.Random;
+
+// class that represents one player's puzzle on the puzzle server, answering the
+// commands of the line protocol one line at a time:
+//   new [cols rows [bias]]  starts a new puzzle
+//   rotate x y              rotates the tile in column x and row y
+//   move dir                moves the power station up, down, left or right
+//   reset                   goes back to the puzzle as it was made
+//   undo                    takes back the last move
+//   redo                    makes the last move taken back again
+//   state                   describes the whole board
+//   submit name             puts the won puzzle's score on the leaderboard, once
+//   top [count]             lists the best players of the puzzle's size
+//   rank name               gives a player's rank for the puzzle's size
+//   quit                    ends the session
+// every answer is one line, starting with "ok" or "error"
+class PuzzleSession {
+  // the size of the puzzle a session starts with
+  static final int DEFAULT_SIZE = 8;
+  // the most players listed by top, and the longest name of a player
+  static final int MAX_TOP = 20;
+  static final int MAX_NAME = 16;
+  // the most tiles one puzzle can have, which bounds the memory of a session
+  static final int MAX_TILES = 256 * 256;
+  // the strongest bias of a puzzle towards vertical, or horizontal, wires
+  static final int MAX_BIAS = 3;
+
+  // the puzzle being played, null once the session has ended
+  PuzzleEngine engine;
+  // where the randomness of every new puzzle comes from
+  Random random;
+  // where the scores are kept, shared with the other sessions
+  Leaderboard leaderboard;
+  // whether the score of this puzzle has been submitted since it was started or reset
+  boolean submitted;
+
+  // constructor for a session with a default puzzle and a leaderboard of its own
+  PuzzleSession(Random random) {
+    this(random, new Leaderboard(null));
+  }
+
+  // constructor for a session with a default puzzle and the given leaderboard
+  PuzzleSession(Random random, Leaderboard leaderboard) {
+    this.random = random;
+    this.leaderboard = leaderboard;
+    this.submitted = false;
+    this.engine = new PuzzleEngine(DEFAULT_SIZE, DEFAULT_SIZE, 0, random,
+        new KruskalGenerator());
+  }
+
+  // answers the given command, or returns null if the session should end
+  String handle(String line) {
+    String[] words = line.trim().split("\\s+");
+    String command = words[0].toLowerCase();
+    try {
+      if (command.equals("new")) {
+        return this.newPuzzle(words);
+      } else if (command.equals("rotate")) {
+        return this.rotate(words);
+      } else if (command.equals("move")) {
+        return this.move(words);
+      } else if (command.equals("reset") && words.length == 1) {
+        this.engine.reset();
+        this.submitted = false;
+        return this.status();
+      } else if (command.equals("undo") && words.length == 1) {
+        this.engine.undo();
+        return this.status();
+      } else if (command.equals("redo") && words.length == 1) {
+        this.engine.redo();
+        return this.status();
+      } else if (command.equals("state") && words.length == 1) {
+        return this.state();
+      } else if (command.equals("submit")) {
+        return this.submit(words);
+      } else if (command.equals("top")) {
+        return this.top(words);
+      } else if (command.equals("rank")) {
+        return this.rank(words);
+      } else if (command.equals("quit") && words.length == 1) {
+        this.engine = null;
+        return null;
+      } else {
+        return "error unknown command: " + line.trim();
+      }
+    } catch (NumberFormatException e) {
+      return "error not a number: " + line.trim();
+    }
+  }
+
+  // starts a new puzzle of the given size and bias, or of the current size
+  String newPuzzle(String[] words) {
+    int cols = this.engine.numTilesWidth;
+    int rows = this.engine.numTilesHeight;
+    int bias = 0;
+    if (words.length == 3 || words.length == 4) {
+      cols = Integer.parseInt(words[1]);
+      rows = Integer.parseInt(words[2]);
+      bias = words.length == 4 ? Integer.parseInt(words[3]) : 0;
+    } else if (words.length != 1) {
+      return "error usage: new [cols rows [bias]]";
+    }
+    if (cols < 1 || rows < 1 || (long) cols * rows > MAX_TILES) {
+      return "error a puzzle has from 1 to " + MAX_TILES + " tiles";
+    }
+    if (bias < -MAX_BIAS || bias > MAX_BIAS) {
+      return "error the bias is from " + -MAX_BIAS + " to " + MAX_BIAS;
+    }
+    // the old puzzle is let go of before the new one is made
+    this.engine = null;
+    this.engine = new PuzzleEngine(cols, rows, bias, this.random, new KruskalGenerator());
+    this.submitted = false;
+    return this.status();
+  }
+
+  // rotates the tile at the given column and row
+  String rotate(String[] words) {
+    if (words.length != 3) {
+      return "error usage: rotate x y";
+    }
+    int col = Integer.parseInt(words[1]);
+    int row = Integer.parseInt(words[2]);
+    if (col < 0 || col >= this.engine.numTilesWidth || row < 0
+        || row >= this.engine.numTilesHeight) {
+      return "error no tile at " + col + " " + row;
+    }
+    if (!this.engine.isWinner()) {
+      this.engine.rotate(col, row);
+    }
+    return this.status();
+  }
+
+  // moves the power station in the given direction
+  String move(String[] words) {
+    if (words.length != 2) {
+      return "error usage: move up|down|left|right";
+    }
+    int dir = PuzzleSession.direction(words[1].toLowerCase());
+    if (dir == 0) {
+      return "error no direction " + words[1];
+    }
+    if (!this.engine.isWinner()) {
+      this.engine.moveStation(dir);
+    }
+    return this.status();
+  }
+
+  // puts the score of the won puzzle on the leaderboard under the given name
+  String submit(String[] words) {
+    if (words.length != 2 || !PuzzleSession.isName(words[1])) {
+      return "error usage: submit name, of up to " + MAX_NAME + " letters and digits";
+    }
+    if (!this.engine.isWinner()) {
+      return "error the puzzle is not solved";
+    }
+    if (this.submitted) {
+      return "error the score was already submitted";
+    }
+    if (this.engine.moves > Leaderboard.MAX_MOVES) {
+      return "error too many moves to rank";
+    }
+    this.submitted = true;
+    int rank = this.leaderboard.submit(words[1], this.engine.numTilesWidth,
+        this.engine.numTilesHeight, this.engine.moves, this.engine.lookedAtSolution);
+    return "ok rank=" + rank + " of "
+        + this.leaderboard.players(this.engine.numTilesWidth, this.engine.numTilesHeight);
+  }
+
+  // lists the best players of the puzzle's size, as name:moves, best first
+  String top(String[] words) {
+    if (words.length > 2) {
+      return "error usage: top [count]";
+    }
+    int count = words.length == 2 ? Integer.parseInt(words[1]) : 10;
+    if (count < 1 || count > MAX_TOP) {
+      return "error top lists from 1 to " + MAX_TOP + " players";
+    }
+    StringBuilder sb = new StringBuilder("ok top");
+    for (LeaderboardEntry entry : this.leaderboard.top(this.engine.numTilesWidth,
+        this.engine.numTilesHeight, count)) {
+      sb.append(' ').append(entry.name).append(':').append(entry.moves);
+    }
+    return sb.toString();
+  }
+
+  // gives the rank and best moves of the given player for the puzzle's size
+  String rank(String[] words) {
+    if (words.length != 2) {
+      return "error usage: rank name";
+    }
+    int cols = this.engine.numTilesWidth;
+    int rows = this.engine.numTilesHeight;
+    LeaderboardEntry best = this.leaderboard.best(cols, rows, words[1]);
+    if (best == null) {
+      return "error no score for " + words[1];
+    }
+    return "ok rank=" + this.leaderboard.rank(cols, rows, words[1]) + " of "
+        + this.leaderboard.players(cols, rows) + " moves=" + best.moves;
+  }
+
+  // returns whether the given name can go on the leaderboard
+  static boolean isName(String name) {
+    if (name.isEmpty() || name.length() > MAX_NAME) {
+      return false;
+    }
+    for (int i = 0; i < name.length(); i++) {
+      if (!Character.isLetterOrDigit(name.charAt(i)) || name.charAt(i) > 127) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns the board direction with the given name, or 0 if there is none
+  static int direction(String name) {
+    if (name.equals("up")) {
+      return Board.TOP;
+    } else if (name.equals("down")) {
+      return Board.BOTTOM;
+    } else if (name.equals("left")) {
+      return Board.LEFT;
+    } else if (name.equals("right")) {
+      return Board.RIGHT;
+    }
+    return 0;
+  }
+
+  // returns a short description of how the puzzle is going
+  String status() {
+    PuzzleEngine engine = this.engine;
+    return "ok moves=" + engine.moves + " left=" + engine.movesLeft() + " lit="
+        + engine.board.lit + "/" + engine.board.size() + " won=" + engine.isWinner();
+  }
+
+  // returns the status along with the size, the station and every tile of the board,
+  // one character each in column-major order, as the wires and station bits in base 32
+  String state() {
+    PuzzleEngine engine = this.engine;
+    StringBuilder sb = new StringBuilder(engine.board.size() + 80);
+    sb.append(this.status());
+    sb.append(" size=").append(engine.numTilesWidth).append('x').append(engine.numTilesHeight);
+    sb.append(" station=").append(engine.powerCol).append(',').append(engine.powerRow);
+    sb.append(" tiles=").append(engine.board.tilesText());
+    return sb.toString();
+  }
+}
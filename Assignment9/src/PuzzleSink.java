@@ -0,0 +1,10 @@
+import java.io.IOException;
+
+// interface for where BatchGenerator puts the puzzles it makes. puzzles are given to it
+// from many threads at once, and in any order
+interface PuzzleSink {
+
+  // takes the puzzle with the given number, made from the given seed, which the given
+  // engine is playing as a new game
+  void accept(int number, long seed, PuzzleEngine engine) throws IOException;
+}
@@ -0,0 +1,575 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// class that solves a scrambled board: it finds how far to rotate every tile so that
+// the wires join every tile into one tree. every tile keeps the set of its rotations
+// that give different wires and are still possible, and the sets are narrowed until
+// every pair of neighbors agrees on the wire between them (arc consistency), with
+// three more rules: no wire leaves the board, no wire closes a loop, and no group of
+// joined tiles is closed off from the rest. when that is not enough, every rotation
+// left of a tile with the fewest is tried, and the ones that fail straight away are
+// dropped. if more than one is left, they are searched one at a time, undoing what
+// a try narrowed when it fails, until the board is solved or the time runs out.
+// run with: java PuzzleSolver cols rows count seed [milliseconds per board]
+class PuzzleSolver {
+  // what the trail remembers the old value of
+  static final int DOMAIN = 0;
+  static final int JOINED = 1;
+  static final int PARENT = 2;
+  static final int SIZE = 3;
+  static final int LOOSE = 4;
+  // what settle returns when the board is solved, and when it cannot be
+  static final int SOLVED = -1;
+  static final int FAILED = -2;
+
+  // the board being solved, and its number of tiles
+  Board board;
+  int size;
+  // the wires of every tile as they are on the board
+  int[] wires;
+  // the rotations every tile can still have, bit r for r clockwise turns,
+  // and the fewest turns the tiles can still be given in them
+  int[] domain;
+  int fewestTurns;
+  // the directions in which some, and every, rotation left of a tile has a wire
+  int[] may;
+  int[] must;
+  // the directions in which a tile has been joined to its neighbor in the tree
+  int[] joined;
+  // the groups of joined tiles: the parent and size of every group's root, and the
+  // number of wires that may still leave every group, counted at its root
+  int[] parent;
+  int[] groupSize;
+  int[] loose;
+  // every change as three ints, what changed, where, and its old value,
+  // so that a failed try can be undone
+  int[] trail;
+  int trailSize;
+  // the tiles whose rotations have to be checked again, in a ring with room for
+  // every tile, since a tile is only queued once at a time
+  int[] queue;
+  int head;
+  int tail;
+  boolean[] queued;
+  // the tiles tried, the rotations of each still to try, and the trail before each try
+  int[] tried;
+  int[] choices;
+  int[] marks;
+  int depth;
+  // the number of tries made, when the time runs out, the most tries that can be made,
+  // and whether the time or the tries ran out
+  long tries;
+  long deadline;
+  long maxTries;
+  boolean timedOut;
+  // set by another solver of the same board to stop this one, or null
+  AtomicBoolean stop;
+  // the fewest moves of any solution cheapest has found, the turns of every tile in it,
+  // and the tile the station walks to in it
+  int best;
+  int[] bestTurns;
+  int bestGoal;
+
+  // constructor for a solver of the given board as it is now
+  PuzzleSolver(Board board) {
+    this.board = board;
+    this.size = board.size();
+    this.wires = new int[this.size];
+    this.domain = new int[this.size];
+    this.may = new int[this.size];
+    this.must = new int[this.size];
+    this.joined = new int[this.size];
+    this.parent = new int[this.size];
+    this.groupSize = new int[this.size];
+    this.loose = new int[this.size];
+    this.trail = new int[3 * 1024];
+    this.queue = new int[this.size + 1];
+    this.queued = new boolean[this.size];
+    this.tried = new int[16];
+    this.choices = new int[16];
+    this.marks = new int[16];
+    this.maxTries = Long.MAX_VALUE;
+    for (int i = 0; i < this.size; i++) {
+      this.wires[i] = board.wires(i);
+      // only the rotations that give different wires
+      int seen = 0;
+      int mask = this.wires[i];
+      for (int r = 0; r < 4; r++) {
+        if ((seen & (1 << mask)) == 0) {
+          seen |= 1 << mask;
+          this.domain[i] |= 1 << r;
+        }
+        mask = Board.rotateMask(mask);
+      }
+      this.bounds(i);
+      this.parent[i] = i;
+      this.groupSize[i] = 1;
+      this.loose[i] = Integer.bitCount(this.may[i]);
+    }
+  }
+
+  // constructor for a solver that starts where the given one is now, without its tries,
+  // so that the two can go on separately, see ParallelSolver
+  PuzzleSolver(PuzzleSolver other) {
+    this.board = other.board;
+    this.size = other.size;
+    this.wires = other.wires;
+    this.domain = other.domain.clone();
+    this.fewestTurns = other.fewestTurns;
+    this.may = other.may.clone();
+    this.must = other.must.clone();
+    this.joined = other.joined.clone();
+    this.parent = other.parent.clone();
+    this.groupSize = other.groupSize.clone();
+    this.loose = other.loose.clone();
+    this.trail = new int[3 * 1024];
+    this.queue = new int[this.size + 1];
+    this.queued = new boolean[this.size];
+    this.tried = new int[16];
+    this.choices = new int[16];
+    this.marks = new int[16];
+    this.deadline = other.deadline;
+    this.maxTries = other.maxTries;
+    this.stop = other.stop;
+  }
+
+  // solves the puzzles given on the command line and prints how long they took
+  public static void main(String[] args) {
+    if (args.length < 4) {
+      System.out.println("usage: java PuzzleSolver cols rows count seed [milliseconds]");
+      return;
+    }
+    int cols = Integer.parseInt(args[0]);
+    int rows = Integer.parseInt(args[1]);
+    int count = Integer.parseInt(args[2]);
+    Random random = new Random(Long.parseLong(args[3]));
+    long budget = (args.length > 4 ? Long.parseLong(args[4]) : 10000) * 1000000L;
+    LatencyHistogram times = new LatencyHistogram();
+    int solved = 0;
+    for (int k = 0; k < count; k++) {
+      PuzzleEngine engine = new PuzzleEngine(cols, rows, 0, new Random(random.nextLong()),
+          new KruskalGenerator());
+      PuzzleSolver solver = new PuzzleSolver(engine.board);
+      long start = System.nanoTime();
+      if (solver.solve(budget)) {
+        solved++;
+      }
+      times.record(System.nanoTime() - start);
+      System.out.println(String.format("puzzle %d: %s after %d tries", k,
+          solver.timedOut ? "timed out" : "solved", solver.tries));
+    }
+    System.out.println(String.format("%d of %d %dx%d puzzles solved, times %s", solved, count,
+        cols, rows, times.summary()));
+  }
+
+  // returns the wires the given rotation of the given wires has
+  static int rotated(int mask, int turns) {
+    for (int r = 0; r < turns; r++) {
+      mask = Board.rotateMask(mask);
+    }
+    return mask;
+  }
+
+  // sets the wires some and every rotation left of the tile at the given index has
+  void bounds(int index) {
+    int any = 0;
+    int all = Board.WIRES;
+    for (int r = 0; r < 4; r++) {
+      if ((this.domain[index] & (1 << r)) != 0) {
+        int mask = PuzzleSolver.rotated(this.wires[index], r);
+        any |= mask;
+        all &= mask;
+      }
+    }
+    this.may[index] = any;
+    this.must[index] = all;
+  }
+
+  // returns the number of wires of the tile at the given index that may still
+  // lead out of its group
+  int open(int index) {
+    return Integer.bitCount(this.may[index] & ~this.joined[index]);
+  }
+
+  // returns the root of the group of the tile at the given index
+  int find(int index) {
+    while (this.parent[index] != index) {
+      index = this.parent[index];
+    }
+    return index;
+  }
+
+  // remembers the old value of something about to change
+  void remember(int what, int index, int old) {
+    if (this.trailSize + 3 > this.trail.length) {
+      this.trail = Arrays.copyOf(this.trail, this.trail.length * 2);
+    }
+    this.trail[this.trailSize++] = what;
+    this.trail[this.trailSize++] = index;
+    this.trail[this.trailSize++] = old;
+  }
+
+  // undoes every change made since the trail had the given size
+  void undo(int mark) {
+    while (this.trailSize > mark) {
+      int old = this.trail[--this.trailSize];
+      int index = this.trail[--this.trailSize];
+      int what = this.trail[--this.trailSize];
+      if (what == DOMAIN) {
+        this.fewestTurns += Integer.numberOfTrailingZeros(old)
+            - Integer.numberOfTrailingZeros(this.domain[index]);
+        this.domain[index] = old;
+        this.bounds(index);
+      } else if (what == JOINED) {
+        this.joined[index] = old;
+      } else if (what == PARENT) {
+        this.parent[index] = old;
+      } else if (what == SIZE) {
+        this.groupSize[index] = old;
+      } else {
+        this.loose[index] = old;
+      }
+    }
+  }
+
+  // narrows the rotations of the tile at the given index to the given ones
+  void narrow(int index, int rotations) {
+    int before = this.open(index);
+    this.remember(DOMAIN, index, this.domain[index]);
+    this.fewestTurns += Integer.numberOfTrailingZeros(rotations)
+        - Integer.numberOfTrailingZeros(this.domain[index]);
+    this.domain[index] = rotations;
+    this.bounds(index);
+    this.addLoose(this.find(index), this.open(index) - before);
+  }
+
+  // adds the given number to the wires that may leave the group with the given root
+  void addLoose(int root, int delta) {
+    if (delta != 0) {
+      this.remember(LOOSE, root, this.loose[root]);
+      this.loose[root] += delta;
+    }
+  }
+
+  // joins the tile at the given index to its neighbor in the given direction
+  void join(int index, int dir, int other) {
+    int rootA = this.find(index);
+    int rootB = this.find(other);
+    int openA = this.open(index);
+    int openB = this.open(other);
+    this.remember(JOINED, index, this.joined[index]);
+    this.joined[index] |= dir;
+    this.remember(JOINED, other, this.joined[other]);
+    this.joined[other] |= Board.opposite(dir);
+    this.addLoose(rootA, this.open(index) - openA);
+    this.addLoose(rootB, this.open(other) - openB);
+    if (this.groupSize[rootA] < this.groupSize[rootB]) {
+      int swap = rootA;
+      rootA = rootB;
+      rootB = swap;
+    }
+    this.remember(PARENT, rootB, this.parent[rootB]);
+    this.parent[rootB] = rootA;
+    this.remember(SIZE, rootA, this.groupSize[rootA]);
+    this.groupSize[rootA] += this.groupSize[rootB];
+    this.addLoose(rootA, this.loose[rootB]);
+  }
+
+  // returns whether the tile at the given index can have the given wires
+  // with the rotations its neighbors have left
+  boolean fits(int index, int mask) {
+    for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+      int other = this.board.neighbor(index, dir);
+      boolean wire = (mask & dir) != 0;
+      if (other < 0) {
+        if (wire) {
+          return false;
+        }
+      } else if (wire) {
+        int back = Board.opposite(dir);
+        if ((this.may[other] & back) == 0) {
+          return false;
+        }
+        // a new wire between tiles of the same group would close a loop
+        if ((this.joined[index] & dir) == 0 && this.find(index) == this.find(other)) {
+          return false;
+        }
+        // two dead ends joined to each other are cut off from everything else
+        if (this.size > 2 && Integer.bitCount(this.wires[index]) == 1
+            && Integer.bitCount(this.wires[other]) == 1) {
+          return false;
+        }
+      } else if ((this.must[other] & Board.opposite(dir)) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // checks the rotations of the tile at the given index against its neighbors,
+  // and joins it to the neighbors it must have a wire to.
+  // returns false if the board cannot be solved any more
+  boolean revise(int index) {
+    int left = 0;
+    for (int r = 0; r < 4; r++) {
+      if ((this.domain[index] & (1 << r)) != 0
+          && this.fits(index, PuzzleSolver.rotated(this.wires[index], r))) {
+        left |= 1 << r;
+      }
+    }
+    if (left == 0) {
+      return false;
+    }
+    if (left != this.domain[index]) {
+      this.narrow(index, left);
+      for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+        this.enqueue(this.board.neighbor(index, dir));
+      }
+    }
+    int unjoined = this.must[index] & ~this.joined[index];
+    for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+      if ((unjoined & dir) != 0) {
+        int other = this.board.neighbor(index, dir);
+        if (this.find(index) == this.find(other)) {
+          return false;
+        }
+        this.join(index, dir, other);
+        this.enqueue(other);
+      }
+    }
+    int root = this.find(index);
+    return this.groupSize[root] == this.size || this.loose[root] > 0;
+  }
+
+  // adds the tile at the given index to the tiles to check again, if it is not already
+  void enqueue(int index) {
+    if (index >= 0 && !this.queued[index]) {
+      this.queued[index] = true;
+      this.queue[this.tail] = index;
+      this.tail = (this.tail + 1) % this.queue.length;
+    }
+  }
+
+  // checks the queued tiles until nothing more can be narrowed.
+  // returns false if the board cannot be solved any more
+  boolean propagate() {
+    while (this.head != this.tail) {
+      int index = this.queue[this.head];
+      this.head = (this.head + 1) % this.queue.length;
+      this.queued[index] = false;
+      if (!this.revise(index)) {
+        while (this.head != this.tail) {
+          this.queued[this.queue[this.head]] = false;
+          this.head = (this.head + 1) % this.queue.length;
+        }
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns the tile with the fewest rotations left, more than one, or -1 if every
+  // tile has only one
+  int choose() {
+    int best = -1;
+    int fewest = 5;
+    for (int i = 0; i < this.size && fewest > 2; i++) {
+      int count = Integer.bitCount(this.domain[i]);
+      if (count > 1 && count < fewest) {
+        best = i;
+        fewest = count;
+      }
+    }
+    return best;
+  }
+
+  // remembers a tile to try the rotations of
+  void push(int index) {
+    if (this.depth == this.tried.length) {
+      this.tried = Arrays.copyOf(this.tried, this.depth * 2);
+      this.choices = Arrays.copyOf(this.choices, this.depth * 2);
+      this.marks = Arrays.copyOf(this.marks, this.depth * 2);
+    }
+    this.tried[this.depth] = index;
+    this.choices[this.depth] = this.domain[index];
+    this.marks[this.depth] = this.trailSize;
+    this.depth++;
+  }
+
+  // narrows the tile at the given index to the given rotations, and checks the tiles
+  // around it. returns false if the board cannot be solved that way
+  boolean assume(int index, int rotations) {
+    this.narrow(index, rotations);
+    this.enqueue(index);
+    for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+      this.enqueue(this.board.neighbor(index, dir));
+    }
+    return this.propagate();
+  }
+
+  // tries every rotation left of the tiles with the fewest, keeping only the ones that
+  // do not fail straight away, until a tile has more than one left.
+  // returns that tile, SOLVED if the board is solved, or FAILED if it cannot be
+  int settle() {
+    int next = this.choose();
+    while (next >= 0) {
+      if (this.stopped()) {
+        return FAILED;
+      }
+      int alive = 0;
+      for (int r = 0; r < 4; r++) {
+        int choice = 1 << r;
+        if ((this.domain[next] & choice) != 0) {
+          int mark = this.trailSize;
+          this.tries++;
+          if (this.assume(next, choice)) {
+            alive |= choice;
+          }
+          this.undo(mark);
+        }
+      }
+      if (alive == 0 || (alive != this.domain[next] && !this.assume(next, alive))) {
+        return FAILED;
+      }
+      if (Integer.bitCount(this.domain[next]) > 1) {
+        return next;
+      }
+      next = this.choose();
+    }
+    return this.groupSize[this.find(0)] == this.size ? SOLVED : FAILED;
+  }
+
+  // returns whether the search has to stop, because the time or the tries ran out or
+  // another solver asked it to
+  boolean stopped() {
+    if (System.nanoTime() > this.deadline || this.tries > this.maxTries) {
+      this.timedOut = true;
+    }
+    return this.timedOut || (this.stop != null && this.stop.get());
+  }
+
+  // checks every tile against its neighbors before the search starts, with the given
+  // number of nanoseconds for the whole solve, where Long.MAX_VALUE is no limit.
+  // returns false if the board has no solution
+  boolean start(long budgetNanos) {
+    long now = System.nanoTime();
+    this.deadline = budgetNanos > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + budgetNanos;
+    this.timedOut = false;
+    for (int i = 0; i < this.size; i++) {
+      this.enqueue(i);
+    }
+    return this.propagate();
+  }
+
+  // solves the board within the given number of nanoseconds.
+  // returns whether it was solved, see turns for the solution
+  boolean solve(long budgetNanos) {
+    if (!this.start(budgetNanos)) {
+      return false;
+    }
+    int next = this.settle();
+    if (next < 0) {
+      return next == SOLVED;
+    }
+    this.push(next);
+    return this.search();
+  }
+
+  // searches the rotations of the tiles that have been pushed, most recent first,
+  // until the board is solved, every rotation has failed or the search has to stop.
+  // returns whether the board was solved
+  boolean search() {
+    while (this.depth > 0 && !this.stopped()) {
+      int top = this.depth - 1;
+      this.undo(this.marks[top]);
+      if (this.choices[top] == 0) {
+        this.depth--;
+        continue;
+      }
+      int choice = Integer.lowestOneBit(this.choices[top]);
+      this.choices[top] &= ~choice;
+      this.tries++;
+      if (this.assume(this.tried[top], choice)) {
+        int next = this.settle();
+        if (next == SOLVED) {
+          return true;
+        } else if (next >= 0) {
+          this.push(next);
+        }
+      }
+    }
+    return false;
+  }
+
+  // searches every solution of the board for the one with the fewest moves: the turns of
+  // its tiles, and the steps the station at the given index takes along it to a tile
+  // that lights every tile with the given radius. only solutions with fewer moves than
+  // the given bound are kept, in best, bestTurns and bestGoal, and a try whose turns
+  // alone come to as many moves as the best so far is not followed.
+  // returns false if the given number of tries ran out before every one was searched
+  boolean cheapest(int station, int radius, int bound, long budgetTries) {
+    this.best = bound;
+    this.maxTries = budgetTries;
+    Board solved = new Board(this.board.cols, this.board.rows);
+    if (!this.start(Long.MAX_VALUE)) {
+      return true;
+    }
+    int next = this.settle();
+    if (next == SOLVED) {
+      this.offer(solved, station, radius);
+    } else if (next >= 0) {
+      this.push(next);
+    }
+    while (this.depth > 0 && !this.stopped()) {
+      int top = this.depth - 1;
+      this.undo(this.marks[top]);
+      if (this.choices[top] == 0) {
+        this.depth--;
+        continue;
+      }
+      // the fewest turns first, to find a cheap solution early
+      int choice = Integer.lowestOneBit(this.choices[top]);
+      this.choices[top] &= ~choice;
+      this.tries++;
+      if (this.assume(this.tried[top], choice) && this.fewestTurns < this.best) {
+        next = this.settle();
+        if (next == SOLVED) {
+          this.offer(solved, station, radius);
+        } else if (next >= 0 && this.fewestTurns < this.best) {
+          this.push(next);
+        }
+      }
+    }
+    return !this.timedOut;
+  }
+
+  // keeps the solution the board has now if it has fewer moves than the best so far,
+  // walking the station at the given index along it on the given board. the walk visits
+  // every tile, so it counts as a try of every tile
+  void offer(Board solved, int station, int radius) {
+    this.tries += this.size;
+    int[] turns = this.turns();
+    byte[] tiles = new byte[this.size];
+    for (int i = 0; i < this.size; i++) {
+      tiles[i] = (byte) PuzzleSolver.rotated(this.wires[i], turns[i]);
+    }
+    solved.restore(tiles);
+    int goal = solved.nearestCenter(station, radius);
+    if (goal >= 0 && this.fewestTurns + solved.distance[goal] < this.best) {
+      this.best = this.fewestTurns + solved.distance[goal];
+      this.bestTurns = turns;
+      this.bestGoal = goal;
+    }
+  }
+
+  // returns how many times every tile has to be rotated clockwise to solve the board,
+  // once it is solved
+  int[] turns() {
+    int[] turns = new int[this.size];
+    for (int i = 0; i < this.size; i++) {
+      turns[i] = Integer.numberOfTrailingZeros(this.domain[i]);
+    }
+    return turns;
+  }
+}
@@ -0,0 +1,23 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents finding the longest path through a board, for its radius
+@Name("lightemall.Radius")
+@Label("Radius")
+@Category("Light Em All")
+@Description("Walking the tiles linked to the power station twice for the longest path")
+class RadiusEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+  // the length of the longest path, and the radius it gives
+  @Label("Diameter")
+  int diameter;
+  @Label("Radius")
+  int radius;
+}
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents drawing the scene of a game
+@Name("lightemall.Scene")
+@Label("Scene")
+@Category("Light Em All")
+@Description("Drawing the board and the text around it")
+class SceneEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+  // the size of a tile in pixels
+  @Label("Tile Size")
+  int tileSize;
+  // the number of tiles lit, and whether every one is
+  @Label("Tiles Lit")
+  int tilesLit;
+  @Label("Won")
+  boolean won;
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// class that represents scrambling the tiles of a new puzzle and working out its par
+@Name("lightemall.Scramble")
+@Label("Scramble")
+@Category("Light Em All")
+@Description("Turning every tile at random and counting the fewest moves that solve it")
+class ScrambleEvent extends Event {
+  // the number of columns and rows of the board
+  @Label("Columns")
+  int cols;
+  @Label("Rows")
+  int rows;
+  // the bias of the wires
+  @Label("Bias")
+  int bias;
+  // the fewest moves that solve the puzzle
+  @Label("Moves Needed")
+  int movesNeeded;
+}
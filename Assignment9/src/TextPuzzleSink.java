@@ -0,0 +1,24 @@
+import java.io.IOException;
+import java.io.Writer;
+
+// class that writes puzzles as text, one line per puzzle, see BatchGenerator
+class TextPuzzleSink implements PuzzleSink {
+  // where the lines are written, one thread at a time
+  Writer out;
+
+  // constructor for a sink that writes to the given writer
+  TextPuzzleSink(Writer out) {
+    this.out = out;
+  }
+
+  // writes the line of the given puzzle
+  public void accept(int number, long seed, PuzzleEngine engine) throws IOException {
+    String line = number + " " + engine.numTilesWidth + " " + engine.numTilesHeight + " "
+        + engine.bias + " " + seed + " " + engine.radius + " " + engine.numMovesNeeded + " "
+        + engine.powerCol + " " + engine.powerRow + " " + Board.tilesText(engine.currState)
+        + "\n";
+    synchronized (this.out) {
+      this.out.write(line);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+import javalib.worldimages.*;
+
+// class that keeps the image of every kind of tile at one tile size, so drawing
+// the board shares the images instead of building new ones for every tile.
+// a tile looks the same as every other tile with the same wires, station and
+// color of power, so there are only a few thousand kinds of tile at most
+class TileSprites {
+  // the number of colors a tile can have: one for a tile that is not lit, and one for
+  // every value of 80 / powered, which is how GamePiece picks the color of its wires
+  static final int LEVELS = 82;
+  // the number of different connection and station bits a tile can have
+  static final int KINDS = (Board.WIRES | Board.STATION) + 1;
+
+  // the size of every tile image, and the length of the wires drawn on it
+  int tileSize;
+  int wireSize;
+  // the image of every kind of tile, only made once it is first needed
+  WorldImage[] sprites;
+
+  // constructor for an empty cache of tile images of the given size
+  TileSprites(int tileSize, int wireSize) {
+    this.tileSize = tileSize;
+    this.wireSize = wireSize;
+    this.sprites = new WorldImage[KINDS * LEVELS];
+  }
+
+  // returns which color a tile with the given power is drawn in
+  static int level(int power) {
+    return power > 0 ? 1 + 80 / power : 0;
+  }
+
+  // returns the image of a tile with the given connection and station bits
+  // and the given power, making it the first time it is asked for
+  WorldImage sprite(int tile, int power) {
+    int key = (tile & (KINDS - 1)) * LEVELS + TileSprites.level(power);
+    if (this.sprites[key] == null) {
+      GamePiece gp = new GamePiece(0, 0, (tile & Board.LEFT) != 0, (tile & Board.RIGHT) != 0,
+          (tile & Board.TOP) != 0, (tile & Board.BOTTOM) != 0, (tile & Board.STATION) != 0,
+          this.wireSize);
+      gp.powered = Math.max(power, 0);
+      this.sprites[key] = gp.draw(this.tileSize);
+    }
+    return this.sprites[key];
+  }
+
+  // returns the number of tile images made so far
+  int count() {
+    int count = 0;
+    for (WorldImage sprite : this.sprites) {
+      if (sprite != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,26 @@
+// class that represents the longest path through a tree of linked tiles
+class TreeDiameter {
+  // the board indices of the tiles at the two ends of the path
+  int from;
+  int to;
+  // the number of links on the path
+  int length;
+  // the board index of the tile in the middle of the path. every tile in the tree is
+  // at most half the length away from it, rounded up, so a power station there
+  // lights the whole tree
+  int center;
+
+  // constructor for TreeDiameter
+  TreeDiameter(int from, int to, int length, int center) {
+    this.from = from;
+    this.to = to;
+    this.length = length;
+    this.center = center;
+  }
+
+  // returns the radius the power station needs to light the whole tree from the center,
+  // which is also the radius of the game
+  int radius() {
+    return this.length / 2 + 1;
+  }
+}
@@ -0,0 +1,12 @@
+import java.util.Random;
+
+// interface for the ways of building the spanning tree that a puzzle is made from.
+// a generator keeps nothing between trees, so one can build trees on many threads
+interface TreeGenerator {
+
+  // returns the edges of a spanning tree over the tiles of the given board.
+  // the bias is the same as the bias of the game: if it is positive,
+  // horizontal wires are that many times less likely, and if it is negative,
+  // vertical wires are that many times less likely
+  EdgeList generate(Board board, int bias, Random random);
+}
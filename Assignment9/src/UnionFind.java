@@ -0,0 +1,46 @@
+// class that represents a disjoint-set forest over the tiles of a board,
+// used by kruskalAlgos to tell whether two tiles are already connected
+class UnionFind {
+  // the parent of every tile, a tile that is its own parent is a representative
+  int[] parent;
+  // the number of tiles in the group of every representative
+  int[] size;
+
+  // constructor that puts every one of the given number of tiles in its own group
+  UnionFind(int count) {
+    this.parent = new int[count];
+    this.size = new int[count];
+    for (int i = 0; i < count; i++) {
+      this.parent[i] = i;
+      this.size[i] = 1;
+    }
+  }
+
+  // returns the representative of the group of the given tile,
+  // pointing every tile on the way at its grandparent so later finds are shorter
+  int find(int x) {
+    while (this.parent[x] != x) {
+      this.parent[x] = this.parent[this.parent[x]];
+      x = this.parent[x];
+    }
+    return x;
+  }
+
+  // joins the groups of the two given tiles, hanging the smaller group under the
+  // larger one. returns false if the tiles were already in the same group
+  boolean union(int x, int y) {
+    int rootX = this.find(x);
+    int rootY = this.find(y);
+    if (rootX == rootY) {
+      return false;
+    }
+    if (this.size[rootX] < this.size[rootY]) {
+      this.parent[rootX] = rootY;
+      this.size[rootY] += this.size[rootX];
+    } else {
+      this.parent[rootY] = rootX;
+      this.size[rootX] += this.size[rootY];
+    }
+    return true;
+  }
+}
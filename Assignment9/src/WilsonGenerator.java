@@ -0,0 +1,44 @@
+import java.util.Random;
+
+// class that builds the tree with wilson's algorithm. without a bias every spanning
+// tree of the board is equally likely, with a bias the random walks prefer the
+// cheaper direction so each tree is as likely as the product of its wire weights
+class WilsonGenerator extends ATreeGenerator {
+
+  // adds the tiles to the tree one loop-erased random walk at a time
+  public EdgeList generate(Board board, int bias, Random random) {
+    int size = board.size();
+    EdgeList edgesInTree = new EdgeList(Math.max(size - 1, 0));
+    if (size == 0) {
+      return edgesInTree;
+    }
+    int horizontalWeight = this.verticalCost(bias);
+    int verticalWeight = this.horizontalCost(bias);
+    boolean[] inTree = new boolean[size];
+    // the tile the walk last left every tile towards, which erases loops
+    // because a revisited tile simply overwrites where it went
+    int[] next = new int[size];
+    inTree[random.nextInt(size)] = true;
+    for (int i = 0; i < size; i++) {
+      int curr = i;
+      while (!inTree[curr]) {
+        int dirs = 0;
+        for (int dir = Board.LEFT; dir <= Board.BOTTOM; dir <<= 1) {
+          if (board.neighbor(curr, dir) >= 0) {
+            dirs |= dir;
+          }
+        }
+        next[curr] = board.neighbor(curr,
+            this.pickDirection(dirs, horizontalWeight, verticalWeight, random));
+        curr = next[curr];
+      }
+      curr = i;
+      while (!inTree[curr]) {
+        inTree[curr] = true;
+        edgesInTree.add(curr, next[curr], 0);
+        curr = next[curr];
+      }
+    }
+    return edgesInTree;
+  }
+}